@@ -0,0 +1,69 @@
+package org.mycore.mets.validator.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.jdom2.Document;
+import org.jdom2.JDOMException;
+import org.mycore.mets.validator.METSValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link METSValidator#buildDocument(InputStream)}, the parsing with line numbers
+ * which every validation from a stream starts with.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuildDocumentBenchmark {
+
+    @Param({ "100", "10000" })
+    public int pages;
+
+    private byte[] mets;
+
+    private DocumentBuilder builder;
+
+    @Setup
+    public void setUp() {
+        mets = new METSGenerator().pages(pages).toBytes();
+        builder = new DocumentBuilder();
+    }
+
+    @Benchmark
+    public Document buildDocument() throws JDOMException, IOException {
+        return builder.buildDocument(new ByteArrayInputStream(mets));
+    }
+
+    /**
+     * Makes the protected build method accessible.
+     */
+    private static final class DocumentBuilder extends METSValidator {
+
+        DocumentBuilder() {
+            super((Document) null);
+        }
+
+        @Override
+        public Document buildDocument(InputStream in) throws JDOMException, IOException {
+            return super.buildDocument(in);
+        }
+
+    }
+
+}
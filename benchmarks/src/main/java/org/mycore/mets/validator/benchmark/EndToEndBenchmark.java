@@ -0,0 +1,83 @@
+package org.mycore.mets.validator.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jdom2.JDOMException;
+import org.mycore.mets.validator.METSValidator;
+import org.mycore.mets.validator.stream.StreamingMETSValidator;
+import org.mycore.mets.validator.validators.ValidationException;
+import org.mycore.mets.validator.validators.ValidationIssueSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures complete validation runs from the serialized document to the list of errors, with
+ * the default validators. The schema is compiled once in the setup, like in a long running
+ * process. The fail fast benchmark uses a document with the given defect, all others use it too,
+ * so <code>-p defect=NONE</code> compares the modes on a valid document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int pages;
+
+    @Param({ "NONE", "UNLINKED_PAGE" })
+    public METSGenerator.Defect defect;
+
+    private byte[] mets;
+
+    @Setup
+    public void setUp() throws Exception {
+        mets = new METSGenerator().pages(pages).defect(defect).toBytes();
+        // compiles and caches the schema
+        new METSValidator(new ByteArrayInputStream(mets)).validate();
+    }
+
+    @Benchmark
+    public List<ValidationException> validate() throws JDOMException, IOException {
+        return new METSValidator(new ByteArrayInputStream(mets)).validate();
+    }
+
+    @Benchmark
+    public List<ValidationException> validateParallel() throws JDOMException, IOException {
+        return new METSValidator(new ByteArrayInputStream(mets)).validateParallel();
+    }
+
+    @Benchmark
+    public List<ValidationException> validateFailFast() throws JDOMException, IOException {
+        return new METSValidator(new ByteArrayInputStream(mets)).validateFailFast();
+    }
+
+    @Benchmark
+    public ValidationIssueSink validateIssueSink() throws JDOMException, IOException {
+        ValidationIssueSink sink = new ValidationIssueSink();
+        new METSValidator(new ByteArrayInputStream(mets)).validate(sink);
+        return sink;
+    }
+
+    @Benchmark
+    public List<ValidationException> validateStreaming() throws XMLStreamException {
+        return new StreamingMETSValidator(new ByteArrayInputStream(mets)).validate();
+    }
+
+}
@@ -0,0 +1,103 @@
+package org.mycore.mets.validator.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jdom2.JDOMException;
+import org.mycore.mets.validator.METSValidator;
+import org.mycore.mets.validator.stream.StreamingMETSValidator;
+import org.mycore.mets.validator.validators.SchemaValidator;
+import org.mycore.mets.validator.validators.ValidationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reading a local file through a {@link java.io.FileInputStream} with the path based
+ * entry points, which use a {@link org.mycore.mets.validator.MappedFileInput}. The file is
+ * generated once per trial with about the given size. The streaming benchmarks work for any
+ * size, the DOM benchmarks need a heap of roughly ten times the file size:
+ * <pre>
+ * java -jar target/benchmarks.jar Input.streaming -p sizeMb=2048
+ * java -jar target/benchmarks.jar Input.dom -p sizeMb=256 -jvmArgs -Xmx4g
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InputBenchmark {
+
+    @Param({ "1", "16", "128" })
+    public int sizeMb;
+
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        int bytesPerPage = new METSGenerator().pages(1000).toBytes().length / 1000;
+        int pages = (int) Math.max(1, sizeMb * 1_000_000L / bytesPerPage);
+        file = Files.createTempFile("mets-benchmark-", ".xml");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            new METSGenerator().pages(pages).logicalDepth(4).write(writer);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<ValidationException> domStream() throws IOException, JDOMException {
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(file))) {
+            return validateStructure(new METSValidator(is));
+        }
+    }
+
+    @Benchmark
+    public List<ValidationException> domPath() throws IOException, JDOMException {
+        return validateStructure(new METSValidator(file));
+    }
+
+    @Benchmark
+    public List<ValidationException> streamingStream() throws IOException, XMLStreamException {
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(file))) {
+            return new StreamingMETSValidator(is).validate();
+        }
+    }
+
+    @Benchmark
+    public List<ValidationException> streamingPath() throws IOException, XMLStreamException {
+        return new StreamingMETSValidator(file).validate();
+    }
+
+    /**
+     * Without the schema validation, which would dominate the time.
+     */
+    private static List<ValidationException> validateStructure(METSValidator validator) {
+        validator.getValidators().removeIf(SchemaValidator.class::isInstance);
+        return validator.validate();
+    }
+
+}
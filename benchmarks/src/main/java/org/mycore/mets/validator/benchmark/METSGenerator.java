@@ -0,0 +1,412 @@
+package org.mycore.mets.validator.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic METS documents of configurable size for benchmarks. The output only
+ * depends on the settings and the seed, so the same document can be generated again.
+ * <p>
+ * A generated document has a MASTER file group, an optional ALTO file group, a physical
+ * struct map with one page per master file, a logical struct map which is a complete tree
+ * with the given depth and fan out, and a struct link section. The pages are split into
+ * contiguous random ranges, one per logical leaf. Each leaf is linked to its pages and
+ * references the ALTO files of its pages. Without a {@link Defect} the document is valid for
+ * all validators including the schema validation. With a defect it is broken in one place,
+ * chosen by the seed. Very small documents, where every logical leaf has a single page, may
+ * report follow-up errors for some defects.
+ *
+ * <pre>
+ * byte[] mets = new METSGenerator().pages(10_000).logicalDepth(4).seed(7).toBytes();
+ * </pre>
+ */
+public class METSGenerator {
+
+    /**
+     * A deliberate error in the generated document.
+     */
+    public enum Defect {
+
+        /** The document is valid. */
+        NONE,
+
+        /** A master file has the mimetype text/plain, found by the FileSectionValidator. */
+        MIMETYPE,
+
+        /** A page has an invalid @TYPE, found by the PhysicalStructureValidator. */
+        PAGE_TYPE,
+
+        /** A physical fptr has no @FILEID, found by the PhysicalStructureValidator. */
+        MISSING_FILEID,
+
+        /** Two logical divs share an @ID, found by the LogicalStructMapValidator. Needs two leaves. */
+        DUPLICATE_ID,
+
+        /** A page is not linked, found by the StructLinkValidator. */
+        UNLINKED_PAGE,
+
+        /** An smLink points to a page which does not exist, found by the StructLinkValidator. */
+        UNKNOWN_PAGE_LINK,
+
+        /** An ALTO file is not referenced by the logical struct map, found by the AltoValidator. */
+        UNREFERENCED_ALTO,
+
+        /** An element which is not allowed by the METS schema, found by the SchemaValidator only. */
+        SCHEMA
+
+    }
+
+    private int pages = 100;
+
+    private int logicalDepth = 3;
+
+    private int fanOut = 4;
+
+    private boolean alto = true;
+
+    private boolean linkAllLevels;
+
+    private long seed = 42;
+
+    private Defect defect = Defect.NONE;
+
+    /**
+     * Sets the number of pages, each with a master and optionally an ALTO file. Default is 100.
+     *
+     * @param pages number of pages
+     * @return this generator
+     */
+    public METSGenerator pages(int pages) {
+        if (pages < 1) {
+            throw new IllegalArgumentException("pages has to be at least 1: " + pages);
+        }
+        this.pages = pages;
+        return this;
+    }
+
+    /**
+     * Sets the depth of the logical tree below the root div. Default is 3.
+     *
+     * @param logicalDepth depth of the logical struct map
+     * @return this generator
+     */
+    public METSGenerator logicalDepth(int logicalDepth) {
+        if (logicalDepth < 1) {
+            throw new IllegalArgumentException("logicalDepth has to be at least 1: " + logicalDepth);
+        }
+        this.logicalDepth = logicalDepth;
+        return this;
+    }
+
+    /**
+     * Sets the number of children of every logical div above the leaves. Default is 4.
+     *
+     * @param fanOut number of children per logical div
+     * @return this generator
+     */
+    public METSGenerator fanOut(int fanOut) {
+        if (fanOut < 1) {
+            throw new IllegalArgumentException("fanOut has to be at least 1: " + fanOut);
+        }
+        this.fanOut = fanOut;
+        return this;
+    }
+
+    /**
+     * Sets whether ALTO files are generated and referenced by the logical struct map. Default is true.
+     *
+     * @param alto true to generate ALTO files
+     * @return this generator
+     */
+    public METSGenerator alto(boolean alto) {
+        this.alto = alto;
+        return this;
+    }
+
+    /**
+     * Sets whether every logical div is linked to the first of its pages, not only the leaves.
+     * This adds one smLink per inner div. Default is false.
+     *
+     * @param linkAllLevels true to link inner divs too
+     * @return this generator
+     */
+    public METSGenerator linkAllLevels(boolean linkAllLevels) {
+        this.linkAllLevels = linkAllLevels;
+        return this;
+    }
+
+    /**
+     * Sets the seed for the page ranges and the position of the defect. Default is 42.
+     *
+     * @param seed the random seed
+     * @return this generator
+     */
+    public METSGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets the defect of the generated document. Default is {@link Defect#NONE}.
+     *
+     * @param defect the defect
+     * @return this generator
+     */
+    public METSGenerator defect(Defect defect) {
+        this.defect = defect;
+        return this;
+    }
+
+    /**
+     * Generates the document as UTF-8 bytes.
+     *
+     * @return the document
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(pages * 700 + 1024);
+        try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            write(writer);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the document. Only the logical tree is kept in memory, so documents with millions
+     * of pages can be written to a file.
+     *
+     * @param out the writer to write to, it is not closed
+     * @throws IOException if writing fails
+     */
+    public void write(Writer out) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<LogicalDiv> divs = buildLogicalTree(random);
+        List<LogicalDiv> leaves = divs.stream().filter(div -> div.leaf).toList();
+        if (defect == Defect.DUPLICATE_ID && leaves.size() > 1) {
+            // the first child of the root is never the last leaf
+            LogicalDiv duplicate = leaves.get(1 + random.nextInt(leaves.size() - 1));
+            duplicate.id = divs.get(1).id;
+        }
+        // prefer a page which is not the only page of its leaf, so the leaf stays linked and referenced
+        List<LogicalDiv> largeLeaves = leaves.stream().filter(leaf -> leaf.lastPage > leaf.firstPage).toList();
+        int defectPage = largeLeaves.isEmpty() ? random.nextInt(pages)
+            : largeLeaves.get(random.nextInt(largeLeaves.size())).firstPage;
+
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<mets:mets xmlns:mets=\"http://www.loc.gov/METS/\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">\n");
+        writeFileSec(out, defectPage);
+        writePhysicalStructMap(out, defectPage);
+        writeLogicalStructMap(out, divs, defectPage);
+        writeStructLink(out, divs, defectPage);
+        if (defect == Defect.SCHEMA) {
+            out.write("  <mets:unknownSection />\n");
+        }
+        out.write("</mets:mets>\n");
+    }
+
+    private void writeFileSec(Writer out, int defectPage) throws IOException {
+        out.write("  <mets:fileSec>\n    <mets:fileGrp USE=\"MASTER\">\n");
+        for (int page = 0; page < pages; page++) {
+            String mimeType = defect == Defect.MIMETYPE && page == defectPage ? "text/plain" : "image/tiff";
+            out.write("      <mets:file ID=\"" + masterId(page) + "\" MIMETYPE=\"" + mimeType + "\">\n");
+            out.write("        <mets:FLocat LOCTYPE=\"URL\" xlink:href=\"" + pageName(page) + ".tif\" />\n");
+            out.write("      </mets:file>\n");
+        }
+        out.write("    </mets:fileGrp>\n");
+        if (alto) {
+            out.write("    <mets:fileGrp USE=\"ALTO\">\n");
+            for (int page = 0; page < pages; page++) {
+                out.write("      <mets:file ID=\"" + altoId(page) + "\" MIMETYPE=\"text/xml\">\n");
+                out.write("        <mets:FLocat LOCTYPE=\"URL\" xlink:href=\"alto/" + pageName(page) + ".xml\" />\n");
+                out.write("      </mets:file>\n");
+            }
+            out.write("    </mets:fileGrp>\n");
+        }
+        out.write("  </mets:fileSec>\n");
+    }
+
+    private void writePhysicalStructMap(Writer out, int defectPage) throws IOException {
+        out.write("  <mets:structMap TYPE=\"PHYSICAL\">\n");
+        out.write("    <mets:div ID=\"phys_sequence\" TYPE=\"physSequence\">\n");
+        for (int page = 0; page < pages; page++) {
+            String type = defect == Defect.PAGE_TYPE && page == defectPage ? "pages" : "page";
+            out.write("      <mets:div ID=\"" + physicalId(page) + "\" ORDER=\"" + (page + 1) + "\" TYPE=\"" + type
+                + "\">\n");
+            if (defect == Defect.MISSING_FILEID && page == defectPage) {
+                out.write("        <mets:fptr />\n");
+            } else {
+                out.write("        <mets:fptr FILEID=\"" + masterId(page) + "\" />\n");
+            }
+            if (alto) {
+                out.write("        <mets:fptr FILEID=\"" + altoId(page) + "\" />\n");
+            }
+            out.write("      </mets:div>\n");
+        }
+        out.write("    </mets:div>\n  </mets:structMap>\n");
+    }
+
+    private void writeLogicalStructMap(Writer out, List<LogicalDiv> divs, int defectPage) throws IOException {
+        out.write("  <mets:structMap TYPE=\"LOGICAL\">\n");
+        int depth = -1;
+        for (LogicalDiv div : divs) {
+            for (; depth >= div.depth; depth--) {
+                out.write(indent(depth) + "</mets:div>\n");
+            }
+            depth = div.depth;
+            out.write(indent(depth) + "<mets:div ID=\"" + div.id + "\" TYPE=\"" + div.type() + "\" LABEL=\""
+                + div.type() + " " + div.id.substring(4) + "\">\n");
+            if (div.leaf && alto) {
+                out.write(indent(depth + 1) + "<mets:fptr>\n" + indent(depth + 2) + "<mets:seq>\n");
+                for (int page = div.firstPage; page <= div.lastPage; page++) {
+                    if (defect == Defect.UNREFERENCED_ALTO && page == defectPage) {
+                        continue;
+                    }
+                    out.write(indent(depth + 3) + "<mets:area FILEID=\"" + altoId(page)
+                        + "\" BETYPE=\"IDREF\" BEGIN=\"block_1\" END=\"block_9\" />\n");
+                }
+                out.write(indent(depth + 2) + "</mets:seq>\n" + indent(depth + 1) + "</mets:fptr>\n");
+            }
+        }
+        for (; depth >= 0; depth--) {
+            out.write(indent(depth) + "</mets:div>\n");
+        }
+        out.write("  </mets:structMap>\n");
+    }
+
+    private void writeStructLink(Writer out, List<LogicalDiv> divs, int defectPage) throws IOException {
+        out.write("  <mets:structLink>\n");
+        for (LogicalDiv div : divs) {
+            if (div.leaf) {
+                for (int page = div.firstPage; page <= div.lastPage; page++) {
+                    if (defect != Defect.UNLINKED_PAGE || page != defectPage) {
+                        writeSmLink(out, div.id, physicalId(page));
+                    }
+                }
+            } else if (linkAllLevels) {
+                writeSmLink(out, div.id, physicalId(div.firstPage));
+            }
+        }
+        if (defect == Defect.UNKNOWN_PAGE_LINK) {
+            writeSmLink(out, divs.get(0).id, "phys_unknown");
+        }
+        out.write("  </mets:structLink>\n");
+    }
+
+    private static void writeSmLink(Writer out, String from, String to) throws IOException {
+        out.write("    <mets:smLink xlink:from=\"" + from + "\" xlink:to=\"" + to + "\" />\n");
+    }
+
+    /**
+     * Builds the logical tree in document order and assigns contiguous page ranges to the leaves.
+     */
+    private List<LogicalDiv> buildLogicalTree(SplittableRandom random) {
+        List<LogicalDiv> divs = new ArrayList<>();
+        addDivs(divs, 0);
+        List<LogicalDiv> leaves = divs.stream().filter(div -> div.leaf).toList();
+        int[] starts = splitPages(leaves.size(), random);
+        for (int i = 0; i < leaves.size(); i++) {
+            LogicalDiv leaf = leaves.get(i);
+            if (pages >= leaves.size()) {
+                leaf.firstPage = starts[i];
+                leaf.lastPage = i + 1 < leaves.size() ? starts[i + 1] - 1 : pages - 1;
+            } else {
+                leaf.firstPage = leaf.lastPage = i % pages;
+            }
+        }
+        // inner divs start at the first page of their first leaf
+        for (int i = divs.size() - 1; i >= 0; i--) {
+            LogicalDiv div = divs.get(i);
+            if (!div.leaf) {
+                div.firstPage = divs.get(i + 1).firstPage;
+            }
+        }
+        return divs;
+    }
+
+    private void addDivs(List<LogicalDiv> divs, int depth) {
+        divs.add(new LogicalDiv("log_" + divs.size(), depth, depth == logicalDepth));
+        if (depth < logicalDepth) {
+            for (int i = 0; i < fanOut; i++) {
+                addDivs(divs, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * Returns sorted random start pages, the first one is 0 and all are distinct.
+     */
+    private int[] splitPages(int parts, SplittableRandom random) {
+        int[] starts = new int[parts];
+        if (pages < parts) {
+            return starts;
+        }
+        // choose parts - 1 distinct cut points in [1, pages) by selection sampling
+        int needed = parts - 1;
+        int index = 1;
+        for (int candidate = 1; candidate < pages && needed > 0; candidate++) {
+            if (random.nextInt(pages - candidate) < needed) {
+                starts[index++] = candidate;
+                needed--;
+            }
+        }
+        Arrays.sort(starts);
+        return starts;
+    }
+
+    private static String indent(int depth) {
+        return "    " + "  ".repeat(depth);
+    }
+
+    private static String pageName(int page) {
+        return String.format("%08d", page + 1);
+    }
+
+    private static String masterId(int page) {
+        return "master_" + pageName(page);
+    }
+
+    private static String altoId(int page) {
+        return "alto_" + pageName(page);
+    }
+
+    private static String physicalId(int page) {
+        return "phys_" + pageName(page);
+    }
+
+    /**
+     * A div of the logical tree.
+     */
+    private static final class LogicalDiv {
+
+        private String id;
+
+        private final int depth;
+
+        private final boolean leaf;
+
+        private int firstPage;
+
+        private int lastPage;
+
+        LogicalDiv(String id, int depth, boolean leaf) {
+            this.id = id;
+            this.depth = depth;
+            this.leaf = leaf;
+        }
+
+        String type() {
+            return depth == 0 ? "monograph" : leaf ? "section" : "chapter";
+        }
+
+    }
+
+}
@@ -0,0 +1,86 @@
+package org.mycore.mets.validator.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.jdom2.Document;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.input.sax.XMLReaderSchemaFactory;
+import org.jdom2.input.sax.XMLReaderXSDFactory;
+import org.jdom2.located.LocatedJDOMFactory;
+import org.mycore.mets.validator.SchemaCache;
+import org.mycore.mets.validator.validators.SchemaValidator;
+import org.mycore.mets.validator.validators.ValidationContext;
+import org.mycore.mets.validator.validators.ValidationIssueSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the schema validation of one document with and without the {@link SchemaCache}.
+ * {@link #uncached()} compiles the METS schema for every document with a new
+ * {@link XMLReaderXSDFactory}, like the validator did before the cache. {@link #cached()} parses
+ * the same bytes against the cached schema, so the difference of both is the compile cost per
+ * document. {@link #schemaValidator()} is the current validator on the parsed document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaBenchmark {
+
+    @Param({ "10", "1000" })
+    public int pages;
+
+    private byte[] mets;
+
+    private Document document;
+
+    private URL schemaLocation;
+
+    private XMLReaderSchemaFactory cachedReaderFactory;
+
+    private final SchemaValidator schemaValidator = new SchemaValidator();
+
+    @Setup
+    public void setUp() throws Exception {
+        mets = new METSGenerator().pages(pages).toBytes();
+        SAXBuilder builder = new SAXBuilder();
+        builder.setJDOMFactory(new LocatedJDOMFactory());
+        document = builder.build(new ByteArrayInputStream(mets));
+        schemaLocation = SchemaCache.getMETSSchemaLocation();
+        cachedReaderFactory = new XMLReaderSchemaFactory(SchemaCache.getMETSSchema());
+    }
+
+    @Benchmark
+    public Object uncached() throws Exception {
+        return new SAXBuilder(new XMLReaderXSDFactory(schemaLocation)).build(new ByteArrayInputStream(mets));
+    }
+
+    @Benchmark
+    public Object cached() throws Exception {
+        return new SAXBuilder(cachedReaderFactory).build(new ByteArrayInputStream(mets));
+    }
+
+    @Benchmark
+    public Object schemaValidator() {
+        ValidationIssueSink sink = new ValidationIssueSink();
+        schemaValidator.validate(new ValidationContext(document), sink);
+        if (!sink.isEmpty()) {
+            throw new IllegalStateException(sink.getIssues().toString());
+        }
+        return sink;
+    }
+
+}
@@ -0,0 +1,62 @@
+package org.mycore.mets.validator.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.jdom2.Document;
+import org.jdom2.input.SAXBuilder;
+import org.mycore.mets.validator.validators.StructLinkValidator;
+import org.mycore.mets.validator.validators.ValidationContext;
+import org.mycore.mets.validator.validators.ValidationIssueSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link StructLinkValidator} from 1k to 1M pages, including the index of the
+ * {@link ValidationContext} it uses. The time per page should stay about the same over all sizes.
+ * The document of 1M pages needs several GB of heap, the fork gets 12 GB:
+ * <pre>
+ * java -jar target/benchmarks.jar StructLinkScaling
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class StructLinkScalingBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int pages;
+
+    private Document document;
+
+    private final StructLinkValidator structLinkValidator = new StructLinkValidator();
+
+    @Setup
+    public void setUp() throws Exception {
+        byte[] mets = new METSGenerator().pages(pages).toBytes();
+        document = new SAXBuilder().build(new ByteArrayInputStream(mets));
+    }
+
+    @Benchmark
+    public Object structLinkValidator() {
+        ValidationIssueSink sink = new ValidationIssueSink();
+        structLinkValidator.validate(new ValidationContext(document), sink);
+        if (!sink.isEmpty()) {
+            throw new IllegalStateException(sink.getIssues().toString());
+        }
+        return sink;
+    }
+
+}
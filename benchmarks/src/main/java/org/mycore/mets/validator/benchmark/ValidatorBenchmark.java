@@ -0,0 +1,117 @@
+package org.mycore.mets.validator.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.jdom2.Document;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.located.LocatedJDOMFactory;
+import org.mycore.mets.validator.validators.AltoValidator;
+import org.mycore.mets.validator.validators.FileSectionValidator;
+import org.mycore.mets.validator.validators.LogicalStructMapValidator;
+import org.mycore.mets.validator.validators.PhysicalStructureValidator;
+import org.mycore.mets.validator.validators.SchemaValidator;
+import org.mycore.mets.validator.validators.StructLinkValidator;
+import org.mycore.mets.validator.validators.ValidationContext;
+import org.mycore.mets.validator.validators.ValidationIssueSink;
+import org.mycore.mets.validator.validators.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures each validator on its own against an already parsed, valid document. Every
+ * invocation uses a new {@link ValidationContext}, so the validators which use the shared
+ * indexes pay for building them. {@link #buildContextIndex()} measures that part alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    @Param({ "100", "10000" })
+    public int pages;
+
+    @Param({ "3" })
+    public int logicalDepth;
+
+    private Document document;
+
+    private final SchemaValidator schemaValidator = new SchemaValidator();
+
+    private final FileSectionValidator fileSectionValidator = new FileSectionValidator();
+
+    private final PhysicalStructureValidator physicalStructureValidator = new PhysicalStructureValidator();
+
+    private final LogicalStructMapValidator logicalStructMapValidator = new LogicalStructMapValidator();
+
+    private final StructLinkValidator structLinkValidator = new StructLinkValidator();
+
+    private final AltoValidator altoValidator = new AltoValidator();
+
+    @Setup
+    public void setUp() throws Exception {
+        byte[] mets = new METSGenerator().pages(pages).logicalDepth(logicalDepth).toBytes();
+        SAXBuilder builder = new SAXBuilder();
+        builder.setJDOMFactory(new LocatedJDOMFactory());
+        document = builder.build(new ByteArrayInputStream(mets));
+        // compile the schema outside of the measurement
+        schemaValidator.getSchema();
+    }
+
+    @Benchmark
+    public Object buildContextIndex() {
+        return new ValidationContext(document).getSmLinks();
+    }
+
+    @Benchmark
+    public Object schemaValidator() {
+        return run(schemaValidator);
+    }
+
+    @Benchmark
+    public Object fileSectionValidator() {
+        return run(fileSectionValidator);
+    }
+
+    @Benchmark
+    public Object physicalStructureValidator() {
+        return run(physicalStructureValidator);
+    }
+
+    @Benchmark
+    public Object logicalStructMapValidator() {
+        return run(logicalStructMapValidator);
+    }
+
+    @Benchmark
+    public Object structLinkValidator() {
+        return run(structLinkValidator);
+    }
+
+    @Benchmark
+    public Object altoValidator() {
+        return run(altoValidator);
+    }
+
+    private ValidationIssueSink run(Validator validator) {
+        ValidationIssueSink sink = new ValidationIssueSink();
+        validator.validate(new ValidationContext(document), sink);
+        if (!sink.isEmpty()) {
+            throw new IllegalStateException(validator.getClass().getSimpleName() + ": " + sink.getIssues());
+        }
+        return sink;
+    }
+
+}
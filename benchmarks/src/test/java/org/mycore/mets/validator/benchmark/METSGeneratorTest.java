@@ -0,0 +1,103 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.mets.validator.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.jdom2.Document;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.located.LocatedJDOMFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mycore.mets.validator.METSValidator;
+import org.mycore.mets.validator.validators.AltoValidator;
+import org.mycore.mets.validator.validators.FileSectionValidator;
+import org.mycore.mets.validator.validators.LogicalStructMapValidator;
+import org.mycore.mets.validator.validators.PhysicalStructureValidator;
+import org.mycore.mets.validator.validators.StructLinkValidator;
+import org.mycore.mets.validator.validators.ValidationIssue;
+import org.mycore.mets.validator.validators.ValidationIssueSink;
+import org.mycore.mets.validator.validators.Validator;
+
+public class METSGeneratorTest {
+
+    private static final List<Validator> VALIDATORS = List.of(new FileSectionValidator(),
+        new PhysicalStructureValidator(), new LogicalStructMapValidator(), new StructLinkValidator(),
+        new AltoValidator());
+
+    /** The first issue code expected for each defect, the schema is not available offline. */
+    private static final Map<METSGenerator.Defect, String> CODES = Map.of(
+        METSGenerator.Defect.MIMETYPE, "file.mimetype.invalid",
+        METSGenerator.Defect.PAGE_TYPE, "physical.page.type",
+        METSGenerator.Defect.MISSING_FILEID, "physical.fptr.fileId",
+        METSGenerator.Defect.DUPLICATE_ID, "logical.div.id.duplicate",
+        METSGenerator.Defect.UNLINKED_PAGE, "structLink.physical.unlinked",
+        METSGenerator.Defect.UNKNOWN_PAGE_LINK, "structLink.physical.unknown",
+        METSGenerator.Defect.UNREFERENCED_ALTO, "alto.file.unreferenced");
+
+    @Test
+    public void testValid() throws Exception {
+        for (int pages : new int[] { 1, 7, 64, 500 }) {
+            for (int depth = 1; depth <= 3; depth++) {
+                METSGenerator generator = new METSGenerator().pages(pages).logicalDepth(depth).fanOut(3)
+                    .linkAllLevels(depth == 2).alto(pages != 7).seed(pages * depth);
+                List<Validator> validators = pages != 7 ? VALIDATORS : VALIDATORS.subList(0, 4);
+                List<ValidationIssue> issues = validate(generator, validators);
+                Assertions.assertEquals(List.of(), issues, "pages " + pages + ", depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    public void testDefects() throws Exception {
+        for (Map.Entry<METSGenerator.Defect, String> entry : CODES.entrySet()) {
+            for (long seed = 0; seed < 5; seed++) {
+                METSGenerator generator = new METSGenerator().pages(200).seed(seed).defect(entry.getKey());
+                List<ValidationIssue> issues = validate(generator, VALIDATORS);
+                Assertions.assertEquals(1, issues.size(), entry.getKey() + ": " + issues);
+                Assertions.assertEquals(entry.getValue(), issues.get(0).getCode());
+            }
+        }
+        // the schema defect is invisible to the other validators
+        METSGenerator generator = new METSGenerator().pages(200).defect(METSGenerator.Defect.SCHEMA);
+        Assertions.assertEquals(List.of(), validate(generator, VALIDATORS));
+    }
+
+    @Test
+    public void testSeed() {
+        METSGenerator generator = new METSGenerator().pages(300).defect(METSGenerator.Defect.UNLINKED_PAGE);
+        byte[] first = generator.seed(1).toBytes();
+        Assertions.assertArrayEquals(first, generator.seed(1).toBytes());
+        Assertions.assertFalse(Arrays.equals(first, generator.seed(2).toBytes()));
+    }
+
+    private static List<ValidationIssue> validate(METSGenerator generator, List<Validator> validators)
+        throws Exception {
+        SAXBuilder builder = new SAXBuilder();
+        builder.setJDOMFactory(new LocatedJDOMFactory());
+        Document document = builder.build(new ByteArrayInputStream(generator.toBytes()));
+        ValidationIssueSink sink = new ValidationIssueSink();
+        new METSValidator(document, validators).validate(sink);
+        return sink.getIssues();
+    }
+
+}
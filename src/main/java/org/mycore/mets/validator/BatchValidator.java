@@ -0,0 +1,394 @@
+package org.mycore.mets.validator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.jdom2.Document;
+import org.jdom2.JDOMException;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.located.LocatedJDOMFactory;
+import org.mycore.mets.validator.validators.FileSectionValidator;
+import org.mycore.mets.validator.validators.LogicalStructMapValidator;
+import org.mycore.mets.validator.validators.PhysicalStructureValidator;
+import org.mycore.mets.validator.validators.SchemaValidator;
+import org.mycore.mets.validator.validators.StructLinkValidator;
+import org.mycore.mets.validator.validators.ValidationException;
+import org.mycore.mets.validator.validators.Validator;
+
+/**
+ * Validates many METS files on a fixed number of worker threads. Files are read through a
+ * {@link MappedFileInput}. Each worker reuses its {@link SAXBuilder}, the compiled schemas are shared through the {@link SchemaCache} and the
+ * validators are shared by all workers, so they have to be stateless like the default ones.
+ * <p>
+ * The result of every file is passed to a consumer as soon as the file is done. The consumer is
+ * never called concurrently, but the order of the results depends on the time each file takes.
+ * If the consumer throws, no further files are started and the exception is rethrown by
+ * {@code validate} once the running files are done.
+ *
+ * <pre>
+ * BatchValidator batchValidator = new BatchValidator(8);
+ * BatchValidator.Statistics statistics = batchValidator.validate(directory, result -&gt; {
+ *     if (!result.isValid()) {
+ *         System.err.println(result.getPath() + ": " + result.getErrors());
+ *     }
+ * });
+ * System.out.println(statistics);
+ * </pre>
+ */
+public class BatchValidator {
+
+    private final int parallelism;
+
+    private final List<Validator> validatorList;
+
+    private final ThreadLocal<SAXBuilder> builder = ThreadLocal.withInitial(this::createBuilder);
+
+    /**
+     * Creates a new batch validator with one worker per available processor.
+     */
+    public BatchValidator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new batch validator.
+     *
+     * @param parallelism the number of files validated at the same time
+     */
+    public BatchValidator(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism has to be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.validatorList = new ArrayList<>();
+        this.addDefaultValidators();
+    }
+
+    /**
+     * Adds the default set of validators used in the validation process.
+     */
+    public void addDefaultValidators() {
+        validatorList.add(new SchemaValidator());
+        validatorList.add(new FileSectionValidator());
+        validatorList.add(new PhysicalStructureValidator());
+        validatorList.add(new LogicalStructMapValidator());
+        validatorList.add(new StructLinkValidator());
+    }
+
+    /**
+     * List of all validator's which should be used for every file. Do not modify the list while
+     * a batch is running.
+     *
+     * @return list of validator's
+     */
+    public List<Validator> getValidators() {
+        return this.validatorList;
+    }
+
+    /**
+     * Validates all files with the extension <code>.xml</code> in the given directory and its
+     * subdirectories.
+     *
+     * @param directory the directory to search for METS files
+     * @param resultConsumer receives the result of each file
+     * @return the statistics of the batch
+     * @throws IOException if the directory cannot be read
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the workers
+     */
+    public Statistics validate(Path directory, Consumer<Result> resultConsumer)
+        throws IOException, InterruptedException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return validate(paths.filter(path -> path.getFileName().toString().endsWith(".xml"))
+                .filter(Files::isRegularFile), resultConsumer);
+        }
+    }
+
+    /**
+     * Validates all files of the stream. The stream is consumed by the calling thread, at most
+     * twice the parallelism of files are queued at a time, so the stream may be lazy and huge.
+     *
+     * @param paths the METS files to validate
+     * @param resultConsumer receives the result of each file
+     * @return the statistics of the batch
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the workers
+     * @throws RuntimeException the first exception thrown by the consumer, after the running files are done
+     */
+    public Statistics validate(Stream<Path> paths, Consumer<Result> resultConsumer) throws InterruptedException {
+        List<Validator> validators = List.copyOf(validatorList);
+        Statistics statistics = new Statistics();
+        Semaphore queued = new Semaphore(parallelism * 2);
+        Object consumerLock = new Object();
+        // the first exception of the consumer, the remaining files are skipped
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        long start = System.nanoTime();
+        try {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                queued.acquire();
+                if (failure.get() != null) {
+                    break;
+                }
+                executor.execute(() -> {
+                    try {
+                        if (failure.get() != null) {
+                            return;
+                        }
+                        Result result = validate(path, validators);
+                        synchronized (consumerLock) {
+                            if (failure.get() == null) {
+                                resultConsumer.accept(result);
+                                statistics.add(result);
+                            }
+                        }
+                    } catch (RuntimeException | Error exc) {
+                        failure.compareAndSet(null, exc);
+                    } finally {
+                        queued.release();
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure.get() instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (failure.get() instanceof Error error) {
+            throw error;
+        }
+        statistics.elapsed = System.nanoTime() - start;
+        return statistics;
+    }
+
+    /**
+     * Validates a single file with the given validators. Called by the worker threads.
+     *
+     * @param path the file to validate
+     * @param validators the validators to use
+     * @return the result of the file
+     */
+    protected Result validate(Path path, List<Validator> validators) {
+        long start = System.nanoTime();
+        long size = 0;
+        List<ValidationException> errors = Collections.emptyList();
+        Exception exception = null;
+        try {
+            MappedFileInput input = MappedFileInput.open(path);
+            size = input.size();
+            Document document = builder.get().build(input.newInputStream());
+            errors = new METSValidator(document, validators).validate();
+        } catch (IOException | JDOMException | RuntimeException exc) {
+            exception = exc;
+        }
+        return new Result(path, size, errors, exception, System.nanoTime() - start);
+    }
+
+    /**
+     * Creates the builder a worker thread uses for all its files. Uses a {@link LocatedJDOMFactory},
+     * override this to use the lighter factory of the {@link LineNumberTable}.
+     *
+     * @return a new sax builder
+     */
+    protected SAXBuilder createBuilder() {
+        SAXBuilder saxBuilder = new SAXBuilder();
+        saxBuilder.setJDOMFactory(new LocatedJDOMFactory());
+        saxBuilder.setReuseParser(true);
+        return saxBuilder;
+    }
+
+    /**
+     * The result of a single file.
+     */
+    public static class Result {
+
+        private final Path path;
+
+        private final long size;
+
+        private final List<ValidationException> errors;
+
+        private final Exception exception;
+
+        private final long nanos;
+
+        Result(Path path, long size, List<ValidationException> errors, Exception exception, long nanos) {
+            this.path = path;
+            this.size = size;
+            this.errors = errors;
+            this.exception = exception;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the validated file.
+         *
+         * @return the path of the file
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * Returns the size of the file.
+         *
+         * @return size in bytes
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the validation errors. The list is empty if the file is valid or could not be read.
+         *
+         * @return list of validation exceptions
+         */
+        public List<ValidationException> getErrors() {
+            return errors;
+        }
+
+        /**
+         * Returns the exception which prevented the validation, e.g. if the file is not well-formed.
+         *
+         * @return the exception or null
+         */
+        public Exception getException() {
+            return exception;
+        }
+
+        /**
+         * Checks if the file could be read and has no validation errors.
+         *
+         * @return true if the file is valid
+         */
+        public boolean isValid() {
+            return exception == null && errors.isEmpty();
+        }
+
+        /**
+         * Returns the time needed to read and validate the file.
+         *
+         * @return the duration
+         */
+        public Duration getDuration() {
+            return Duration.ofNanos(nanos);
+        }
+
+    }
+
+    /**
+     * Throughput and latency figures of a batch.
+     */
+    public static class Statistics {
+
+        private final LongAdder files = new LongAdder();
+
+        private final LongAdder invalidFiles = new LongAdder();
+
+        private final LongAdder bytes = new LongAdder();
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private long elapsed;
+
+        Statistics() {
+        }
+
+        void add(Result result) {
+            files.increment();
+            if (!result.isValid()) {
+                invalidFiles.increment();
+            }
+            bytes.add(result.getSize());
+            latency.record(result.nanos);
+        }
+
+        /**
+         * Returns the number of files validated.
+         *
+         * @return number of files
+         */
+        public long getFiles() {
+            return files.sum();
+        }
+
+        /**
+         * Returns the number of files which are invalid or could not be read.
+         *
+         * @return number of invalid files
+         */
+        public long getInvalidFiles() {
+            return invalidFiles.sum();
+        }
+
+        /**
+         * Returns the size of all files validated.
+         *
+         * @return size in bytes
+         */
+        public long getBytes() {
+            return bytes.sum();
+        }
+
+        /**
+         * Returns the wall clock time of the batch.
+         *
+         * @return the duration
+         */
+        public Duration getElapsed() {
+            return Duration.ofNanos(elapsed);
+        }
+
+        /**
+         * Returns the number of files validated per second.
+         *
+         * @return files per second
+         */
+        public double getFilesPerSecond() {
+            return elapsed == 0 ? 0 : getFiles() * 1e9 / elapsed;
+        }
+
+        /**
+         * Returns the number of megabytes (10<sup>6</sup> bytes) validated per second.
+         *
+         * @return megabytes per second
+         */
+        public double getMegabytesPerSecond() {
+            return elapsed == 0 ? 0 : getBytes() * 1e3 / elapsed;
+        }
+
+        /**
+         * Returns the latency histogram of the single files.
+         *
+         * @return the histogram, in nanoseconds
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                "%d files (%d invalid), %.1f files/s, %.1f MB/s, p50 %.1f ms, p99 %.1f ms",
+                getFiles(), getInvalidFiles(), getFilesPerSecond(), getMegabytesPerSecond(),
+                latency.getPercentile(50) / 1e6, latency.getPercentile(99) / 1e6);
+        }
+
+    }
+
+}
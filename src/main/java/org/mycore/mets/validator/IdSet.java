@@ -0,0 +1,124 @@
+package org.mycore.mets.validator;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of IDs of an {@link IdTable}, iterated in the order the IDs were added. Membership is a
+ * bit per ID of the table and the order an int per element, so several sets over the same table,
+ * e.g. the physical IDs and the IDs linked by smLinks, cost a few bytes per ID instead of a hash
+ * entry per ID and set.
+ * <p>
+ * Adding a string interns it into the table. Elements cannot be removed. Like the table, a set is
+ * not thread safe while elements are added.
+ */
+public final class IdSet extends AbstractSet<String> {
+
+    private final IdTable table;
+
+    private final BitSet members = new BitSet();
+
+    private int[] order = new int[16];
+
+    private int size;
+
+    /**
+     * Creates a new empty set.
+     *
+     * @param table the table the IDs are interned into
+     */
+    public IdSet(IdTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Returns the table of this set.
+     *
+     * @return the id table
+     */
+    public IdTable getTable() {
+        return table;
+    }
+
+    @Override
+    public boolean add(String id) {
+        return add(table.intern(id));
+    }
+
+    /**
+     * Adds the ID with the given int of the table.
+     *
+     * @param index the int of the ID
+     * @return true if the ID was not in the set yet
+     */
+    public boolean add(int index) {
+        if (members.get(index)) {
+            return false;
+        }
+        members.set(index);
+        if (size == order.length) {
+            order = Arrays.copyOf(order, size * 2);
+        }
+        order[size++] = index;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof String id && contains(table.indexOf(id));
+    }
+
+    /**
+     * Checks if the ID with the given int of the table is in this set.
+     *
+     * @param index the int of the ID, -1 is never contained
+     * @return true if the ID is in the set
+     */
+    public boolean contains(int index) {
+        return index >= 0 && members.get(index);
+    }
+
+    /**
+     * Returns the int of the element at the given position.
+     *
+     * @param position the position in insertion order
+     * @return the int of the ID
+     */
+    public int getIndex(int position) {
+        if (position >= size) {
+            throw new IndexOutOfBoundsException(position);
+        }
+        return order[position];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < size;
+            }
+
+            @Override
+            public String next() {
+                if (position >= size) {
+                    throw new NoSuchElementException();
+                }
+                return table.get(order[position++]);
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,152 @@
+package org.mycore.mets.validator;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Symbol table which maps each distinct ID to an int. The ints are dense, the first ID gets 0,
+ * the next new one 1 and so on, so sets of IDs can be stored as {@link java.util.BitSet}s and
+ * relations as int arrays, see {@link IdSet} and {@link SmLinkTable}.
+ * <p>
+ * The table is an open addressing hash table with linear probing which stores only an int per
+ * slot and a reference per ID. A document with a million pages has several million IDs, where a
+ * {@code HashSet<String>} costs about 40 bytes per entry before the string itself. Each ID
+ * string is stored once, no matter in how many sets or links it appears.
+ * <p>
+ * A table is not thread safe while IDs are added. Once filled it can be read by multiple
+ * threads.
+ */
+public final class IdTable {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private String[] ids;
+
+    /** The index of the ID plus one, 0 marks a free slot. */
+    private int[] slots;
+
+    private int shift;
+
+    private int size;
+
+    /**
+     * Creates a new empty table.
+     */
+    public IdTable() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates a new empty table which can hold the given number of IDs without growing.
+     *
+     * @param expectedSize the expected number of IDs
+     */
+    public IdTable(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, expectedSize);
+        this.ids = new String[capacity];
+        // keep the load factor at or below 0.5
+        int slotCount = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.slots = new int[slotCount];
+        this.shift = Integer.numberOfLeadingZeros(slotCount) + 1;
+    }
+
+    /**
+     * Returns the int of the given ID, adding the ID if it is not in the table yet.
+     *
+     * @param id the ID
+     * @return the int of the ID
+     */
+    public int intern(String id) {
+        int slot = slot(id);
+        int index = slots[slot] - 1;
+        if (index >= 0) {
+            return index;
+        }
+        index = size++;
+        if (index == ids.length) {
+            ids = Arrays.copyOf(ids, index * 2);
+        }
+        ids[index] = id;
+        slots[slot] = index + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return index;
+    }
+
+    /**
+     * Adds the given ID.
+     *
+     * @param id the ID
+     * @return true if the ID was not in the table yet
+     */
+    public boolean add(String id) {
+        int before = size;
+        intern(id);
+        return size > before;
+    }
+
+    /**
+     * Returns the int of the given ID.
+     *
+     * @param id the ID
+     * @return the int of the ID or -1 if the ID is not in the table
+     */
+    public int indexOf(String id) {
+        return slots[slot(id)] - 1;
+    }
+
+    /**
+     * Returns the ID with the given int.
+     *
+     * @param index the int of the ID
+     * @return the ID
+     */
+    public String get(int index) {
+        Objects.checkIndex(index, size);
+        return ids[index];
+    }
+
+    /**
+     * Returns the number of IDs.
+     *
+     * @return the number of IDs in the table
+     */
+    public int size() {
+        return size;
+    }
+
+    private int slot(String id) {
+        int mask = slots.length - 1;
+        int slot = hash(id);
+        while (true) {
+            int entry = slots[slot];
+            if (entry == 0 || ids[entry - 1].equals(id)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Fibonacci hashing, IDs like phys_1, phys_2 have consecutive hash codes which would
+     * otherwise fill consecutive slots.
+     */
+    private int hash(String id) {
+        return (id.hashCode() * 0x9E3779B9) >>> shift;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        shift--;
+        int mask = slots.length - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = hash(ids[index]);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = index + 1;
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package org.mycore.mets.validator;
+
+import org.mycore.mets.validator.validators.ValidationIssue;
+import org.mycore.mets.validator.validators.Validator;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Listener which emits Java Flight Recorder events, so the parse and validator times show up
+ * in a recording next to GC pauses and allocation:
+ * <pre>
+ * java -XX:StartFlightRecording=filename=validation.jfr ...
+ * jfr print --events org.mycore.mets.validator.Validator validation.jfr
+ * </pre>
+ * The events are only created while a recording is running. One listener can be shared by
+ * all validators.
+ */
+public class JFRValidationListener implements ValidationListener {
+
+    private final ThreadLocal<ParseEvent> parseEvent = new ThreadLocal<>();
+
+    private final ThreadLocal<ValidatorEvent> validatorEvent = new ThreadLocal<>();
+
+    @Override
+    public void parseStarted() {
+        ParseEvent event = new ParseEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            parseEvent.set(event);
+        }
+    }
+
+    @Override
+    public void parseFinished(long bytes, int elements, long nanos) {
+        ParseEvent event = parseEvent.get();
+        if (event == null) {
+            return;
+        }
+        parseEvent.remove();
+        event.end();
+        if (event.shouldCommit()) {
+            event.bytes = bytes;
+            event.elements = elements;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void validatorStarted(Validator validator) {
+        ValidatorEvent event = new ValidatorEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            validatorEvent.set(event);
+        }
+    }
+
+    @Override
+    public void issueFound(Validator validator, ValidationIssue issue) {
+        IssueEvent event = new IssueEvent();
+        if (event.shouldCommit()) {
+            event.validator = validator.getClass().getName();
+            event.severity = issue.getSeverity().name();
+            event.code = issue.getCode();
+            event.message = issue.getMessage();
+            event.line = issue.getLineNumber();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void validatorFinished(Validator validator, long nanos, int issues) {
+        ValidatorEvent event = validatorEvent.get();
+        if (event == null) {
+            return;
+        }
+        validatorEvent.remove();
+        event.end();
+        if (event.shouldCommit()) {
+            event.validator = validator.getClass().getName();
+            event.issues = issues;
+            event.commit();
+        }
+    }
+
+    @Name("org.mycore.mets.validator.Parse")
+    @Label("METS Parse")
+    @Description("Parsing of a METS document by the METSValidator")
+    @Category({ "MyCoRe", "METS Validator" })
+    @StackTrace(false)
+    static class ParseEvent extends Event {
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Elements")
+        int elements;
+
+    }
+
+    @Name("org.mycore.mets.validator.Validator")
+    @Label("METS Validator")
+    @Description("Run of a single validator")
+    @Category({ "MyCoRe", "METS Validator" })
+    @StackTrace(false)
+    static class ValidatorEvent extends Event {
+
+        @Label("Validator")
+        String validator;
+
+        @Label("Issues")
+        int issues;
+
+    }
+
+    @Name("org.mycore.mets.validator.Issue")
+    @Label("METS Validation Issue")
+    @Description("Issue found by a validator")
+    @Category({ "MyCoRe", "METS Validator" })
+    @StackTrace(false)
+    static class IssueEvent extends Event {
+
+        @Label("Validator")
+        String validator;
+
+        @Label("Severity")
+        String severity;
+
+        @Label("Code")
+        String code;
+
+        @Label("Message")
+        String message;
+
+        @Label("Line")
+        int line;
+
+    }
+
+}
@@ -0,0 +1,214 @@
+package org.mycore.mets.validator;
+
+import java.util.Arrays;
+
+import org.jdom2.DocType;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMFactory;
+import org.jdom2.Namespace;
+import org.jdom2.UncheckedJDOMFactory;
+import org.jdom2.located.LocatedJDOMFactory;
+
+/**
+ * Line numbers of the elements of a document, recorded while it is parsed, as a lighter
+ * alternative to the {@link LocatedJDOMFactory}. The located factory creates elements and texts
+ * with a line and a column field each and verifies every name, although the parser already did.
+ * The factory of this class creates unchecked elements, which only know their position in document
+ * order, and plain texts. It records the line of each element in document order, as the difference
+ * to the line of the previous element. That is one byte per element for almost all documents.
+ * <p>
+ * The table is stored as property of the document. A line is only needed when an issue is
+ * reported, then it is added up from the nearest checkpoint before the position of the element,
+ * in constant time and without a lock, no matter in which order the issues are reported. The lines
+ * are the same as those of the located factory. An element keeps the line where it was parsed,
+ * elements which are added to the document later have no line.
+ * <p>
+ * Use {@link ValidatorUtil#getLine(Element)} to get the line of an element of either kind of
+ * document.
+ * <pre>
+ * SAXBuilder builder = new SAXBuilder();
+ * builder.setJDOMFactory(LineNumberTable.newJDOMFactory());
+ * Document document = builder.build(in);
+ * </pre>
+ */
+public final class LineNumberTable {
+
+    private static final String PROPERTY = LineNumberTable.class.getName();
+
+    /** Every CHECKPOINT_INTERVAL-th line is stored as int, the lines in between are added up from there. */
+    private static final int CHECKPOINT_SHIFT = 6;
+
+    private static final int CHECKPOINT_INTERVAL = 1 << CHECKPOINT_SHIFT;
+
+    /** Marks a delta which does not fit in a byte, the line is stored in the overflow arrays. */
+    private static final int OVERFLOW = 0xFF;
+
+    private final Document document;
+
+    private byte[] deltas = new byte[1024];
+
+    private int[] checkpoints = new int[16];
+
+    private int[] overflowElements = new int[16];
+
+    private int[] overflowLines = new int[16];
+
+    private int overflowSize;
+
+    private int size;
+
+    private int lastLine;
+
+    private LineNumberTable(Document document) {
+        this.document = document;
+    }
+
+    /**
+     * Returns a new factory which records the lines of all elements of the documents it builds.
+     * A factory can be reused for any number of documents, but not for concurrent parses.
+     *
+     * @return a new jdom factory
+     */
+    public static JDOMFactory newJDOMFactory() {
+        return new RecordingJDOMFactory();
+    }
+
+    /**
+     * Returns the table of the given document.
+     *
+     * @param document the document, may be null
+     * @return the table or null if the document was not built with {@link #newJDOMFactory()}
+     */
+    public static LineNumberTable of(Document document) {
+        return document != null && document.getProperty(PROPERTY) instanceof LineNumberTable table ? table : null;
+    }
+
+    /**
+     * Returns the number of elements with a recorded line.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the line of the given element.
+     *
+     * @param element an element of the document of this table
+     * @return the line number, or -1 if unknown
+     */
+    public int getLine(Element element) {
+        if (!(element instanceof NumberedElement numberedElement) || element.getDocument() != document) {
+            return -1;
+        }
+        int position = numberedElement.position;
+        return position < size ? getLine(position) : -1;
+    }
+
+    private int getLine(int position) {
+        int start = position & -CHECKPOINT_INTERVAL;
+        int line = checkpoints[position >>> CHECKPOINT_SHIFT];
+        for (int i = start + 1; i <= position; i++) {
+            int delta = deltas[i] & 0xFF;
+            line = delta == OVERFLOW ? overflowLines[Arrays.binarySearch(overflowElements, 0, overflowSize, i)]
+                : line + delta;
+        }
+        return line;
+    }
+
+    private int record(int line) {
+        int position = size++;
+        if (position == deltas.length) {
+            deltas = Arrays.copyOf(deltas, position * 2);
+        }
+        if ((position & (CHECKPOINT_INTERVAL - 1)) == 0) {
+            int checkpoint = position >>> CHECKPOINT_SHIFT;
+            if (checkpoint == checkpoints.length) {
+                checkpoints = Arrays.copyOf(checkpoints, checkpoint * 2);
+            }
+            checkpoints[checkpoint] = line;
+        } else {
+            int delta = line - lastLine;
+            if (delta >= 0 && delta < OVERFLOW) {
+                deltas[position] = (byte) delta;
+            } else {
+                deltas[position] = (byte) OVERFLOW;
+                if (overflowSize == overflowElements.length) {
+                    overflowElements = Arrays.copyOf(overflowElements, overflowSize * 2);
+                    overflowLines = Arrays.copyOf(overflowLines, overflowSize * 2);
+                }
+                overflowElements[overflowSize] = position;
+                overflowLines[overflowSize++] = line;
+            }
+        }
+        lastLine = line;
+        return position;
+    }
+
+    /**
+     * An element which knows its position in document order, so its line is found without a walk
+     * of the tree.
+     */
+    private static final class NumberedElement extends Element {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int position;
+
+        NumberedElement(int position, String name, Namespace namespace) {
+            this.position = position;
+            // unchecked like the elements of the UncheckedJDOMFactory, the parser checked the name
+            this.name = name;
+            this.namespace = namespace == null ? Namespace.NO_NAMESPACE : namespace;
+        }
+
+    }
+
+    /**
+     * Creates unchecked nodes and records the line of each element in the table of the
+     * current document.
+     */
+    private static final class RecordingJDOMFactory extends UncheckedJDOMFactory {
+
+        private LineNumberTable table;
+
+        /**
+         * The other document methods and the element methods without line delegate to the
+         * overridden ones.
+         */
+        @Override
+        public Document document(Element rootElement, DocType docType, String baseURI) {
+            Document document = super.document(rootElement, docType, baseURI);
+            table = new LineNumberTable(document);
+            document.setProperty(PROPERTY, table);
+            return document;
+        }
+
+        @Override
+        public Element element(int line, int col, String name, Namespace namespace) {
+            if (table == null) {
+                return super.element(line, col, name, namespace);
+            }
+            return new NumberedElement(table.record(line), name, namespace);
+        }
+
+        @Override
+        public Element element(int line, int col, String name) {
+            return element(line, col, name, Namespace.NO_NAMESPACE);
+        }
+
+        @Override
+        public Element element(int line, int col, String name, String uri) {
+            return element(line, col, name, Namespace.getNamespace("", uri));
+        }
+
+        @Override
+        public Element element(int line, int col, String name, String prefix, String uri) {
+            return element(line, col, name, Namespace.getNamespace(prefix, uri));
+        }
+
+    }
+
+}
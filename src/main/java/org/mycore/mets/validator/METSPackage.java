@@ -0,0 +1,144 @@
+package org.mycore.mets.validator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.ProviderNotFoundException;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * A METS package, either a directory or a ZIP archive, with its METS file. An archive is opened
+ * with the zip file system of the JDK, so its entries are read in place and nothing is extracted
+ * to a temporary directory. The METS file is the shallowest file named <code>mets.xml</code> or
+ * <code>*_mets.xml</code>, of files in the same depth the first by name. In a BagIt bag, a
+ * package with a <code>bagit.txt</code>, only the payload directory <code>data</code> is searched.
+ * <p>
+ * The base directory is the directory of the METS file. It is a path of the archive and can be
+ * passed to the validators which read the files of the package, they read the entries in parallel
+ * like local files. The METS file is streamed from the archive while it is parsed, see
+ * {@link MappedFileInput#newInputStream(Path)}:
+ *
+ * <pre>
+ * try (METSPackage metsPackage = METSPackage.open(Path.of("sip.zip"))) {
+ *     METSValidationEngine engine = new METSValidationEngine.Builder().addDefaultValidators()
+ *         .addValidator(new PackageFileValidator(metsPackage.getBaseDirectory()))
+ *         .build();
+ *     List&lt;ValidationException&gt; errors = engine.validate(metsPackage.getMetsFile());
+ * }
+ * </pre>
+ * The paths of the package are only valid until it is closed.
+ */
+public final class METSPackage implements Closeable {
+
+    /** The depth below the root, or the payload directory of a bag, up to which the METS file is searched. */
+    private static final int MAX_DEPTH = 3;
+
+    private final FileSystem fileSystem;
+
+    private final Path metsFile;
+
+    private METSPackage(FileSystem fileSystem, Path metsFile) {
+        this.fileSystem = fileSystem;
+        this.metsFile = metsFile;
+    }
+
+    /**
+     * Opens a package directory or archive.
+     *
+     * @param path a directory or a ZIP file
+     * @return the package, which has to be closed
+     * @throws NoSuchFileException if the path or the METS file does not exist
+     * @throws IOException if the path is neither a directory nor a ZIP archive, or the archive
+     * cannot be opened or read
+     */
+    public static METSPackage open(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            return new METSPackage(null, findMetsFile(path.toAbsolutePath().normalize(), path));
+        }
+        if (!Files.exists(path)) {
+            throw new NoSuchFileException(path.toString());
+        }
+        FileSystem fileSystem;
+        try {
+            fileSystem = FileSystems.newFileSystem(path);
+        } catch (ProviderNotFoundException providerNotFoundException) {
+            throw new IOException(path + " is neither a directory nor a ZIP archive.", providerNotFoundException);
+        }
+        try {
+            return new METSPackage(fileSystem, findMetsFile(fileSystem.getPath("/"), path));
+        } catch (IOException | RuntimeException exception) {
+            fileSystem.close();
+            throw exception;
+        }
+    }
+
+    private static Path findMetsFile(Path root, Path packagePath) throws IOException {
+        Path searchRoot = Files.isRegularFile(root.resolve("bagit.txt")) ? root.resolve("data") : root;
+        if (!Files.isDirectory(searchRoot)) {
+            throw new NoSuchFileException(packagePath.toString(), null, "BagIt package has no payload directory.");
+        }
+        try (Stream<Path> paths = Files.walk(searchRoot, MAX_DEPTH)) {
+            Optional<Path> metsFile = paths.filter(METSPackage::isMetsFileName)
+                .filter(Files::isRegularFile)
+                .min(Comparator.comparingInt(Path::getNameCount).thenComparing(Path::toString));
+            return metsFile.orElseThrow(() -> new NoSuchFileException(packagePath.toString(), null,
+                "Package contains no mets.xml."));
+        }
+    }
+
+    private static boolean isMetsFileName(Path path) {
+        Path fileName = path.getFileName();
+        if (fileName == null) {
+            return false;
+        }
+        String name = fileName.toString().toLowerCase(Locale.ROOT);
+        return name.equals("mets.xml") || name.endsWith("_mets.xml");
+    }
+
+    /**
+     * Returns the METS file of the package.
+     *
+     * @return the path of the METS file
+     */
+    public Path getMetsFile() {
+        return metsFile;
+    }
+
+    /**
+     * Returns the directory of the METS file, which the hrefs of the file section are relative to.
+     *
+     * @return the base directory
+     */
+    public Path getBaseDirectory() {
+        return metsFile.getParent();
+    }
+
+    /**
+     * Returns whether the package is an archive.
+     *
+     * @return true for an archive, false for a directory
+     */
+    public boolean isArchive() {
+        return fileSystem != null;
+    }
+
+    /**
+     * Closes the archive. Does nothing for a directory.
+     *
+     * @throws IOException if the archive cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (fileSystem != null) {
+            fileSystem.close();
+        }
+    }
+
+}
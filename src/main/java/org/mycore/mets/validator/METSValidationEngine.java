@@ -0,0 +1,312 @@
+package org.mycore.mets.validator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import org.jdom2.Document;
+import org.jdom2.JDOMException;
+import org.jdom2.filter.Filters;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.located.LocatedJDOMFactory;
+import org.mycore.mets.validator.validators.FileSectionValidator;
+import org.mycore.mets.validator.validators.LogicalStructMapValidator;
+import org.mycore.mets.validator.validators.PhysicalStructureValidator;
+import org.mycore.mets.validator.validators.SchemaValidator;
+import org.mycore.mets.validator.validators.StructLinkValidator;
+import org.mycore.mets.validator.validators.ValidationException;
+import org.mycore.mets.validator.validators.ValidationIssueSink;
+import org.mycore.mets.validator.validators.Validator;
+import org.xml.sax.SAXException;
+
+/**
+ * Immutable validation configuration which is built once and shared by any number of threads.
+ * A {@link METSValidator} binds one document to its own validator list and parser, the engine
+ * keeps the validators, the listeners and the parser settings and only creates the per document
+ * state for each call:
+ *
+ * <pre>
+ * METSValidationEngine engine = new METSValidationEngine.Builder().addDefaultValidators().build();
+ * engine.warmUp();
+ * // in any thread
+ * List&lt;ValidationException&gt; errors = engine.validate(inputStream);
+ * </pre>
+ * <p>
+ * Each engine pools its {@link SAXBuilder}s, which reuse their XML reader, so parsing a document
+ * does not look up a SAX parser factory again. The pool works with virtual threads too, a builder
+ * is borrowed for one parse only. It keeps at most twice as many builders as there are
+ * processors, the builders of a burst beyond that are dropped after their parse. Compiled schemas are shared through the
+ * {@link SchemaCache}. The validators are shared by all calls, so they have to be stateless like
+ * the validators of this library.
+ * <p>
+ * Use {@link #newValidator(Document)} for the other modes of the {@link METSValidator}, like
+ * the parallel or the incremental validation.
+ */
+public final class METSValidationEngine {
+
+    /** The maximum number of idle builders kept by an engine. */
+    private static final int MAX_POOLED_BUILDERS = 2 * Runtime.getRuntime().availableProcessors();
+
+    private final List<Validator> validators;
+
+    private final List<ValidationListener> listeners;
+
+    private final boolean lazyLineNumbers;
+
+    private final boolean disallowDoctype;
+
+    private final Queue<SAXBuilder> builders = new ArrayBlockingQueue<>(MAX_POOLED_BUILDERS);
+
+    private METSValidationEngine(Builder builder) {
+        this.validators = List.copyOf(builder.validators);
+        this.listeners = List.copyOf(builder.listeners);
+        this.lazyLineNumbers = builder.lazyLineNumbers;
+        this.disallowDoctype = builder.disallowDoctype;
+        new ValidatorGraph<>(validators, Validator::getPrerequisites);
+    }
+
+    /**
+     * Returns the validators of this engine.
+     *
+     * @return unmodifiable list of the validators
+     */
+    public List<Validator> getValidators() {
+        return validators;
+    }
+
+    /**
+     * Returns the listeners of this engine.
+     *
+     * @return unmodifiable list of the listeners
+     */
+    public List<ValidationListener> getListeners() {
+        return listeners;
+    }
+
+    /**
+     * Compiles the schemas of all {@link SchemaValidator}s, so the first document does not have to.
+     *
+     * @throws SAXException if a schema could not be compiled
+     */
+    public void warmUp() throws SAXException {
+        for (Validator validator : validators) {
+            if (validator instanceof SchemaValidator schemaValidator) {
+                schemaValidator.getSchema();
+            }
+        }
+    }
+
+    /**
+     * Parses and validates the input stream.
+     *
+     * @param in the METS document, it is not closed
+     * @return A list of validation exceptions. This list is empty when everything is fine.
+     * @throws JDOMException when errors occur in parsing
+     * @throws IOException when an I/O error prevents the document from being fully parsed
+     */
+    public List<ValidationException> validate(InputStream in) throws JDOMException, IOException {
+        return newValidator(parse(in)).validate();
+    }
+
+    /**
+     * Parses and validates the file, see {@link MappedFileInput}.
+     *
+     * @param path the METS file
+     * @return A list of validation exceptions. This list is empty when everything is fine.
+     * @throws JDOMException when errors occur in parsing
+     * @throws IOException when the file cannot be read
+     */
+    public List<ValidationException> validate(Path path) throws JDOMException, IOException {
+        try (InputStream in = MappedFileInput.newInputStream(path)) {
+            return validate(in);
+        }
+    }
+
+    /**
+     * Parses and validates the input stream and reports all issues to the sink, see
+     * {@link METSValidator#validate(ValidationIssueSink)}.
+     *
+     * @param in the METS document, it is not closed
+     * @param sink the sink to report to
+     * @throws JDOMException when errors occur in parsing
+     * @throws IOException when an I/O error prevents the document from being fully parsed
+     */
+    public void validate(InputStream in, ValidationIssueSink sink) throws JDOMException, IOException {
+        newValidator(parse(in)).validate(sink);
+    }
+
+    /**
+     * Validates an already parsed document.
+     *
+     * @param document the document to validate, it is not modified
+     * @return A list of validation exceptions. This list is empty when everything is fine.
+     */
+    public List<ValidationException> validate(Document document) {
+        return newValidator(document).validate();
+    }
+
+    /**
+     * Returns a new validator for the document with the validators and listeners of this engine.
+     * The validator is cheap to create and belongs to the calling thread.
+     *
+     * @param document the document to validate
+     * @return a new mets validator
+     */
+    public METSValidator newValidator(Document document) {
+        METSValidator validator = new METSValidator(document, validators);
+        validator.getListeners().addAll(listeners);
+        return validator;
+    }
+
+    /**
+     * Parses the input stream with a pooled builder. Sends the parse events to the listeners,
+     * if there are any.
+     *
+     * @param in the METS document, it is not closed
+     * @return the document
+     * @throws JDOMException when errors occur in parsing
+     * @throws IOException when an I/O error prevents the document from being fully parsed
+     */
+    public Document parse(InputStream in) throws JDOMException, IOException {
+        SAXBuilder builder = builders.poll();
+        if (builder == null) {
+            builder = createBuilder();
+        }
+        try {
+            if (listeners.isEmpty()) {
+                return builder.build(in);
+            }
+            listeners.forEach(ValidationListener::parseStarted);
+            METSValidator.CountingInputStream countingInputStream = new METSValidator.CountingInputStream(in);
+            long start = System.nanoTime();
+            Document document = builder.build(countingInputStream);
+            long nanos = System.nanoTime() - start;
+            int elements = 0;
+            for (Object ignored : document.getDescendants(Filters.element())) {
+                elements++;
+            }
+            for (ValidationListener listener : listeners) {
+                listener.parseFinished(countingInputStream.getCount(), elements, nanos);
+            }
+            return document;
+        } finally {
+            builders.offer(builder);
+        }
+    }
+
+    private SAXBuilder createBuilder() {
+        SAXBuilder builder = new SAXBuilder();
+        builder.setJDOMFactory(lazyLineNumbers ? LineNumberTable.newJDOMFactory() : new LocatedJDOMFactory());
+        if (disallowDoctype) {
+            builder.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        }
+        builder.setReuseParser(true);
+        return builder;
+    }
+
+    /**
+     * Collects the configuration of an engine. By default there are no validators, documents are
+     * built with a {@link LocatedJDOMFactory} and doctypes are allowed.
+     */
+    public static final class Builder {
+
+        private final List<Validator> validators = new ArrayList<>();
+
+        private final List<ValidationListener> listeners = new ArrayList<>();
+
+        private boolean lazyLineNumbers;
+
+        private boolean disallowDoctype;
+
+        /**
+         * Adds the default set of validators, the same as {@link METSValidator#addDefaultValidators()}.
+         *
+         * @return this builder
+         */
+        public Builder addDefaultValidators() {
+            validators.add(new SchemaValidator());
+            validators.add(new FileSectionValidator());
+            validators.add(new PhysicalStructureValidator());
+            validators.add(new LogicalStructMapValidator());
+            validators.add(new StructLinkValidator());
+            return this;
+        }
+
+        /**
+         * Adds a validator. It is shared by all threads which use the engine.
+         *
+         * @param validator the validator to add
+         * @return this builder
+         */
+        public Builder addValidator(Validator validator) {
+            validators.add(validator);
+            return this;
+        }
+
+        /**
+         * Adds validators.
+         *
+         * @param validatorsToAdd the validators to add
+         * @return this builder
+         */
+        public Builder addValidators(Collection<? extends Validator> validatorsToAdd) {
+            validators.addAll(validatorsToAdd);
+            return this;
+        }
+
+        /**
+         * Adds a listener which receives the events of all documents. It has to be thread safe.
+         *
+         * @param listener the listener to add
+         * @return this builder
+         */
+        public Builder addListener(ValidationListener listener) {
+            listeners.add(listener);
+            return this;
+        }
+
+        /**
+         * Sets whether the line numbers are looked up lazily with a {@link LineNumberTable}, or
+         * the documents are built with a {@link LocatedJDOMFactory}, see
+         * {@link METSValidator#METSValidator(InputStream, boolean)}. The default is false, so
+         * validators may cast the elements to {@link org.jdom2.located.LocatedElement}. The lazy
+         * mode only saves a few percent of the heap of a document.
+         *
+         * @param lazy true to look up line numbers only for errors
+         * @return this builder
+         */
+        public Builder lazyLineNumbers(boolean lazy) {
+            this.lazyLineNumbers = lazy;
+            return this;
+        }
+
+        /**
+         * Sets whether documents with a doctype declaration are rejected, which protects against
+         * entity expansion in untrusted input.
+         *
+         * @param disallow true to reject doctype declarations
+         * @return this builder
+         */
+        public Builder disallowDoctype(boolean disallow) {
+            this.disallowDoctype = disallow;
+            return this;
+        }
+
+        /**
+         * Creates the engine. Later changes of this builder do not affect it.
+         *
+         * @return a new engine
+         * @throws IllegalStateException if the prerequisites of the validators are cyclic
+         */
+        public METSValidationEngine build() {
+            return new METSValidationEngine(this);
+        }
+
+    }
+
+}
@@ -1,70 +1,214 @@
 package org.mycore.mets.validator;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
+import org.jdom2.filter.Filters;
 import org.jdom2.input.SAXBuilder;
 import org.jdom2.located.LocatedJDOMFactory;
-import org.jdom2.output.XMLOutputter;
 import org.mycore.mets.validator.validators.FileSectionValidator;
 import org.mycore.mets.validator.validators.LogicalStructMapValidator;
 import org.mycore.mets.validator.validators.PhysicalStructureValidator;
 import org.mycore.mets.validator.validators.SchemaValidator;
+import org.mycore.mets.validator.validators.Section;
+import org.mycore.mets.validator.validators.Severity;
 import org.mycore.mets.validator.validators.StructLinkValidator;
+import org.mycore.mets.validator.validators.ValidationContext;
 import org.mycore.mets.validator.validators.ValidationException;
+import org.mycore.mets.validator.validators.ValidationIssue;
+import org.mycore.mets.validator.validators.ValidationIssueSink;
 import org.mycore.mets.validator.validators.Validator;
 
 /**
  * Base validation class.
+ * <p>
+ * The validators can run one after another with {@link #validate()} or concurrently with
+ * {@link #validateParallel()}. JDOM gives no thread safety guarantees, but reading a tree that
+ * is not modified has no side effects, with one exception: {@link org.jdom2.Element#getAttributes()}
+ * lazily creates an empty attribute list for elements without attributes. Every thread creates
+ * an equivalent empty list there, so this race is harmless. Validators used in parallel must
+ * therefore only read the document and must not keep state between validation runs, which is
+ * true for all validators of this library.
+ * <p>
+ * A validator runs after its {@link Validator#getPrerequisites() prerequisites} and is skipped
+ * if one of them reports an error, so e.g. the smLinks are not checked against a broken struct
+ * map. The errors are still returned in the order of {@link #getValidators()}.
+ * <p>
+ * {@link ValidationListener}s registered with {@link #getListeners()} receive the parse and
+ * validator times and the issues found, e.g. to find out which validator is slow.
  *
  * @author Matthias Eichner
  */
 public class METSValidator {
 
+    /** Whether a subclass overrides the deprecated {@link #validate(Validator, Document, List)}. */
+    private static final ClassValue<Boolean> OVERRIDES_DOCUMENT_HOOK = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != METSValidator.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("validate", Validator.class, Document.class, List.class);
+                    return true;
+                } catch (NoSuchMethodException noSuchMethodException) {
+                    // look at the superclass
+                }
+            }
+            return false;
+        }
+    };
+
     private Document document;
 
     private List<Validator> validatorList;
 
+    private final List<ValidationListener> listenerList = new ArrayList<>();
+
+    private boolean lazyLineNumbers;
+
+    /**
+     * Creates a new mets validator with the document to validate. The document is validated
+     * as is, it is neither copied nor modified. Line numbers are only reported if the document
+     * was built with a {@link LocatedJDOMFactory} or the factory of the {@link LineNumberTable},
+     * otherwise errors carry an XPath like location, see {@link ValidationException#getLocation()}.
+     * <p>
+     * Earlier versions serialized and parsed the document again. The exceptions of that are still
+     * declared, so existing callers which catch them compile, but they are never thrown.
+     *
+     * @param doc the document to validate
+     * @throws JDOMException never, declared for source compatibility
+     * @throws IOException never, declared for source compatibility
+     */
+    public METSValidator(Document doc) throws JDOMException, IOException {
+        this.document = doc;
+        this.validatorList = new ArrayList<>();
+        this.addDefaultValidators();
+    }
+
     /**
-     * Creates a new mets validator with the document to validate.
+     * Creates a new mets validator with the document to validate and the validators to use
+     * instead of the default ones. The list is copied, the validators are not.
      *
      * @param doc the document to validate
+     * @param validators the validators to use
+     */
+    public METSValidator(Document doc, List<Validator> validators) {
+        this.document = doc;
+        this.validatorList = new ArrayList<>(validators);
+    }
+
+    /**
+     * Creates a new mets validator with the input stream to validate.
+     *
+     * @param is the input stream to validate
      * @throws JDOMException when errors occur in parsing
      * @throws IOException when an I/O error prevents the document from being fully parsed
      */
-    public METSValidator(Document doc) throws JDOMException, IOException {
-        try (InputStream is = getInputStream(doc)) {
+    public METSValidator(InputStream is) throws JDOMException, IOException {
+        init(is);
+    }
+
+    /**
+     * Creates a new mets validator with the input stream to validate. With lazy line numbers the
+     * document is built with the lighter factory of the {@link LineNumberTable} instead of the
+     * {@link LocatedJDOMFactory}, which uses less memory and parses faster. The line of an error
+     * is then looked up when the error is reported, the reported lines are the same. Custom
+     * validators have to use {@link ValidatorUtil#getLine(org.jdom2.Element)} instead of
+     * casting to {@link org.jdom2.located.LocatedElement}.
+     *
+     * @param is the input stream to validate
+     * @param lazyLineNumbers true to look up line numbers only for errors
+     * @throws JDOMException when errors occur in parsing
+     * @throws IOException when an I/O error prevents the document from being fully parsed
+     */
+    public METSValidator(InputStream is, boolean lazyLineNumbers) throws JDOMException, IOException {
+        this.lazyLineNumbers = lazyLineNumbers;
+        init(is);
+    }
+
+    /**
+     * Creates a new mets validator with the file to validate. A local file is read through a
+     * {@link java.nio.channels.FileChannel}, large files are memory mapped, an archive entry is
+     * streamed, see {@link MappedFileInput#newInputStream(Path)}.
+     *
+     * @param path the file to validate
+     * @throws JDOMException when errors occur in parsing
+     * @throws IOException when the file cannot be read
+     */
+    public METSValidator(Path path) throws JDOMException, IOException {
+        try (InputStream is = MappedFileInput.newInputStream(path)) {
             init(is);
         }
     }
 
     /**
-     * Creates a new mets validator with the input stream to validate.
+     * Creates a new mets validator with the file to validate, see
+     * {@link #METSValidator(InputStream, boolean)} for lazy line numbers.
+     *
+     * @param path the file to validate
+     * @param lazyLineNumbers true to look up line numbers only for errors
+     * @throws JDOMException when errors occur in parsing
+     * @throws IOException when the file cannot be read
+     */
+    public METSValidator(Path path, boolean lazyLineNumbers) throws JDOMException, IOException {
+        this.lazyLineNumbers = lazyLineNumbers;
+        try (InputStream is = MappedFileInput.newInputStream(path)) {
+            init(is);
+        }
+    }
+
+    /**
+     * Creates a new mets validator with the input stream to validate and a listener which
+     * receives the parse events as well as the events of all later validation runs.
      *
      * @param is the input stream to validate
+     * @param listener the listener to register
      * @throws JDOMException when errors occur in parsing
      * @throws IOException when an I/O error prevents the document from being fully parsed
      */
-    public METSValidator(InputStream is) throws JDOMException, IOException {
+    public METSValidator(InputStream is, ValidationListener listener) throws JDOMException, IOException {
+        this.listenerList.add(listener);
         init(is);
     }
 
     private void init(InputStream is) throws JDOMException, IOException {
-        this.document = buildDocument(is);
+        this.document = listenerList.isEmpty() ? buildDocument(is) : buildDocumentWithEvents(is);
         this.validatorList = new ArrayList<>();
         this.addDefaultValidators();
     }
 
-    private InputStream getInputStream(Document doc) throws IOException {
-        ByteArrayOutputStream os = new ByteArrayOutputStream();
-        new XMLOutputter().output(doc, os);
-        return new ByteArrayInputStream(os.toByteArray());
+    private Document buildDocumentWithEvents(InputStream is) throws JDOMException, IOException {
+        listenerList.forEach(ValidationListener::parseStarted);
+        CountingInputStream countingInputStream = new CountingInputStream(is);
+        long start = System.nanoTime();
+        Document builtDocument = buildDocument(countingInputStream);
+        long nanos = System.nanoTime() - start;
+        int elements = 0;
+        for (Object ignored : builtDocument.getDescendants(Filters.element())) {
+            elements++;
+        }
+        for (ValidationListener listener : listenerList) {
+            listener.parseFinished(countingInputStream.getCount(), elements, nanos);
+        }
+        return builtDocument;
     }
 
     /**
@@ -87,22 +231,317 @@ public class METSValidator {
         return this.validatorList;
     }
 
+    /**
+     * List of all listeners which receive the events of the validation runs. Without listeners
+     * nothing is measured. Do not modify the list while a validation is running.
+     *
+     * @return list of listeners
+     */
+    public List<ValidationListener> getListeners() {
+        return this.listenerList;
+    }
+
     /**
      * Does the validation.
      * 
      * @return A list of validation exceptions. This list is empty when everything is fine.
      */
     public List<ValidationException> validate() {
+        ValidatorGraph<Validator> graph = newValidatorGraph();
+        ValidationContext context = new ValidationContext(document);
+        List<List<ValidationException>> errorsByValidator = new ArrayList<>(
+            Collections.nCopies(graph.size(), List.of()));
+        boolean[] failed = new boolean[graph.size()];
+        for (int index : graph.getOrder(null)) {
+            if (skip(graph, index, failed)) {
+                continue;
+            }
+            List<ValidationException> validatorErrors = new ArrayList<>(1);
+            validate(graph.getValidators().get(index), context, validatorErrors);
+            errorsByValidator.set(index, validatorErrors);
+            failed[index] = !validatorErrors.isEmpty();
+        }
+        List<ValidationException> errorList = new ArrayList<>();
+        errorsByValidator.forEach(errorList::addAll);
+        return errorList;
+    }
+
+    /**
+     * Does the validation and reports all issues found to the sink, not only the first one of
+     * each validator. Stops when the sink is full.
+     *
+     * <pre>
+     * ValidationIssueSink sink = new ValidationIssueSink(500);
+     * validator.validate(sink);
+     * sink.getIssues().forEach(System.out::println);
+     * </pre>
+     *
+     * @param sink the sink to report to
+     */
+    public void validate(ValidationIssueSink sink) {
+        ValidatorGraph<Validator> graph = newValidatorGraph();
+        ValidationContext context = new ValidationContext(document);
+        boolean[] failed = new boolean[graph.size()];
+        for (int index : graph.getOrder(null)) {
+            if (sink.isFull()) {
+                return;
+            }
+            if (!skip(graph, index, failed)) {
+                validate(graph.getValidators().get(index), context, sink.observe(issue -> {
+                    if (issue.getSeverity() == Severity.ERROR) {
+                        failed[index] = true;
+                    }
+                }));
+            }
+        }
+    }
+
+    /**
+     * Does the validation with all validators running concurrently, each in its own virtual
+     * thread. A validator starts when its prerequisites are done.
+     *
+     * @return A list of validation exceptions in the same order as {@link #validate()} would
+     *         return them. This list is empty when everything is fine.
+     */
+    public List<ValidationException> validateParallel() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            return validateParallel(executor);
+        }
+    }
+
+    /**
+     * Does the validation with all validators running concurrently on the given executor. The
+     * validators share the document and one {@link ValidationContext}, neither is modified. A
+     * validator is submitted when its prerequisites are done, validators which do not depend on
+     * each other run at the same time.
+     *
+     * @param executor the executor to run the validators on
+     * @return A list of validation exceptions in the same order as {@link #validate()} would
+     *         return them. This list is empty when everything is fine.
+     */
+    public List<ValidationException> validateParallel(Executor executor) {
+        ValidatorGraph<Validator> graph = newValidatorGraph();
+        ValidationContext context = new ValidationContext(document);
+        List<CompletableFuture<List<ValidationException>>> futures = new ArrayList<>(
+            Collections.nCopies(graph.size(), null));
+        for (int index : graph.getOrder(null)) {
+            int[] prerequisites = graph.getPrerequisites(index);
+            CompletableFuture<?>[] prerequisiteFutures = new CompletableFuture<?>[prerequisites.length];
+            for (int i = 0; i < prerequisites.length; i++) {
+                prerequisiteFutures[i] = futures.get(prerequisites[i]);
+            }
+            futures.set(index, CompletableFuture.allOf(prerequisiteFutures).thenApplyAsync(done -> {
+                boolean[] failed = new boolean[graph.size()];
+                for (int prerequisite : prerequisites) {
+                    failed[prerequisite] = !futures.get(prerequisite).join().isEmpty();
+                }
+                if (skip(graph, index, failed)) {
+                    return List.of();
+                }
+                List<ValidationException> validatorErrors = new ArrayList<>(1);
+                validate(graph.getValidators().get(index), context, validatorErrors);
+                return validatorErrors;
+            }, executor));
+        }
+        List<ValidationException> errorList = new ArrayList<>();
+        for (CompletableFuture<List<ValidationException>> future : futures) {
+            try {
+                errorList.addAll(future.join());
+            } catch (CompletionException completionException) {
+                if (completionException.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (completionException.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw completionException;
+            }
+        }
+        return errorList;
+    }
+
+    /**
+     * Does the validation until the first error is found, which is all an accept or reject
+     * decision needs. The validators run one after another, ordered by their
+     * {@link Validator#getCost() cost} as far as their prerequisites allow, so the cheap checks
+     * reject a broken document before the expensive ones start.
+     *
+     * @return A list with the first validation error. This list is empty when everything is fine.
+     */
+    public List<ValidationException> validateFailFast() {
+        ValidatorGraph<Validator> graph = newValidatorGraph();
+        ValidationContext context = new ValidationContext(document);
+        ValidationIssueSink sink = new ValidationIssueSink(1);
+        for (int index : graph.getOrder(Comparator.comparingInt(Validator::getCost))) {
+            if (sink.isFull()) {
+                break;
+            }
+            validate(graph.getValidators().get(index), context, sink);
+        }
+        return toExceptions(sink);
+    }
+
+    /**
+     * Does the validation until the first error is found with all validators running
+     * concurrently on the given executor. The validators share a {@link ValidationIssueSink}
+     * with room for a single issue, the first error fills it and the other validators stop at
+     * their next check. The method returns as soon as the first error is reported, without
+     * waiting for the cancelled validators.
+     * <p>
+     * Which error is returned depends on timing, if the document has more than one. The
+     * prerequisites are not waited for, a failed prerequisite stops its dependents like any
+     * other validator.
+     *
+     * @param executor the executor to run the validators on
+     * @return A list with the first validation error. This list is empty when everything is fine.
+     */
+    public List<ValidationException> validateFailFast(Executor executor) {
+        ValidationContext context = new ValidationContext(document);
+        ValidationIssueSink sink = new ValidationIssueSink(1);
+        CompletableFuture<Void> firstError = new CompletableFuture<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Validator validator : getValidatorsByCost()) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                if (!sink.isFull()) {
+                    validate(validator, context, sink);
+                }
+                if (sink.isFull()) {
+                    firstError.complete(null);
+                }
+            }, executor));
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+        try {
+            CompletableFuture.anyOf(firstError, all).join();
+        } catch (CompletionException completionException) {
+            if (completionException.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (completionException.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw completionException;
+        }
+        return toExceptions(sink);
+    }
+
+    /**
+     * Does a complete validation which can be continued incrementally, see
+     * {@link #validateIncremental(ValidationResult)}.
+     *
+     * @return the result with all issues
+     */
+    public ValidationResult validateIncremental() {
+        return validateIncremental(null);
+    }
+
+    /**
+     * Validates the document again after it was edited. The {@link SectionFingerprints} of the
+     * document are compared with those of the previous result and only the validators which
+     * read a changed {@link Section} run again, see {@link Validator#getSections()}. The issues of
+     * all other validators are taken from the previous result.
+     * <p>
+     * Validators are matched with the previous result by their class, position and
+     * {@link Validator#getFingerprint() fingerprint}, so a validator whose configuration changed,
+     * e.g. the base directory of a
+     * {@link org.mycore.mets.validator.validators.PackageFileValidator}, runs again. The shared
+     * indexes of the {@link ValidationContext} are built again if a validator needs them. A
+     * validator whose prerequisites ran again runs again too, because it may have been skipped
+     * before or has to be skipped now.
+     *
+     * <pre>
+     * ValidationResult result = validator.validateIncremental();
+     * // edit a logical div of the document
+     * result = validator.validateIncremental(result);
+     * </pre>
+     *
+     * @param previous the result of the previous run, or null for a complete validation
+     * @return the result, pass it to the next run
+     */
+    public ValidationResult validateIncremental(ValidationResult previous) {
+        SectionFingerprints fingerprints = SectionFingerprints.of(document);
+        Set<Section> changedSections = fingerprints
+            .getChangedSections(previous != null ? previous.getFingerprints() : null);
+        ValidatorGraph<Validator> graph = newValidatorGraph();
+        ValidationContext context = new ValidationContext(document);
+        String[] keys = new String[graph.size()];
+        Map<Class<?>, Integer> occurrences = new HashMap<>();
+        for (int index = 0; index < graph.size(); index++) {
+            Validator validator = graph.getValidators().get(index);
+            keys[index] = validator.getClass().getName() + "#"
+                + occurrences.merge(validator.getClass(), 1, Integer::sum) + "#" + validator.getFingerprint();
+        }
+        List<List<ValidationIssue>> issues = new ArrayList<>(Collections.nCopies(graph.size(), null));
+        boolean[] failed = new boolean[graph.size()];
+        boolean[] executed = new boolean[graph.size()];
+        for (int index : graph.getOrder(null)) {
+            Validator validator = graph.getValidators().get(index);
+            List<ValidationIssue> previousIssues = previous != null ? previous.getIssues(keys[index]) : null;
+            if (previousIssues != null && Collections.disjoint(validator.getSections(), changedSections)
+                && Arrays.stream(graph.getPrerequisites(index)).noneMatch(prerequisite -> executed[prerequisite])) {
+                issues.set(index, previousIssues);
+            } else if (skip(graph, index, failed)) {
+                issues.set(index, List.of());
+                executed[index] = true;
+            } else {
+                ValidationIssueSink sink = new ValidationIssueSink();
+                validate(validator, context, sink);
+                issues.set(index, List.copyOf(sink.getIssues()));
+                executed[index] = true;
+            }
+            failed[index] = issues.get(index).stream().anyMatch(issue -> issue.getSeverity() == Severity.ERROR);
+        }
+        Map<String, List<ValidationIssue>> issuesByValidator = new LinkedHashMap<>();
+        List<Validator> executedValidators = new ArrayList<>();
+        for (int index = 0; index < graph.size(); index++) {
+            issuesByValidator.put(keys[index], issues.get(index));
+            if (executed[index]) {
+                executedValidators.add(graph.getValidators().get(index));
+            }
+        }
+        return new ValidationResult(fingerprints, changedSections, issuesByValidator, executedValidators);
+    }
+
+    private List<Validator> getValidatorsByCost() {
+        List<Validator> validators = new ArrayList<>(getValidators());
+        validators.sort(Comparator.comparingInt(Validator::getCost));
+        return validators;
+    }
+
+    private ValidatorGraph<Validator> newValidatorGraph() {
+        return new ValidatorGraph<>(getValidators(), Validator::getPrerequisites);
+    }
+
+    /**
+     * Checks if a prerequisite of the validator failed and tells the listeners that it is skipped.
+     *
+     * @return true if the validator has to be skipped
+     */
+    private boolean skip(ValidatorGraph<Validator> graph, int index, boolean[] failed) {
+        int prerequisite = graph.getFailedPrerequisite(index, failed);
+        if (prerequisite < 0) {
+            return false;
+        }
+        Validator validator = graph.getValidators().get(index);
+        Validator failedPrerequisite = graph.getValidators().get(prerequisite);
+        listenerList.forEach(listener -> listener.validatorSkipped(validator, failedPrerequisite));
+        return true;
+    }
+
+    private static List<ValidationException> toExceptions(ValidationIssueSink sink) {
         List<ValidationException> errorList = new ArrayList<>();
-        for (Validator validator : getValidators()) {
-            validate(validator, document, errorList);
+        for (ValidationIssue issue : sink.getIssues()) {
+            if (issue.getSeverity() == Severity.ERROR) {
+                errorList.add(issue.toException());
+            }
         }
         return errorList;
     }
 
     /**
      * Builds a jdom document from the given input stream. Uses the {@link LocatedJDOMFactory}
-     * for line number information.
+     * for line number information, or the factory of the {@link LineNumberTable} if line
+     * numbers are looked up lazily.
      * 
      * @param in input stream to parse
      * @return jdom document
@@ -111,24 +550,142 @@ public class METSValidator {
      */
     protected Document buildDocument(InputStream in) throws JDOMException, IOException {
         SAXBuilder builder = new SAXBuilder();
-        builder.setJDOMFactory(new LocatedJDOMFactory());
+        builder.setJDOMFactory(lazyLineNumbers ? LineNumberTable.newJDOMFactory() : new LocatedJDOMFactory());
         return builder.build(in);
     }
 
     /**
      * Validates the given document with the validator. All errors are append to
      * the errorList.
+     * <p>
+     * If a subclass overrides this method, {@link #validate()} and {@link #validateParallel()}
+     * still call it for every validator, but without the shared {@link ValidationContext}. The
+     * modes which report to a {@link ValidationIssueSink} do not call it.
      *
      * @param validator the validator to use
      * @param document the document to validate
      * @param errorList the list to append validation errors to
+     * @deprecated override {@link #validate(Validator, ValidationContext, List)} instead
      */
+    @Deprecated
     protected void validate(Validator validator, Document document, List<ValidationException> errorList) {
+        runValidator(validator, new ValidationContext(document), errorList);
+    }
+
+    /**
+     * Validates the document of the given context with the validator. All errors are append to
+     * the errorList. Calls {@link #validate(Validator, Document, List)} instead, if a subclass
+     * overrides it.
+     *
+     * @param validator the validator to use
+     * @param context the context shared by all validators of this validation run
+     * @param errorList the list to append validation errors to
+     */
+    @SuppressWarnings("deprecation")
+    protected void validate(Validator validator, ValidationContext context, List<ValidationException> errorList) {
+        if (OVERRIDES_DOCUMENT_HOOK.get(getClass())) {
+            validate(validator, context.getDocument(), errorList);
+        } else {
+            runValidator(validator, context, errorList);
+        }
+    }
+
+    private void runValidator(Validator validator, ValidationContext context, List<ValidationException> errorList) {
+        if (listenerList.isEmpty()) {
+            try {
+                validator.validate(context);
+            } catch (ValidationException validationException) {
+                errorList.add(validationException);
+            }
+            return;
+        }
+        listenerList.forEach(listener -> listener.validatorStarted(validator));
+        int issues = 0;
+        long start = System.nanoTime();
         try {
-            validator.validate(document);
+            validator.validate(context);
         } catch (ValidationException validationException) {
             errorList.add(validationException);
+            ValidationIssue issue = ValidationIssue.of(validator.getClass().getSimpleName(), validationException);
+            listenerList.forEach(listener -> listener.issueFound(validator, issue));
+            issues = 1;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            for (ValidationListener listener : listenerList) {
+                listener.validatorFinished(validator, nanos, issues);
+            }
         }
     }
 
+    /**
+     * Validates the document of the given context with the validator and reports all issues to
+     * the sink. Sends the validator events to the listeners, if there are any.
+     *
+     * @param validator the validator to use
+     * @param context the context shared by all validators of this validation run
+     * @param sink the sink to report to
+     */
+    protected void validate(Validator validator, ValidationContext context, ValidationIssueSink sink) {
+        if (listenerList.isEmpty()) {
+            validator.validate(context, sink);
+            return;
+        }
+        listenerList.forEach(listener -> listener.validatorStarted(validator));
+        AtomicInteger issues = new AtomicInteger();
+        long start = System.nanoTime();
+        try {
+            validator.validate(context, sink.observe(issue -> {
+                issues.incrementAndGet();
+                listenerList.forEach(listener -> listener.issueFound(validator, issue));
+            }));
+        } finally {
+            long nanos = System.nanoTime() - start;
+            for (ValidationListener listener : listenerList) {
+                listener.validatorFinished(validator, nanos, issues.get());
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes read for the parse events. Also used by the {@link METSValidationEngine}.
+     */
+    static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+    }
+
 }
@@ -0,0 +1,211 @@
+package org.mycore.mets.validator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.zip.Checksum;
+
+/**
+ * The content of a local file, read through a {@link FileChannel}. Files of at least
+ * {@link #MAP_THRESHOLD} bytes are memory mapped in chunks of up to 1 GiB, so the parser reads
+ * straight from the page cache without copying the file into a stream buffer first. Smaller
+ * files are read into a heap buffer with a single call, where mapping would cost more than it
+ * saves.
+ * <p>
+ * The content can be read any number of times, e.g. once for a digest and once for parsing,
+ * without reading the file again. Each {@link #newInputStream()} has its own position, so
+ * streams can be used by different threads. The mapping stays valid after the file was closed
+ * and is released by the garbage collector.
+ * <p>
+ * Files of other file systems than the default one, e.g. the entries of a zip file system, cannot
+ * be mapped. {@link #open(Path)} copies them to the heap, so use {@link #newInputStream(Path)} for
+ * content which is read only once.
+ */
+public final class MappedFileInput {
+
+    /** Files with at least this size in bytes are memory mapped. */
+    public static final int MAP_THRESHOLD = 1 << 20;
+
+    private static final int CHUNK_SIZE = 1 << 30;
+
+    private final ByteBuffer[] buffers;
+
+    private final long size;
+
+    private MappedFileInput(ByteBuffer[] buffers, long size) {
+        this.buffers = buffers;
+        this.size = size;
+    }
+
+    /**
+     * Returns a stream over the given file which is read once. Files of the default file system
+     * are mapped or read like with {@link #open(Path)}, the files of other file systems are
+     * streamed, so an archive entry is never held in memory as a whole.
+     *
+     * @param path the file
+     * @return an input stream, which has to be closed
+     * @throws IOException if the file cannot be opened
+     */
+    public static InputStream newInputStream(Path path) throws IOException {
+        if (path.getFileSystem() != FileSystems.getDefault()) {
+            return Files.newInputStream(path);
+        }
+        return open(path).newInputStream();
+    }
+
+    /**
+     * Maps or reads the given file. Files of other file systems than the default one, e.g. the
+     * entries of a zip file system, cannot be mapped and are always read into heap buffers.
+     *
+     * @param path the file
+     * @return the content of the file
+     * @throws IOException if the file cannot be read
+     */
+    public static MappedFileInput open(Path path) throws IOException {
+        if (path.getFileSystem() != FileSystems.getDefault()) {
+            try (SeekableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.READ)) {
+                return read(channel, channel.size());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                return read(channel, size);
+            }
+            ByteBuffer[] buffers = new ByteBuffer[(int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+            for (int i = 0; i < buffers.length; i++) {
+                long position = (long) i * CHUNK_SIZE;
+                buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(CHUNK_SIZE, size - position));
+            }
+            return new MappedFileInput(buffers, size);
+        }
+    }
+
+    private static MappedFileInput read(SeekableByteChannel channel, long size) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[Math.max(1, (int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE))];
+        long read = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(CHUNK_SIZE, size - (long) i * CHUNK_SIZE));
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // read until the buffer is full
+            }
+            buffer.flip();
+            buffers[i] = buffer;
+            read += buffer.remaining();
+        }
+        return new MappedFileInput(buffers, read);
+    }
+
+    /**
+     * Returns the size of the content.
+     *
+     * @return size in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns a new stream over the content, starting at the beginning.
+     *
+     * @return an input stream, closing it has no effect
+     */
+    public InputStream newInputStream() {
+        ByteBuffer[] duplicates = new ByteBuffer[buffers.length];
+        for (int i = 0; i < buffers.length; i++) {
+            duplicates[i] = buffers[i].duplicate();
+        }
+        return new BufferInputStream(duplicates);
+    }
+
+    /**
+     * Passes the whole content to the digest, without copying it to a byte array.
+     *
+     * @param digest the digest to update
+     */
+    public void update(MessageDigest digest) {
+        for (ByteBuffer buffer : buffers) {
+            digest.update(buffer.duplicate());
+        }
+    }
+
+    /**
+     * Passes the whole content to the checksum, without copying it to a byte array.
+     *
+     * @param checksum the checksum to update
+     */
+    public void update(Checksum checksum) {
+        for (ByteBuffer buffer : buffers) {
+            checksum.update(buffer.duplicate());
+        }
+    }
+
+    /**
+     * Reads the buffers one after another.
+     */
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer[] buffers;
+
+        private int index;
+
+        BufferInputStream(ByteBuffer[] buffers) {
+            this.buffers = buffers;
+        }
+
+        private ByteBuffer current() {
+            while (index < buffers.length && !buffers[index].hasRemaining()) {
+                index++;
+            }
+            return index < buffers.length ? buffers[index] : null;
+        }
+
+        @Override
+        public int read() {
+            ByteBuffer buffer = current();
+            return buffer == null ? -1 : buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            ByteBuffer buffer = current();
+            if (buffer == null) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = 0;
+            ByteBuffer buffer;
+            while (skipped < n && (buffer = current()) != null) {
+                int step = (int) Math.min(n - skipped, buffer.remaining());
+                buffer.position(buffer.position() + step);
+                skipped += step;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            ByteBuffer buffer = current();
+            return buffer == null ? 0 : buffer.remaining();
+        }
+
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.mycore.mets.validator;
+
+import java.io.Serial;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Process wide cache of compiled XML schemas. Compiling the METS schema is expensive, so
+ * each distinct set of schema locations is compiled only once and the resulting
+ * {@link Schema} is shared by all threads. {@link Schema} instances are immutable and
+ * thread safe, the validators created from them are not.
+ */
+public abstract class SchemaCache {
+
+    /** Classpath location of the bundled METS schema. */
+    public static final String METS_SCHEMA = "/mets_1.12.1.xsd";
+
+    private static final ConcurrentMap<List<String>, Schema> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private SchemaCache() {
+    }
+
+    /**
+     * Returns the location of the bundled METS schema.
+     *
+     * @return url of the METS schema
+     * @throws IllegalStateException if the schema is not on the classpath
+     */
+    public static URL getMETSSchemaLocation() {
+        URL xsd = SchemaCache.class.getResource(METS_SCHEMA);
+        if (xsd == null) {
+            throw new IllegalStateException("Unable to read " + METS_SCHEMA + "!");
+        }
+        return xsd;
+    }
+
+    /**
+     * Returns the compiled bundled METS schema.
+     *
+     * @return the METS schema
+     * @throws SAXException if the schema could not be compiled
+     */
+    public static Schema getMETSSchema() throws SAXException {
+        return getSchema(getMETSSchemaLocation());
+    }
+
+    /**
+     * Returns the compiled schema for the given locations. The schema is compiled on the
+     * first call and reused afterwards. The order of the locations is part of the cache key.
+     * A schema which fails to compile is not cached.
+     *
+     * @param locations one or more schema locations
+     * @return the compiled schema
+     * @throws SAXException if the schema could not be compiled
+     */
+    public static Schema getSchema(URL... locations) throws SAXException {
+        if (locations.length == 0) {
+            throw new IllegalArgumentException("At least one schema location is required.");
+        }
+        List<String> key = new ArrayList<>(locations.length);
+        for (URL location : locations) {
+            key.add(location.toExternalForm());
+        }
+        Schema schema = CACHE.get(key);
+        if (schema != null) {
+            return schema;
+        }
+        try {
+            return CACHE.computeIfAbsent(List.copyOf(key), k -> compile(locations));
+        } catch (SchemaCompileException compileException) {
+            throw compileException.getCause();
+        }
+    }
+
+    /**
+     * Removes all compiled schemas from the cache.
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    private static Schema compile(URL... locations) {
+        Source[] sources = new Source[locations.length];
+        for (int i = 0; i < locations.length; i++) {
+            sources[i] = new StreamSource(locations[i].toExternalForm());
+        }
+        try {
+            return SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(sources);
+        } catch (SAXException saxException) {
+            throw new SchemaCompileException(saxException);
+        }
+    }
+
+    /**
+     * Transports a {@link SAXException} out of {@link ConcurrentMap#computeIfAbsent}.
+     */
+    private static final class SchemaCompileException extends RuntimeException {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        SchemaCompileException(SAXException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SAXException getCause() {
+            return (SAXException) super.getCause();
+        }
+
+    }
+
+}
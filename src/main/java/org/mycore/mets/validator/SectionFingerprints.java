@@ -0,0 +1,231 @@
+package org.mycore.mets.validator;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+
+import org.jdom2.Attribute;
+import org.jdom2.Content;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Text;
+import org.mycore.mets.validator.validators.Section;
+
+/**
+ * SHA-256 fingerprints of the {@link Section}s of a METS document. The fingerprint of a section
+ * covers the names, namespaces, attributes and text of all its elements. Comments, processing
+ * instructions and namespace prefixes are ignored, as are the line numbers, so a section which is
+ * only moved to another line keeps its fingerprint.
+ * <p>
+ * Computing the fingerprints reads the whole document once, which is much cheaper than
+ * validating it.
+ */
+public final class SectionFingerprints {
+
+    private static final byte ELEMENT_START = 1;
+
+    private static final byte ATTRIBUTE = 2;
+
+    private static final byte TEXT = 3;
+
+    private static final byte ELEMENT_END = 4;
+
+    private static final byte SECTION = 5;
+
+    private final Map<Section, byte[]> fingerprints;
+
+    private SectionFingerprints(Map<Section, byte[]> fingerprints) {
+        this.fingerprints = fingerprints;
+    }
+
+    /**
+     * Computes the fingerprints of all sections of the document.
+     *
+     * @param document the METS document
+     * @return the fingerprints
+     */
+    public static SectionFingerprints of(Document document) {
+        Element mets = document.getRootElement();
+        Element physicalStructMap = ValidatorUtil.getPhysicalStructMap(mets);
+        Element logicalStructMap = ValidatorUtil.getLogicalStructMap(mets);
+        Map<Section, Hasher> hashers = new EnumMap<>(Section.class);
+        for (Section section : Section.values()) {
+            hashers.put(section, new Hasher());
+        }
+        Hasher other = hashers.get(Section.OTHER);
+        other.startElement(mets);
+        for (Content content : mets.getContent()) {
+            if (content instanceof Element child) {
+                Section section = getSection(child, physicalStructMap, logicalStructMap);
+                // the order of the sections is part of OTHER, their content of their own fingerprint
+                other.marker(SECTION);
+                other.string(section.name());
+                hashers.get(section).element(child);
+            } else if (content instanceof Text text) {
+                other.text(text);
+            }
+        }
+        other.marker(ELEMENT_END);
+        Map<Section, byte[]> fingerprints = new EnumMap<>(Section.class);
+        hashers.forEach((section, hasher) -> fingerprints.put(section, hasher.digest()));
+        return new SectionFingerprints(fingerprints);
+    }
+
+    private static Section getSection(Element child, Element physicalStructMap, Element logicalStructMap) {
+        if (child == physicalStructMap) {
+            return Section.PHYSICAL_STRUCT_MAP;
+        }
+        if (child == logicalStructMap) {
+            return Section.LOGICAL_STRUCT_MAP;
+        }
+        if (ValidatorUtil.METS.equals(child.getNamespace())) {
+            switch (child.getName()) {
+                case "fileSec" -> {
+                    return Section.FILE_SEC;
+                }
+                case "structLink" -> {
+                    return Section.STRUCT_LINK;
+                }
+                default -> {
+                }
+            }
+        }
+        return Section.OTHER;
+    }
+
+    /**
+     * Returns the fingerprint of the given section.
+     *
+     * @param section the section
+     * @return the fingerprint as hex string
+     */
+    public String get(Section section) {
+        return HexFormat.of().formatHex(fingerprints.get(section));
+    }
+
+    /**
+     * Returns the sections whose fingerprint differs from the previous one.
+     *
+     * @param previous the fingerprints of the previous version of the document, or null
+     * @return the changed sections, all sections if previous is null
+     */
+    public Set<Section> getChangedSections(SectionFingerprints previous) {
+        if (previous == null) {
+            return EnumSet.allOf(Section.class);
+        }
+        Set<Section> changed = EnumSet.noneOf(Section.class);
+        for (Section section : Section.values()) {
+            if (!Arrays.equals(fingerprints.get(section), previous.fingerprints.get(section))) {
+                changed.add(section);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Section section : Section.values()) {
+            builder.append(builder.isEmpty() ? "" : ", ").append(section).append('=')
+                .append(get(section), 0, 16);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Feeds a tree of elements to a message digest. Strings are prefixed with their length, so
+     * different trees cannot produce the same input.
+     */
+    private static final class Hasher {
+
+        private final MessageDigest digest;
+
+        private final byte[] buffer = new byte[8192];
+
+        private int position;
+
+        Hasher() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException exc) {
+                throw new IllegalStateException("SHA-256 is not available.", exc);
+            }
+        }
+
+        void element(Element element) {
+            startElement(element);
+            for (Content content : element.getContent()) {
+                if (content instanceof Element child) {
+                    element(child);
+                } else if (content instanceof Text text) {
+                    text(text);
+                }
+            }
+            marker(ELEMENT_END);
+        }
+
+        void startElement(Element element) {
+            marker(ELEMENT_START);
+            string(element.getNamespaceURI());
+            string(element.getName());
+            if (element.hasAttributes()) {
+                for (Attribute attribute : element.getAttributes()) {
+                    marker(ATTRIBUTE);
+                    string(attribute.getNamespaceURI());
+                    string(attribute.getName());
+                    string(attribute.getValue());
+                }
+            }
+        }
+
+        void text(Text text) {
+            marker(TEXT);
+            string(text.getText());
+        }
+
+        void marker(byte marker) {
+            if (position == buffer.length) {
+                flush();
+            }
+            buffer[position++] = marker;
+        }
+
+        void string(String value) {
+            int length = value.length();
+            ensure(4);
+            buffer[position++] = (byte) (length >>> 24);
+            buffer[position++] = (byte) (length >>> 16);
+            buffer[position++] = (byte) (length >>> 8);
+            buffer[position++] = (byte) length;
+            for (int i = 0; i < length; i++) {
+                ensure(2);
+                char c = value.charAt(i);
+                buffer[position++] = (byte) (c >>> 8);
+                buffer[position++] = (byte) c;
+            }
+        }
+
+        byte[] digest() {
+            flush();
+            return digest.digest();
+        }
+
+        private void ensure(int bytes) {
+            if (position + bytes > buffer.length) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            digest.update(buffer, 0, position);
+            position = 0;
+        }
+
+    }
+
+}
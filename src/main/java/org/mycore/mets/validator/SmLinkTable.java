@@ -0,0 +1,265 @@
+package org.mycore.mets.validator;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The smLinks of a document as unmodifiable map from logical ID (xlink:from) to the set of
+ * physical IDs (xlink:to). The links are stored in compressed sparse row form: the targets of
+ * all logical IDs in one int array, plus the offset of each row. That is an int per link and
+ * a few ints per logical ID, instead of a hash set per logical ID.
+ * <p>
+ * Keys are iterated in the order of their first smLink, the targets of a key in the order of
+ * their smLinks. Duplicate links are dropped. The target sets are views whose
+ * {@code contains} scans the row. Use a {@link Builder} to create a table.
+ */
+public final class SmLinkTable extends AbstractMap<String, Set<String>> {
+
+    private final IdTable table;
+
+    private final IdSet sources;
+
+    /** The row of each int of the table plus one, 0 if the ID has no links. */
+    private final int[] rows;
+
+    private final int[] offsets;
+
+    private final int[] targets;
+
+    private SmLinkTable(IdTable table, IdSet sources, int[] rows, int[] offsets, int[] targets) {
+        this.table = table;
+        this.sources = sources;
+        this.rows = rows;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Checks if the ID with the given int of the table has at least one smLink.
+     *
+     * @param from the int of the logical ID
+     * @return true if there is an smLink from the ID
+     */
+    public boolean hasLinks(int from) {
+        return row(from) >= 0;
+    }
+
+    /**
+     * Returns the number of links, without duplicates.
+     *
+     * @return the number of links
+     */
+    public int getLinkCount() {
+        return targets.length;
+    }
+
+    private int row(int from) {
+        return from >= 0 && from < rows.length ? rows[from] - 1 : -1;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String id && hasLinks(table.indexOf(id));
+    }
+
+    @Override
+    public Set<String> get(Object key) {
+        int row = key instanceof String id ? row(table.indexOf(id)) : -1;
+        return row >= 0 ? new Row(row) : null;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(sources);
+    }
+
+    @Override
+    public int size() {
+        return sources.size();
+    }
+
+    @Override
+    public Set<Entry<String, Set<String>>> entrySet() {
+        return new AbstractSet<>() {
+
+            @Override
+            public Iterator<Entry<String, Set<String>>> iterator() {
+                return new Iterator<>() {
+
+                    private int row;
+
+                    @Override
+                    public boolean hasNext() {
+                        return row < sources.size();
+                    }
+
+                    @Override
+                    public Entry<String, Set<String>> next() {
+                        if (row >= sources.size()) {
+                            throw new NoSuchElementException();
+                        }
+                        String key = table.get(sources.getIndex(row));
+                        return new SimpleImmutableEntry<>(key, new Row(row++));
+                    }
+
+                };
+            }
+
+            @Override
+            public int size() {
+                return sources.size();
+            }
+
+        };
+    }
+
+    /**
+     * The targets of one logical ID.
+     */
+    private final class Row extends AbstractSet<String> {
+
+        private final int start;
+
+        private final int end;
+
+        Row(int row) {
+            this.start = offsets[row];
+            this.end = offsets[row + 1];
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            int index = o instanceof String id ? table.indexOf(id) : -1;
+            for (int i = start; i < end && index >= 0; i++) {
+                if (targets[i] == index) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<>() {
+
+                private int position = start;
+
+                @Override
+                public boolean hasNext() {
+                    return position < end;
+                }
+
+                @Override
+                public String next() {
+                    if (position >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    return table.get(targets[position++]);
+                }
+
+            };
+        }
+
+    }
+
+    /**
+     * Collects the links and builds the table. The links are kept as pairs of ints until
+     * {@link #build()} sorts them into rows.
+     */
+    public static final class Builder {
+
+        private final IdTable table;
+
+        private int[] pairs = new int[32];
+
+        private int size;
+
+        /**
+         * Creates a new builder.
+         *
+         * @param table the table the IDs are interned into
+         */
+        public Builder(IdTable table) {
+            this.table = table;
+        }
+
+        /**
+         * Adds an smLink.
+         *
+         * @param from the logical ID (xlink:from)
+         * @param to the physical ID (xlink:to)
+         * @return this builder
+         */
+        public Builder add(String from, String to) {
+            int fromIndex = table.intern(from);
+            int toIndex = table.intern(to);
+            if (size * 2 == pairs.length) {
+                pairs = Arrays.copyOf(pairs, pairs.length * 2);
+            }
+            pairs[size * 2] = fromIndex;
+            pairs[size * 2 + 1] = toIndex;
+            size++;
+            return this;
+        }
+
+        /**
+         * Builds the table of the links added so far.
+         *
+         * @return the smLink table
+         */
+        public SmLinkTable build() {
+            int symbols = table.size();
+            int[] rows = new int[symbols];
+            IdSet sources = new IdSet(table);
+            for (int i = 0; i < size; i++) {
+                int from = pairs[i * 2];
+                if (sources.add(from)) {
+                    rows[from] = sources.size();
+                }
+            }
+            // count the links of each row, then turn the counts into offsets
+            int[] offsets = new int[sources.size() + 1];
+            for (int i = 0; i < size; i++) {
+                offsets[rows[pairs[i * 2]]]++;
+            }
+            for (int row = 1; row < offsets.length; row++) {
+                offsets[row] += offsets[row - 1];
+            }
+            int[] next = Arrays.copyOf(offsets, sources.size());
+            int[] targets = new int[size];
+            for (int i = 0; i < size; i++) {
+                targets[next[rows[pairs[i * 2]] - 1]++] = pairs[i * 2 + 1];
+            }
+            // drop duplicate links, the last row which saw a target is remembered per target
+            int[] seen = new int[symbols];
+            int write = 0;
+            for (int row = 0; row < sources.size(); row++) {
+                int start = offsets[row];
+                int end = offsets[row + 1];
+                offsets[row] = write;
+                for (int i = start; i < end; i++) {
+                    int target = targets[i];
+                    if (seen[target] != row + 1) {
+                        seen[target] = row + 1;
+                        targets[write++] = target;
+                    }
+                }
+            }
+            offsets[sources.size()] = write;
+            return new SmLinkTable(table, sources, rows, offsets,
+                write < targets.length ? Arrays.copyOf(targets, write) : targets);
+        }
+
+    }
+
+}
@@ -0,0 +1,434 @@
+package org.mycore.mets.validator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jdom2.JDOMException;
+import org.mycore.mets.validator.validators.FileSectionValidator;
+import org.mycore.mets.validator.validators.LogicalStructMapValidator;
+import org.mycore.mets.validator.validators.PhysicalStructureValidator;
+import org.mycore.mets.validator.validators.SchemaValidator;
+import org.mycore.mets.validator.validators.StructLinkValidator;
+import org.mycore.mets.validator.validators.ValidationException;
+import org.mycore.mets.validator.validators.Validator;
+
+/**
+ * Caches validation reports by the SHA-256 digest of the input bytes. Documents which were
+ * validated before are neither parsed nor validated again, which pays off for retries,
+ * re-ingests and audits of unchanged files.
+ * <p>
+ * The key also contains a fingerprint of the validator configuration, built from the
+ * {@link Validator#getFingerprint() fingerprints} of all validators and the version of this
+ * library. Changing the validators, e.g. the schema, therefore never returns an old report.
+ * <p>
+ * There are two tiers: a least recently used map in memory, bounded by the estimated size of
+ * the reports, and an optional directory on disk which survives restarts. Reports on disk are
+ * grouped in one subdirectory per configuration, entries of other configurations are never
+ * read. Only the message, line number and location of the errors are cached, not their causes.
+ * <p>
+ * A cache can be used by multiple threads.
+ *
+ * <pre>
+ * ValidationCache cache = new ValidationCache(64 * 1024 * 1024, Path.of("/var/cache/mets"));
+ * List&lt;ValidationException&gt; errors = cache.validate(Path.of("mets.xml"));
+ * </pre>
+ */
+public class ValidationCache {
+
+    private static final int FORMAT_VERSION = 3;
+
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final long maxMemoryBytes;
+
+    private final Path directory;
+
+    private final List<Validator> validatorList;
+
+    private final LinkedHashMap<String, CachedReport> memory = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long memoryBytes;
+
+    private METSValidationEngine engine;
+
+    private String engineConfiguration;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a cache which keeps the reports in memory only.
+     *
+     * @param maxMemoryBytes the estimated maximum size of the reports kept in memory
+     */
+    public ValidationCache(long maxMemoryBytes) {
+        this(maxMemoryBytes, null);
+    }
+
+    /**
+     * Creates a cache with a memory and a disk tier.
+     *
+     * @param maxMemoryBytes the estimated maximum size of the reports kept in memory
+     * @param directory the directory for the disk tier, created if missing, or null for none
+     */
+    public ValidationCache(long maxMemoryBytes, Path directory) {
+        if (maxMemoryBytes < 0) {
+            throw new IllegalArgumentException("maxMemoryBytes must not be negative: " + maxMemoryBytes);
+        }
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.directory = directory;
+        this.validatorList = new ArrayList<>();
+        this.addDefaultValidators();
+    }
+
+    /**
+     * Adds the default set of validators used in the validation process.
+     */
+    public void addDefaultValidators() {
+        validatorList.add(new SchemaValidator());
+        validatorList.add(new FileSectionValidator());
+        validatorList.add(new PhysicalStructureValidator());
+        validatorList.add(new LogicalStructMapValidator());
+        validatorList.add(new StructLinkValidator());
+    }
+
+    /**
+     * List of all validator's which should be used in the validation process. Changing the list
+     * changes the configuration fingerprint, so reports of the old configuration are not used.
+     *
+     * @return list of validator's
+     */
+    public List<Validator> getValidators() {
+        return this.validatorList;
+    }
+
+    /**
+     * Validates the input stream or returns the cached report of the same bytes. The input is
+     * copied to a temporary file while the digest is computed, so it is never held in memory as a
+     * whole. On a miss the parser streams the temporary file. The input stream is closed.
+     *
+     * @param in the METS document
+     * @return A list of validation exceptions. This list is empty when everything is fine.
+     * @throws IOException if the input cannot be read, the temporary file cannot be written or
+     * the disk tier cannot be written
+     * @throws JDOMException if the document is not well-formed
+     */
+    public List<ValidationException> validate(InputStream in) throws IOException, JDOMException {
+        Path tempPath = Files.createTempFile("mets-validation-", ".xml");
+        try {
+            MessageDigest digest = newDigest();
+            try (DigestInputStream digestInputStream = new DigestInputStream(in, digest);
+                OutputStream out = Files.newOutputStream(tempPath)) {
+                digestInputStream.transferTo(out);
+            }
+            String configuration = getConfigurationFingerprint();
+            String key = configuration + "/" + HexFormat.of().formatHex(digest.digest());
+            List<ValidationException> cached = get(key);
+            if (cached != null) {
+                return cached;
+            }
+            return validateAndPut(configuration, key, Files.newInputStream(tempPath));
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    /**
+     * Validates the file or returns the cached report of a file with the same content. The file
+     * is read once through a {@link MappedFileInput}, the digest and the parser on a miss use the
+     * same buffers. On a hit it is not parsed.
+     *
+     * @param path the METS file
+     * @return A list of validation exceptions. This list is empty when everything is fine.
+     * @throws IOException if the file cannot be read or the disk tier cannot be written
+     * @throws JDOMException if the document is not well-formed
+     */
+    public List<ValidationException> validate(Path path) throws IOException, JDOMException {
+        MappedFileInput input = MappedFileInput.open(path);
+        MessageDigest digest = newDigest();
+        input.update(digest);
+        String configuration = getConfigurationFingerprint();
+        String key = configuration + "/" + HexFormat.of().formatHex(digest.digest());
+        List<ValidationException> cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return validateAndPut(configuration, key, input.newInputStream());
+    }
+
+    /**
+     * Returns the fingerprint of the current validator configuration. It is part of every key.
+     *
+     * @return hex encoded SHA-256 of the configuration
+     */
+    public String getConfigurationFingerprint() {
+        StringBuilder configuration = new StringBuilder();
+        configuration.append(FORMAT_VERSION).append('\n');
+        configuration.append(METSValidator.class.getPackage().getImplementationVersion()).append('\n');
+        for (Validator validator : validatorList) {
+            configuration.append(validator.getFingerprint()).append('\n');
+        }
+        MessageDigest digest = newDigest();
+        byte[] bytes = configuration.toString().getBytes(StandardCharsets.UTF_8);
+        return HexFormat.of().formatHex(digest.digest(bytes));
+    }
+
+    /**
+     * Returns the number of validations answered from the cache.
+     *
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of validations which had to parse and validate the document.
+     *
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Removes all reports from the memory tier. The disk tier is not touched.
+     */
+    public synchronized void clearMemory() {
+        memory.clear();
+        memoryBytes = 0;
+    }
+
+    private List<ValidationException> validateAndPut(String configuration, String key, InputStream in)
+        throws IOException, JDOMException {
+        misses.increment();
+        List<ValidationException> errors;
+        try (in) {
+            errors = getEngine(configuration).validate(in);
+        }
+        CachedReport report = CachedReport.of(errors);
+        putMemory(key, report);
+        if (directory != null) {
+            writeReport(key, report);
+        }
+        return errors;
+    }
+
+    /**
+     * Returns the engine of the configuration. It is built once and shared by all misses until the
+     * validators change.
+     */
+    private synchronized METSValidationEngine getEngine(String configuration) {
+        if (!configuration.equals(engineConfiguration)) {
+            engine = new METSValidationEngine.Builder().addValidators(validatorList).build();
+            engineConfiguration = configuration;
+        }
+        return engine;
+    }
+
+    private List<ValidationException> get(String key) throws IOException {
+        CachedReport report;
+        synchronized (this) {
+            report = memory.get(key);
+        }
+        if (report == null && directory != null) {
+            report = readReport(key);
+            if (report != null) {
+                putMemory(key, report);
+            }
+        }
+        if (report == null) {
+            return null;
+        }
+        hits.increment();
+        return report.toExceptions();
+    }
+
+    private synchronized void putMemory(String key, CachedReport report) {
+        CachedReport old = memory.put(key, report);
+        if (old != null) {
+            memoryBytes -= old.weight;
+        }
+        memoryBytes += report.weight;
+        Iterator<CachedReport> eldest = memory.values().iterator();
+        while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+            memoryBytes -= eldest.next().weight;
+            eldest.remove();
+        }
+    }
+
+    private Path getReportPath(String key) {
+        int separator = key.indexOf('/');
+        String inputDigest = key.substring(separator + 1);
+        return directory.resolve(key.substring(0, separator)).resolve(inputDigest.substring(0, 2))
+            .resolve(inputDigest + ".report");
+    }
+
+    private CachedReport readReport(String key) throws IOException {
+        Path reportPath = getReportPath(key);
+        try (InputStream is = Files.newInputStream(reportPath);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+            return CachedReport.read(in, Files.size(reportPath));
+        } catch (NoSuchFileException exc) {
+            return null;
+        } catch (IOException | RuntimeException exc) {
+            // a truncated or foreign file, validate again and overwrite it
+            Files.deleteIfExists(reportPath);
+            return null;
+        }
+    }
+
+    private void writeReport(String key, CachedReport report) throws IOException {
+        Path reportPath = getReportPath(key);
+        Files.createDirectories(reportPath.getParent());
+        Path tempPath = Files.createTempFile(reportPath.getParent(), null, ".tmp");
+        try {
+            try (OutputStream os = Files.newOutputStream(tempPath);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                report.write(out);
+            }
+            try {
+                Files.move(tempPath, reportPath, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException exc) {
+                Files.move(tempPath, reportPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exc) {
+            throw new IllegalStateException("SHA-256 is not available.", exc);
+        }
+    }
+
+    /**
+     * The cached part of a report: message, line number and location of each error.
+     */
+    private static final class CachedReport {
+
+        private final String[] messages;
+
+        private final int[] lineNumbers;
+
+        private final String[] locations;
+
+        private final long weight;
+
+        CachedReport(String[] messages, int[] lineNumbers, String[] locations) {
+            this.messages = messages;
+            this.lineNumbers = lineNumbers;
+            this.locations = locations;
+            long chars = 0;
+            for (int i = 0; i < messages.length; i++) {
+                chars += length(messages[i]) + length(locations[i]);
+            }
+            this.weight = ENTRY_OVERHEAD + messages.length * 16L + chars * 2;
+        }
+
+        static CachedReport of(List<ValidationException> errors) {
+            int size = errors.size();
+            String[] messages = new String[size];
+            int[] lineNumbers = new int[size];
+            String[] locations = new String[size];
+            for (int i = 0; i < size; i++) {
+                ValidationException error = errors.get(i);
+                messages[i] = error.getMessage();
+                lineNumbers[i] = error.getLineNumber();
+                locations[i] = error.getLocation();
+            }
+            return new CachedReport(messages, lineNumbers, locations);
+        }
+
+        private static int length(String value) {
+            return value == null ? 0 : value.length();
+        }
+
+        List<ValidationException> toExceptions() {
+            List<ValidationException> errors = new ArrayList<>(messages.length);
+            for (int i = 0; i < messages.length; i++) {
+                errors.add(new ValidationException(messages[i], lineNumbers[i], locations[i]));
+            }
+            return errors;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(messages.length);
+            for (int i = 0; i < messages.length; i++) {
+                writeString(out, messages[i]);
+                out.writeInt(lineNumbers[i]);
+                writeString(out, locations[i]);
+            }
+        }
+
+        static CachedReport read(DataInputStream in, long fileSize) throws IOException {
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unknown report format.");
+            }
+            int size = in.readInt();
+            // each error takes at least 12 bytes
+            if (size < 0 || size > fileSize / 12) {
+                throw new IOException("Invalid number of errors: " + size);
+            }
+            String[] messages = new String[size];
+            int[] lineNumbers = new int[size];
+            String[] locations = new String[size];
+            for (int i = 0; i < size; i++) {
+                messages[i] = readString(in);
+                lineNumbers[i] = in.readInt();
+                locations[i] = readString(in);
+            }
+            return new CachedReport(messages, lineNumbers, locations);
+        }
+
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private static String readString(DataInputStream in) throws IOException {
+            int length = in.readInt();
+            if (length == -1) {
+                return null;
+            }
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length != length) {
+                throw new EOFException();
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+    }
+
+}
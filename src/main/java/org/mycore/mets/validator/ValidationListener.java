@@ -0,0 +1,76 @@
+package org.mycore.mets.validator;
+
+import org.mycore.mets.validator.validators.ValidationIssue;
+import org.mycore.mets.validator.validators.Validator;
+
+/**
+ * Receives events of the {@link METSValidator}: the parsing of the document and the start and
+ * end of each validator with the issues it found. Register listeners with
+ * {@link METSValidator#getListeners()}, or pass one to
+ * {@link METSValidator#METSValidator(java.io.InputStream, ValidationListener)} to receive the
+ * parse events too. Without listeners the validator does not measure anything.
+ * <p>
+ * All methods do nothing by default. In the parallel modes the events of different validators
+ * arrive concurrently, so implementations have to be thread safe. The events of one validator
+ * are always sent by the thread which runs it.
+ *
+ * @see ValidationStatistics
+ * @see JFRValidationListener
+ */
+public interface ValidationListener {
+
+    /**
+     * Called before the document is parsed.
+     */
+    default void parseStarted() {
+    }
+
+    /**
+     * Called after the document was parsed.
+     *
+     * @param bytes the number of bytes read
+     * @param elements the number of elements of the document
+     * @param nanos the time needed to parse the document
+     */
+    default void parseFinished(long bytes, int elements, long nanos) {
+    }
+
+    /**
+     * Called before the validator starts.
+     *
+     * @param validator the validator
+     */
+    default void validatorStarted(Validator validator) {
+    }
+
+    /**
+     * Called for each issue the validator reports and which is kept. In the exception based modes
+     * this is the thrown exception, with the simple class name of the validator as code.
+     *
+     * @param validator the validator which found the issue
+     * @param issue the issue
+     */
+    default void issueFound(Validator validator, ValidationIssue issue) {
+    }
+
+    /**
+     * Called after the validator has finished, also if it failed with a runtime exception.
+     *
+     * @param validator the validator
+     * @param nanos the time the validator needed
+     * @param issues the number of issues found
+     */
+    default void validatorFinished(Validator validator, long nanos, int issues) {
+    }
+
+    /**
+     * Called instead of the start and finish events if the validator does not run because one
+     * of its prerequisites reported an error, see {@link Validator#getPrerequisites()}.
+     *
+     * @param validator the skipped validator
+     * @param prerequisite the failed prerequisite
+     */
+    default void validatorSkipped(Validator validator, Validator prerequisite) {
+    }
+
+}
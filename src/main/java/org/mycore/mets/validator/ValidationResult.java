@@ -0,0 +1,110 @@
+package org.mycore.mets.validator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.mycore.mets.validator.validators.Section;
+import org.mycore.mets.validator.validators.Severity;
+import org.mycore.mets.validator.validators.ValidationException;
+import org.mycore.mets.validator.validators.ValidationIssue;
+import org.mycore.mets.validator.validators.Validator;
+
+/**
+ * The result of an incremental validation run, see
+ * {@link METSValidator#validateIncremental(ValidationResult)}. Besides the issues it keeps the
+ * section fingerprints and the issues of each validator, so the next run can skip the
+ * validators whose sections did not change. A result is immutable.
+ */
+public class ValidationResult {
+
+    private final SectionFingerprints fingerprints;
+
+    private final Set<Section> changedSections;
+
+    private final Map<String, List<ValidationIssue>> issuesByValidator;
+
+    private final List<Validator> executedValidators;
+
+    ValidationResult(SectionFingerprints fingerprints, Set<Section> changedSections,
+        Map<String, List<ValidationIssue>> issuesByValidator, List<Validator> executedValidators) {
+        this.fingerprints = fingerprints;
+        this.changedSections = Collections.unmodifiableSet(changedSections);
+        this.issuesByValidator = Collections.unmodifiableMap(issuesByValidator);
+        this.executedValidators = Collections.unmodifiableList(executedValidators);
+    }
+
+    /**
+     * Returns all issues in the order of the validators. Issues of validators which were skipped
+     * are taken from the previous run and keep its line numbers.
+     *
+     * @return list of issues
+     */
+    public List<ValidationIssue> getIssues() {
+        List<ValidationIssue> issues = new ArrayList<>();
+        issuesByValidator.values().forEach(issues::addAll);
+        return issues;
+    }
+
+    /**
+     * Returns the errors as exceptions, like {@link METSValidator#validate()} but with all errors
+     * of each validator.
+     *
+     * @return A list of validation exceptions. This list is empty when everything is fine.
+     */
+    public List<ValidationException> getErrors() {
+        List<ValidationException> errors = new ArrayList<>();
+        for (ValidationIssue issue : getIssues()) {
+            if (issue.getSeverity() == Severity.ERROR) {
+                errors.add(issue.toException());
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Checks if no validator found an error.
+     *
+     * @return true if the document is valid
+     */
+    public boolean isValid() {
+        return issuesByValidator.values().stream().flatMap(List::stream)
+            .noneMatch(issue -> issue.getSeverity() == Severity.ERROR);
+    }
+
+    /**
+     * Returns the sections which changed since the previous run, all sections for a first run.
+     *
+     * @return the changed sections
+     */
+    public Set<Section> getChangedSections() {
+        return changedSections;
+    }
+
+    /**
+     * Returns the validators which were evaluated again, the others were skipped because their
+     * sections and prerequisites did not change. A validator which was evaluated but not run
+     * because a prerequisite failed is included.
+     *
+     * @return list of executed validators
+     */
+    public List<Validator> getExecutedValidators() {
+        return executedValidators;
+    }
+
+    /**
+     * Returns the fingerprints of the validated document.
+     *
+     * @return the section fingerprints
+     */
+    public SectionFingerprints getFingerprints() {
+        return fingerprints;
+    }
+
+    List<ValidationIssue> getIssues(String validatorKey) {
+        return issuesByValidator.get(validatorKey);
+    }
+
+}
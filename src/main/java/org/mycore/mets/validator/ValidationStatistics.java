@@ -0,0 +1,191 @@
+package org.mycore.mets.validator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.mycore.mets.validator.validators.Validator;
+
+/**
+ * Listener which aggregates the parse and validator times of many validation runs in
+ * {@link LatencyHistogram}s. One instance can be shared by any number of validators and threads,
+ * recording is lock free.
+ *
+ * <pre>
+ * ValidationStatistics statistics = new ValidationStatistics();
+ * for (Path path : paths) {
+ *     try (InputStream is = Files.newInputStream(path)) {
+ *         new METSValidator(is, statistics).validate();
+ *     }
+ * }
+ * System.out.println(statistics);
+ * </pre>
+ */
+public class ValidationStatistics implements ValidationListener {
+
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+
+    private final LongAdder parsedBytes = new LongAdder();
+
+    private final LongAdder parsedElements = new LongAdder();
+
+    private final Map<Class<?>, ValidatorStatistics> validators = new ConcurrentHashMap<>();
+
+    @Override
+    public void parseFinished(long bytes, int elements, long nanos) {
+        parseLatency.record(nanos);
+        parsedBytes.add(bytes);
+        parsedElements.add(elements);
+    }
+
+    @Override
+    public void validatorFinished(Validator validator, long nanos, int issues) {
+        ValidatorStatistics statistics = validators.computeIfAbsent(validator.getClass(),
+            ValidatorStatistics::new);
+        statistics.latency.record(nanos);
+        statistics.issues.add(issues);
+    }
+
+    @Override
+    public void validatorSkipped(Validator validator, Validator prerequisite) {
+        validators.computeIfAbsent(validator.getClass(), ValidatorStatistics::new).skipped.increment();
+    }
+
+    /**
+     * Returns the histogram of the parse times.
+     *
+     * @return the histogram, in nanoseconds
+     */
+    public LatencyHistogram getParseLatency() {
+        return parseLatency;
+    }
+
+    /**
+     * Returns the number of bytes of all parsed documents.
+     *
+     * @return size in bytes
+     */
+    public long getParsedBytes() {
+        return parsedBytes.sum();
+    }
+
+    /**
+     * Returns the number of elements of all parsed documents.
+     *
+     * @return number of elements
+     */
+    public long getParsedElements() {
+        return parsedElements.sum();
+    }
+
+    /**
+     * Returns the statistics of each validator class, ordered by the total time spent, the most
+     * expensive first.
+     *
+     * @return list of validator statistics
+     */
+    public List<ValidatorStatistics> getValidatorStatistics() {
+        List<ValidatorStatistics> list = new ArrayList<>(validators.values());
+        list.sort(Comparator.comparingLong(ValidatorStatistics::getTotalNanos).reversed());
+        return list;
+    }
+
+    /**
+     * Returns the statistics of the given validator class.
+     *
+     * @param validatorClass the class of the validator
+     * @return the statistics or null if no validator of this class has run
+     */
+    public ValidatorStatistics getValidatorStatistics(Class<? extends Validator> validatorClass) {
+        return validators.get(validatorClass);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT,
+            "%-28s %8d runs, p50 %9.3f ms, p99 %9.3f ms, %d bytes, %d elements", "parse",
+            parseLatency.getCount(), parseLatency.getPercentile(50) / 1e6, parseLatency.getPercentile(99) / 1e6,
+            getParsedBytes(), getParsedElements()));
+        for (ValidatorStatistics statistics : getValidatorStatistics()) {
+            builder.append('\n').append(statistics);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Times and issue counts of one validator class.
+     */
+    public static class ValidatorStatistics {
+
+        private final Class<?> validatorClass;
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private final LongAdder issues = new LongAdder();
+
+        private final LongAdder skipped = new LongAdder();
+
+        ValidatorStatistics(Class<?> validatorClass) {
+            this.validatorClass = validatorClass;
+        }
+
+        /**
+         * Returns the class of the validator.
+         *
+         * @return the validator class
+         */
+        public Class<?> getValidatorClass() {
+            return validatorClass;
+        }
+
+        /**
+         * Returns the histogram of the validator times.
+         *
+         * @return the histogram, in nanoseconds
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * Returns the time spent in all runs of the validator.
+         *
+         * @return the total time in nanoseconds
+         */
+        public long getTotalNanos() {
+            return latency.getSum();
+        }
+
+        /**
+         * Returns the number of issues the validator found in all runs.
+         *
+         * @return number of issues
+         */
+        public long getIssues() {
+            return issues.sum();
+        }
+
+        /**
+         * Returns the number of runs the validator was skipped because a prerequisite failed.
+         *
+         * @return number of skipped runs
+         */
+        public long getSkipped() {
+            return skipped.sum();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-28s %8d runs, p50 %9.3f ms, p99 %9.3f ms, %d issues, %d skipped",
+                validatorClass.getSimpleName(), latency.getCount(), latency.getPercentile(50) / 1e6,
+                latency.getPercentile(99) / 1e6, getIssues(), getSkipped());
+        }
+
+    }
+
+}
@@ -0,0 +1,152 @@
+package org.mycore.mets.validator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.mycore.mets.validator.validators.Validator;
+
+/**
+ * The prerequisites of a list of validators as directed acyclic graph, see
+ * {@link Validator#getPrerequisites()}. Validators are referred to by their index in the list.
+ * Used by the {@link METSValidator} and the
+ * {@link org.mycore.mets.validator.stream.StreamingMETSValidator}.
+ *
+ * @param <V> the type of the validators
+ */
+public final class ValidatorGraph<V> {
+
+    private final List<V> validators;
+
+    private final int[][] prerequisites;
+
+    private final int[][] dependents;
+
+    /**
+     * Creates the graph of the given validators.
+     *
+     * @param validators the validators of one validation run
+     * @param prerequisitesOf returns the classes of the prerequisites of a validator
+     * @throws IllegalStateException if the prerequisites are cyclic
+     */
+    public ValidatorGraph(List<V> validators, Function<V, Set<? extends Class<?>>> prerequisitesOf) {
+        this.validators = List.copyOf(validators);
+        int size = this.validators.size();
+        this.prerequisites = new int[size][];
+        List<List<Integer>> dependentLists = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dependentLists.add(new ArrayList<>());
+        }
+        for (int i = 0; i < size; i++) {
+            List<Integer> indexes = new ArrayList<>();
+            for (Class<?> prerequisite : prerequisitesOf.apply(this.validators.get(i))) {
+                for (int j = 0; j < size; j++) {
+                    if (j != i && prerequisite.isInstance(this.validators.get(j)) && !indexes.contains(j)) {
+                        indexes.add(j);
+                        dependentLists.get(j).add(i);
+                    }
+                }
+            }
+            indexes.sort(null);
+            prerequisites[i] = indexes.stream().mapToInt(Integer::intValue).toArray();
+        }
+        this.dependents = new int[size][];
+        for (int i = 0; i < size; i++) {
+            dependents[i] = dependentLists.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        getOrder(null);
+    }
+
+    /**
+     * Returns the validators.
+     *
+     * @return unmodifiable list of the validators
+     */
+    public List<V> getValidators() {
+        return validators;
+    }
+
+    /**
+     * Returns the number of validators.
+     *
+     * @return the number of validators
+     */
+    public int size() {
+        return validators.size();
+    }
+
+    /**
+     * Returns the indexes of the prerequisites of a validator, in ascending order.
+     *
+     * @param index the index of the validator
+     * @return the indexes of its prerequisites
+     */
+    public int[] getPrerequisites(int index) {
+        return prerequisites[index];
+    }
+
+    /**
+     * Returns the first prerequisite of a validator which failed.
+     *
+     * @param index the index of the validator
+     * @param failed whether the validator at each index reported an error
+     * @return the index of the failed prerequisite, or -1 if none failed
+     */
+    public int getFailedPrerequisite(int index, boolean[] failed) {
+        for (int prerequisite : prerequisites[index]) {
+            if (failed[prerequisite]) {
+                return prerequisite;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns an order in which every validator comes after its prerequisites. Of the validators
+     * whose prerequisites are done, the first by the given order comes next, then the first in
+     * the list.
+     *
+     * @param priority the preferred order, or null for the order of the list
+     * @return the indexes of the validators
+     * @throws IllegalStateException if the prerequisites are cyclic
+     */
+    public int[] getOrder(Comparator<? super V> priority) {
+        int size = validators.size();
+        Comparator<Integer> byIndex = Comparator.naturalOrder();
+        Comparator<Integer> comparator = priority == null ? byIndex
+            : Comparator.<Integer, V>comparing(validators::get, priority).thenComparing(byIndex);
+        PriorityQueue<Integer> ready = new PriorityQueue<>(Math.max(1, size), comparator);
+        int[] missing = new int[size];
+        for (int i = 0; i < size; i++) {
+            missing[i] = prerequisites[i].length;
+            if (missing[i] == 0) {
+                ready.add(i);
+            }
+        }
+        int[] order = new int[size];
+        int count = 0;
+        while (!ready.isEmpty()) {
+            int index = ready.poll();
+            order[count++] = index;
+            for (int dependent : dependents[index]) {
+                if (--missing[dependent] == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (count < size) {
+            List<String> cyclic = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (missing[i] > 0) {
+                    cyclic.add(validators.get(i).getClass().getSimpleName());
+                }
+            }
+            throw new IllegalStateException("The prerequisites of the validators " + cyclic + " are cyclic.");
+        }
+        return order;
+    }
+
+}
@@ -1,7 +1,5 @@
 package org.mycore.mets.validator;
 
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -12,8 +10,8 @@ import org.jdom2.filter.Filter;
 import org.jdom2.filter.Filters;
 import org.jdom2.located.LocatedElement;
 import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.XPathFactory;
 import org.mycore.mets.validator.validators.ValidationException;
+import org.mycore.mets.validator.validators.ValidationIssueSink;
 
 /**
  * Some utility methods required for the validation.
@@ -42,14 +40,54 @@ public abstract class ValidatorUtil {
      * @throws ValidationException the validation exception
      */
     public static void throwException(Element e, String message) throws ValidationException {
-        if (e instanceof LocatedElement le) {
-            throw new ValidationException(message, le.getLine());
+        throw new ValidationException(message, getLine(e), getLocation(e));
+    }
+
+    /**
+     * Returns the line of the given element. Works for documents built with the
+     * {@link org.jdom2.located.LocatedJDOMFactory} as well as for those built with the factory
+     * of the {@link LineNumberTable}.
+     *
+     * @param element the element
+     * @return the line number, or -1 if the document has no line information
+     */
+    public static int getLine(Element element) {
+        if (element instanceof LocatedElement locatedElement) {
+            return locatedElement.getLine();
+        }
+        LineNumberTable table = LineNumberTable.of(element.getDocument());
+        return table != null ? table.getLine(element) : -1;
+    }
+
+    /**
+     * Returns an XPath like location of the given element. Elements with an @ID attribute
+     * are identified by their ID, all others by their position among equally named siblings.
+     * This is only computed when an error is reported, so it does not need to be fast.
+     *
+     * @param element the element to locate
+     * @return the location, e.g. <code>/mets:mets/mets:structMap[2]/mets:div[@ID='log_1']</code>
+     */
+    public static String getLocation(Element element) {
+        StringBuilder location = new StringBuilder();
+        for (Element current = element; current != null; current = current.getParentElement()) {
+            StringBuilder step = new StringBuilder("/").append(current.getQualifiedName());
+            String id = current.getAttributeValue("ID");
+            Element parent = current.getParentElement();
+            if (id != null) {
+                step.append("[@ID='").append(id).append("']");
+            } else if (parent != null) {
+                List<Element> siblings = parent.getChildren(current.getName(), current.getNamespace());
+                if (siblings.size() > 1) {
+                    step.append('[').append(siblings.indexOf(current) + 1).append(']');
+                }
+            }
+            location.insert(0, step);
         }
-        throw new ValidationException(message);
+        return location.toString();
     }
 
     /**
-     * Checks if the given xpath is valid.
+     * Checks if the given xpath is valid. The compiled expression is cached, see {@link XPathRegistry}.
      *
      * @param <T> the type of the result
      * @param parent the parent element to evaluate the xpath against
@@ -59,7 +97,7 @@ public abstract class ValidatorUtil {
      * @throws ValidationException if the xpath yields no result or evaluation fails
      */
     public static <T> T checkXPath(Element parent, String xpath, Filter<T> filter) throws ValidationException {
-        XPathExpression<T> compile = XPathFactory.instance().compile(xpath, filter, null, ValidatorUtil.METS);
+        XPathExpression<T> compile = XPathRegistry.get(xpath, filter);
         try {
             T firstValue = compile.evaluateFirst(parent);
             if (firstValue == null) {
@@ -171,6 +209,96 @@ public abstract class ValidatorUtil {
         return elements;
     }
 
+    /**
+     * Same as {@link #checkNullAttribute(Element, String)}, but reports to the sink instead of throwing.
+     *
+     * @param element the element to check
+     * @param attributeName name of the attribute
+     * @param code the rule code of the issue
+     * @param sink the sink to report to
+     * @return the value of the attribute or null if it does not exist
+     */
+    public static String checkNullAttribute(Element element, String attributeName, String code,
+        ValidationIssueSink sink) {
+        String attributeValue = element.getAttributeValue(attributeName);
+        if (attributeValue == null) {
+            sink.error(code, element, "Missing @" + attributeName + " attribute.");
+        }
+        return attributeValue;
+    }
+
+    /**
+     * Same as {@link #checkNullAndEmptyAttribute(Element, String, Namespace)}, but reports to the sink
+     * instead of throwing.
+     *
+     * @param element the element to check
+     * @param attributeName name of the attribute
+     * @param namespace the namespace of the attribute
+     * @param code the rule code of the issue
+     * @param sink the sink to report to
+     * @return the value of the attribute or null if it is missing or empty
+     */
+    public static String checkNullAndEmptyAttribute(Element element, String attributeName, Namespace namespace,
+        String code, ValidationIssueSink sink) {
+        String attributeValue = element.getAttributeValue(attributeName, namespace);
+        if (attributeValue == null || attributeValue.isEmpty()) {
+            sink.error(code, element, "Missing or empty @" + attributeName + " attribute.");
+            return null;
+        }
+        return attributeValue;
+    }
+
+    /**
+     * Same as {@link #checkEmptyAttribute(Element, String)}, but reports to the sink instead of throwing.
+     *
+     * @param element the element to check
+     * @param attrName name of the attribute
+     * @param code the rule code of the issue
+     * @param sink the sink to report to
+     */
+    public static void checkEmptyAttribute(Element element, String attrName, String code, ValidationIssueSink sink) {
+        String attributeValue = element.getAttributeValue(attrName);
+        if (attributeValue != null && attributeValue.isEmpty()) {
+            sink.error(code, element, element.getName() + " " + attrName + " is present but empty!");
+        }
+    }
+
+    /**
+     * Same as {@link #checkElement(Element, String)}, but reports to the sink instead of throwing.
+     *
+     * @param parent the parent element
+     * @param elementName name of the element
+     * @param code the rule code of the issue
+     * @param sink the sink to report to
+     * @return the first element with the elementName or null
+     */
+    public static Element checkElement(Element parent, String elementName, String code, ValidationIssueSink sink) {
+        Element child = parent.getChild(elementName, ValidatorUtil.METS);
+        if (child == null) {
+            sink.error(code, parent, "Missing '" + elementName + "' element.");
+        }
+        return child;
+    }
+
+    /**
+     * Same as {@link #checkElements(Element, String)}, but reports to the sink instead of throwing.
+     *
+     * @param parent the parent element
+     * @param elementName name of the element
+     * @param code the rule code of the issue
+     * @param sink the sink to report to
+     * @return a list of all elements with the elementName, may be empty
+     */
+    public static List<Element> checkElements(Element parent, String elementName, String code,
+        ValidationIssueSink sink) {
+        List<Element> elements = parent.getChildren(elementName, ValidatorUtil.METS);
+        if (elements.isEmpty()) {
+            sink.error(code, parent, parent.getName() + " should contain at least one '" + elementName
+                + "' element.");
+        }
+        return elements;
+    }
+
     /**
      * Helper method to get the structMap[@TYPE='LOGICAL'] element of the mets document.
      *
@@ -212,10 +340,10 @@ public abstract class ValidatorUtil {
     }
 
     private static Element getDivByLogicalId(Element mets, String logicalId) {
-        XPathExpression<Element> elementXPathExpression;
-        String xpathString = "mets:structMap[@TYPE='LOGICAL']//mets:div[@ID='" + logicalId + "']";
-        elementXPathExpression = XPathFactory.instance().compile(xpathString, Filters.element(), null, METS);
-        return elementXPathExpression.evaluateFirst(mets);
+        XPathExpression<Element> divById = XPathRegistry.get("mets:structMap[@TYPE='LOGICAL']//mets:div[@ID=$id]",
+            Filters.element(), "id");
+        divById.setVariable("id", logicalId);
+        return divById.evaluateFirst(mets);
     }
 
     /**
@@ -247,20 +375,21 @@ public abstract class ValidatorUtil {
 
     /**
      * Parses all smLink elements and returns a map from logical ID (xlink:from) to a set of physical IDs (xlink:to).
+     * The map is an unmodifiable {@link SmLinkTable}.
      *
      * @param structLink the mets:structLink element
      * @return a map of logical IDs to sets of linked physical IDs
      * @throws ValidationException if any smLink is missing required attributes
      */
     public static Map<String, Set<String>> getSmLinks(Element structLink) throws ValidationException {
-        Map<String, Set<String>> map = new HashMap<>();
         List<Element> smLinks = checkElements(structLink, "smLink");
+        SmLinkTable.Builder builder = new SmLinkTable.Builder(new IdTable(smLinks.size()));
         for (Element smLink : smLinks) {
             String from = checkNullAndEmptyAttribute(smLink, "from", XLINK);
             String to = checkNullAndEmptyAttribute(smLink, "to", XLINK);
-            map.computeIfAbsent(from, k -> new HashSet<>()).add(to);
+            builder.add(from, to);
         }
-        return map;
+        return builder.build();
     }
 
 }
@@ -0,0 +1,122 @@
+package org.mycore.mets.validator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jdom2.filter.Filter;
+import org.jdom2.xpath.XPathExpression;
+import org.jdom2.xpath.XPathFactory;
+
+/**
+ * Thread safe registry of compiled XPath expressions in the METS namespace. Each expression
+ * is compiled once per process and keyed by its text, its filter and its variable names.
+ * <p>
+ * JDOM {@link XPathExpression}s hold the values of their variables, so they must not be shared
+ * between threads. Every thread gets its own clone of the compiled expression. Use variables
+ * (<code>$name</code>) instead of concatenating values into the expression text, otherwise
+ * every value results in a new compilation.
+ * <p>
+ * The registry is meant for a fixed set of expressions known at development time, like those of
+ * {@link ValidatorUtil}. It keeps at most {@link #MAX_EXPRESSIONS} expressions, further ones are
+ * compiled for every call and not kept, so expressions built from input cannot fill the memory.
+ * <p>
+ * The hit and miss counters can be used to confirm that no compilation happens on the hot path,
+ * a miss is counted for each compilation.
+ */
+public abstract class XPathRegistry {
+
+    /** The maximum number of expressions kept, per process and per thread. */
+    public static final int MAX_EXPRESSIONS = 1024;
+
+    private static final ConcurrentMap<Key, XPathExpression<?>> COMPILED = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Map<Key, XPathExpression<?>>> THREAD_COPIES = ThreadLocal
+        .withInitial(HashMap::new);
+
+    private static final LongAdder HITS = new LongAdder();
+
+    private static final LongAdder MISSES = new LongAdder();
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private XPathRegistry() {
+    }
+
+    /**
+     * Returns the compiled expression for the calling thread. The variables of the expression
+     * are initialized with null, set them with {@link XPathExpression#setVariable(String, Object)}
+     * before evaluation.
+     *
+     * @param <T> the type of the result
+     * @param expression the xpath expression, the mets prefix is bound to the METS namespace
+     * @param filter the filter to apply to the xpath result
+     * @param variables names of the variables used in the expression
+     * @return the compiled expression, exclusive to the calling thread, see {@link #MAX_EXPRESSIONS}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> XPathExpression<T> get(String expression, Filter<T> filter, String... variables) {
+        Key key = new Key(expression, filter, Arrays.asList(variables));
+        Map<Key, XPathExpression<?>> threadCopies = THREAD_COPIES.get();
+        XPathExpression<?> threadCopy = threadCopies.get(key);
+        if (threadCopy != null) {
+            HITS.increment();
+            return (XPathExpression<T>) threadCopy;
+        }
+        XPathExpression<?> compiled = COMPILED.get(key);
+        if (compiled == null) {
+            if (COMPILED.size() >= MAX_EXPRESSIONS) {
+                return (XPathExpression<T>) compile(key);
+            }
+            compiled = COMPILED.computeIfAbsent(key, XPathRegistry::compile);
+        } else {
+            HITS.increment();
+        }
+        threadCopy = compiled.clone();
+        if (threadCopies.size() < MAX_EXPRESSIONS) {
+            threadCopies.put(key, threadCopy);
+        }
+        return (XPathExpression<T>) threadCopy;
+    }
+
+    /**
+     * Returns how often a compiled expression was reused.
+     *
+     * @return number of cache hits
+     */
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    /**
+     * Returns how often an expression had to be compiled.
+     *
+     * @return number of cache misses
+     */
+    public static long getMisses() {
+        return MISSES.sum();
+    }
+
+    private static XPathExpression<?> compile(Key key) {
+        MISSES.increment();
+        Map<String, Object> variables = null;
+        if (!key.variables().isEmpty()) {
+            variables = new LinkedHashMap<>();
+            for (String variable : key.variables()) {
+                variables.put(variable, null);
+            }
+        }
+        return XPathFactory.instance().compile(key.expression(), key.filter(), variables, ValidatorUtil.METS,
+            ValidatorUtil.XLINK);
+    }
+
+    private record Key(String expression, Filter<?> filter, List<String> variables) {
+    }
+
+}
@@ -0,0 +1,82 @@
+package org.mycore.mets.validator.server;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import org.mycore.mets.validator.validators.ValidationException;
+
+/**
+ * Writes the JSON documents of the {@link ValidationServer}. The structure is small and fixed,
+ * so no JSON library is needed.
+ */
+final class JsonReport {
+
+    private JsonReport() {
+    }
+
+    /**
+     * Writes the validation report:
+     * <pre>
+     * {"valid":false,"errors":[{"message":"...","line":12,"location":"/mets:mets/..."}]}
+     * </pre>
+     * The line is omitted if unknown, the location if null.
+     */
+    static void writeReport(Writer writer, List<ValidationException> errors) throws IOException {
+        writer.write("{\"valid\":");
+        writer.write(Boolean.toString(errors.isEmpty()));
+        writer.write(",\"errors\":[");
+        for (int i = 0; i < errors.size(); i++) {
+            ValidationException error = errors.get(i);
+            writer.write(i == 0 ? "{" : ",{");
+            writer.write("\"message\":");
+            writeString(writer, error.getMessage());
+            if (error.getLineNumber() != -1) {
+                writer.write(",\"line\":");
+                writer.write(Integer.toString(error.getLineNumber()));
+            }
+            if (error.getLocation() != null) {
+                writer.write(",\"location\":");
+                writeString(writer, error.getLocation());
+            }
+            writer.write('}');
+        }
+        writer.write("]}");
+    }
+
+    /**
+     * Writes an error document: <code>{"error":"..."}</code>.
+     */
+    static void writeError(Writer writer, String message) throws IOException {
+        writer.write("{\"error\":");
+        writeString(writer, message);
+        writer.write('}');
+    }
+
+    static void writeString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+        writer.write('"');
+    }
+
+}
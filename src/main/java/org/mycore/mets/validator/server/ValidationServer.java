@@ -0,0 +1,268 @@
+package org.mycore.mets.validator.server;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jdom2.JDOMException;
+import org.mycore.mets.validator.METSValidationEngine;
+import org.mycore.mets.validator.METSValidator;
+import org.mycore.mets.validator.stream.StreamingMETSValidator;
+import org.mycore.mets.validator.validators.FileSectionValidator;
+import org.mycore.mets.validator.validators.LogicalStructMapValidator;
+import org.mycore.mets.validator.validators.PhysicalStructureValidator;
+import org.mycore.mets.validator.validators.SchemaValidator;
+import org.mycore.mets.validator.validators.StructLinkValidator;
+import org.mycore.mets.validator.validators.ValidationException;
+import org.mycore.mets.validator.validators.Validator;
+import org.xml.sax.SAXException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Long running validation service on top of the JDK {@link HttpServer}. The JVM, the compiled
+ * schemas and the validators stay warm between requests, which saves the startup costs a new
+ * process per document would have.
+ * <ul>
+ * <li><code>POST /validate</code> validates the request body with the {@link METSValidator}
+ * and returns a JSON report, see {@link #validate(InputStream, boolean)}. With
+ * <code>?mode=streaming</code> the {@link StreamingMETSValidator} is used instead, which
+ * needs almost no memory but does no schema validation. It always runs the default stream
+ * validators, the {@link #getValidators() validators} of the server are ignored.</li>
+ * <li><code>GET /health</code> returns <code>{"status":"ok"}</code>.</li>
+ * </ul>
+ * The request body is parsed while it is received, it is never buffered as a whole. At most
+ * <code>maxConcurrentRequests</code> documents are validated at a time, further requests are
+ * rejected with 503 and a Retry-After header instead of being queued. Each request runs in its
+ * own virtual thread.
+ * <p>
+ * Documents with a DOCTYPE declaration are rejected in both modes, so requests cannot make the
+ * server load external DTDs or entities.
+ */
+public class ValidationServer {
+
+    /** The default port, used if none is given on the command line. */
+    public static final int DEFAULT_PORT = 8090;
+
+    private final InetSocketAddress address;
+
+    private final Semaphore permits;
+
+    private final List<Validator> validatorList;
+
+    private METSValidationEngine engine;
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    /**
+     * Creates a new validation server.
+     *
+     * @param address the address to bind to, use a loopback address for a local daemon
+     * @param maxConcurrentRequests the number of documents validated at the same time
+     */
+    public ValidationServer(InetSocketAddress address, int maxConcurrentRequests) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException(
+                "maxConcurrentRequests has to be at least 1: " + maxConcurrentRequests);
+        }
+        this.address = address;
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.validatorList = new ArrayList<>();
+        this.addDefaultValidators();
+    }
+
+    /**
+     * Starts a server on localhost.
+     * <pre>
+     * java -cp ... org.mycore.mets.validator.server.ValidationServer [port] [maxConcurrentRequests]
+     * </pre>
+     *
+     * @param args the optional port and the optional request limit
+     * @throws IOException if the server cannot be started
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int maxConcurrentRequests = args.length > 1 ? Integer.parseInt(args[1])
+            : Runtime.getRuntime().availableProcessors();
+        ValidationServer validationServer = new ValidationServer(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), port), maxConcurrentRequests);
+        try {
+            validationServer.warmUp();
+        } catch (SAXException exc) {
+            System.err.println("Unable to compile schema: " + exc.getMessage());
+        }
+        validationServer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> validationServer.stop(1)));
+        System.out.println("METS validation server listening on " + validationServer.getAddress());
+    }
+
+    /**
+     * Adds the default set of validators used in the validation process.
+     */
+    public void addDefaultValidators() {
+        validatorList.add(new SchemaValidator());
+        validatorList.add(new FileSectionValidator());
+        validatorList.add(new PhysicalStructureValidator());
+        validatorList.add(new LogicalStructMapValidator());
+        validatorList.add(new StructLinkValidator());
+    }
+
+    /**
+     * List of all validator's which should be used for every request. The validators are shared
+     * by concurrent requests, so they have to be stateless. Do not modify the list after
+     * {@link #start()}. Requests in streaming mode do not use them.
+     *
+     * @return list of validator's
+     */
+    public List<Validator> getValidators() {
+        return this.validatorList;
+    }
+
+    /**
+     * Compiles the schemas of all {@link SchemaValidator}s, so the first request does not have to.
+     *
+     * @throws SAXException if a schema could not be compiled
+     */
+    public void warmUp() throws SAXException {
+        for (Validator validator : validatorList) {
+            if (validator instanceof SchemaValidator schemaValidator) {
+                schemaValidator.getSchema();
+            }
+        }
+    }
+
+    /**
+     * Starts the server.
+     *
+     * @throws IOException if the address cannot be bound
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server is already running.");
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/validate", this::handleValidate);
+        server.createContext("/health", this::handleHealth);
+        server.start();
+    }
+
+    /**
+     * Stops the server. Requests in progress get the given time to finish.
+     *
+     * @param delay maximum time in seconds to wait for running requests
+     */
+    public synchronized void stop(int delay) {
+        if (server == null) {
+            return;
+        }
+        server.stop(delay);
+        executor.close();
+        server = null;
+        executor = null;
+        engine = null;
+    }
+
+    /**
+     * Returns the address the server is bound to. Useful if it was started with port 0.
+     *
+     * @return the bound address
+     */
+    public synchronized InetSocketAddress getAddress() {
+        return server != null ? server.getAddress() : address;
+    }
+
+    /**
+     * Validates one document. Used by the <code>/validate</code> endpoint.
+     *
+     * @param in the METS document, read while it is parsed
+     * @param streaming true to use the {@link StreamingMETSValidator}
+     * @return list of validation exceptions, empty if the document is valid
+     * @throws IOException if the document could not be read
+     * @throws JDOMException if the document is not well-formed
+     * @throws XMLStreamException if the document is not well-formed in streaming mode
+     */
+    protected List<ValidationException> validate(InputStream in, boolean streaming)
+        throws IOException, JDOMException, XMLStreamException {
+        if (streaming) {
+            StreamingMETSValidator streamingValidator = new StreamingMETSValidator(in);
+            streamingValidator.setDisallowDoctype(true);
+            return streamingValidator.validate();
+        }
+        return getEngine().validate(in);
+    }
+
+    private synchronized METSValidationEngine getEngine() {
+        if (engine == null) {
+            engine = new METSValidationEngine.Builder().addValidators(validatorList).disallowDoctype(true).build();
+        }
+        return engine;
+    }
+
+    private void handleValidate(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendError(exchange, 405, "Use POST to send the METS document.");
+                return;
+            }
+            if (!permits.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, "Too many concurrent requests.");
+                return;
+            }
+            List<ValidationException> errors;
+            try {
+                String query = exchange.getRequestURI().getQuery();
+                boolean streaming = query != null && List.of(query.split("&")).contains("mode=streaming");
+                errors = validate(exchange.getRequestBody(), streaming);
+            } catch (JDOMException | XMLStreamException exc) {
+                sendError(exchange, 400, "Unable to parse METS document: " + exc.getMessage());
+                return;
+            } catch (RuntimeException exc) {
+                sendError(exchange, 500, "Validation failed: " + exc);
+                return;
+            } finally {
+                permits.release();
+            }
+            try (Writer writer = openJson(exchange, 200)) {
+                JsonReport.writeReport(writer, errors);
+            }
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try (exchange; Writer writer = openJson(exchange, 200)) {
+            writer.write("{\"status\":\"ok\"}");
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        try (Writer writer = openJson(exchange, status)) {
+            JsonReport.writeError(writer, message);
+        }
+    }
+
+    private static Writer openJson(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, 0);
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+    }
+
+}
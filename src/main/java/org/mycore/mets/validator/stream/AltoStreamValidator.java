@@ -0,0 +1,91 @@
+package org.mycore.mets.validator.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.mycore.mets.validator.validators.AltoValidator;
+
+/**
+ * Streaming version of the {@link AltoValidator}. Like the DOM validator it is optional.
+ */
+public class AltoStreamValidator extends StreamValidator {
+
+    private final List<String> altoFileIds = new ArrayList<>();
+
+    private boolean fileSecFound;
+
+    private boolean inFileSec;
+
+    private boolean groupFound;
+
+    private boolean inGroup;
+
+    private int line;
+
+    private String location;
+
+    @Override
+    public void startElement(StreamContext context) {
+        int depth = context.getDepth();
+        if (depth == 2 && !fileSecFound && context.is("fileSec")) {
+            fileSecFound = true;
+            inFileSec = true;
+        } else if (inFileSec && !groupFound && context.is("fileGrp", 3)
+            && "ALTO".equals(context.getAttribute("USE"))) {
+            groupFound = true;
+            inGroup = true;
+            line = context.getLine();
+            location = context.getLocation();
+        } else if (inGroup && context.is("file", 4)) {
+            String id = context.getAttribute("ID");
+            if (id == null || id.isEmpty()) {
+                fail(context, "Missing or empty @ID attribute.");
+            } else {
+                altoFileIds.add(id);
+            }
+        }
+    }
+
+    @Override
+    public void endElement(StreamContext context) {
+        int depth = context.getDepth();
+        if (inGroup && depth == 3) {
+            inGroup = false;
+            if (altoFileIds.isEmpty()) {
+                fail(context, "fileGrp should contain at least one 'file' element.");
+            }
+        } else if (depth == 2) {
+            inFileSec = false;
+        }
+    }
+
+    @Override
+    public void endDocument(StreamContext context) {
+        StreamIndex index = context.getIndex();
+        if (!groupFound) {
+            fail("mets:fileSec/mets:fileGrp[@USE='ALTO'] does not exist", index.getMetsLine(),
+                index.getMetsLocation());
+            return;
+        }
+        Set<String> referencedIds = index.getLogicalAreaFileIds();
+        List<String> unreferencedIds = new ArrayList<>();
+        for (String id : altoFileIds) {
+            if (!referencedIds.contains(id)) {
+                unreferencedIds.add(id);
+            }
+        }
+        if (unreferencedIds.size() == 1) {
+            fail("Unable to find the alto id '" + unreferencedIds.get(0) + "' in the logical struct map.", line,
+                location);
+        } else if (!unreferencedIds.isEmpty()) {
+            fail("Unable to find the alto ids " + unreferencedIds + " in the logical struct map.", line, location);
+        }
+    }
+
+    @Override
+    public Set<Class<? extends StreamValidator>> getPrerequisites() {
+        return Set.of(FileSectionStreamValidator.class);
+    }
+
+}
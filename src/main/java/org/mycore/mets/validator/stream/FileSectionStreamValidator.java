@@ -0,0 +1,175 @@
+package org.mycore.mets.validator.stream;
+
+import org.mycore.mets.validator.ValidatorUtil;
+import org.mycore.mets.validator.validators.FileSectionValidator;
+
+/**
+ * Streaming version of the {@link FileSectionValidator}. The MASTER (or IVIEW) and ALTO file
+ * groups are checked while they are read, the first error of each group is kept. When the
+ * document ends, the errors are reported in the order the {@link FileSectionValidator} would
+ * report them.
+ */
+public class FileSectionStreamValidator extends StreamValidator {
+
+    private boolean fileSecFound;
+
+    private boolean inFileSec;
+
+    private FileGroup master;
+
+    private FileGroup iview;
+
+    private FileGroup alto;
+
+    private FileGroup current;
+
+    @Override
+    public void startElement(StreamContext context) {
+        int depth = context.getDepth();
+        if (depth == 2 && context.is("fileSec") && !fileSecFound) {
+            fileSecFound = true;
+            inFileSec = true;
+        } else if (inFileSec && context.is("fileGrp", 3)) {
+            current = startFileGroup(context.getAttribute("USE"));
+        } else if (current != null && current.failure == null) {
+            if (context.is("file", 4)) {
+                current.startFile(context);
+            } else if (current.inFile && context.is("FLocat", 5)) {
+                current.startFLocat(context);
+            }
+        }
+    }
+
+    @Override
+    public void endElement(StreamContext context) {
+        int depth = context.getDepth();
+        if (current != null && depth == 4 && current.inFile) {
+            current.endFile(context);
+        } else if (depth == 3) {
+            current = null;
+        } else if (depth == 2) {
+            inFileSec = false;
+        }
+    }
+
+    @Override
+    public void endDocument(StreamContext context) {
+        if (!fileSecFound) {
+            fail("No mets:fileSec element.");
+            return;
+        }
+        FileGroup masterGroup = master != null ? master : iview;
+        if (masterGroup == null) {
+            fail("No fileGrp with @USE='MASTER' or @USE='IVIEW'.");
+            return;
+        }
+        if (!check(masterGroup, "MASTER") && alto != null) {
+            check(alto, "ALTO");
+        }
+    }
+
+    private boolean check(FileGroup group, String use) {
+        if (group.files == 0) {
+            fail("FileGrp[@USE='" + use + "'] does not contain any 'mets:file' elements.");
+            return true;
+        }
+        if (group.failure != null) {
+            fail(group.failure, group.failureLine, group.failureLocation);
+            return true;
+        }
+        return false;
+    }
+
+    private FileGroup startFileGroup(String use) {
+        if ("MASTER".equals(use) && master == null) {
+            master = new FileGroup("image/", false);
+            return master;
+        }
+        if ("IVIEW".equals(use) && iview == null) {
+            iview = new FileGroup("image/", false);
+            return iview;
+        }
+        if ("ALTO".equals(use) && alto == null) {
+            alto = new FileGroup("/xml", true);
+            return alto;
+        }
+        return null;
+    }
+
+    /**
+     * Check state of one file group.
+     */
+    private static final class FileGroup {
+
+        private final String expectedMimeType;
+
+        private final boolean altoDirectory;
+
+        private int files;
+
+        private boolean inFile;
+
+        private boolean flocatFound;
+
+        private String failure;
+
+        private int failureLine;
+
+        private String failureLocation;
+
+        FileGroup(String expectedMimeType, boolean altoDirectory) {
+            this.expectedMimeType = expectedMimeType;
+            this.altoDirectory = altoDirectory;
+        }
+
+        void startFile(StreamContext context) {
+            files++;
+            inFile = true;
+            flocatFound = false;
+            if (context.getAttribute("ID") == null) {
+                fail(context, "mets:file has no @ID.");
+                return;
+            }
+            String mimeType = context.getAttribute("MIMETYPE");
+            if (mimeType == null) {
+                fail(context, "mets:file has no @MIMETYPE.");
+            } else if (!mimeType.startsWith(expectedMimeType) && !mimeType.endsWith(expectedMimeType)) {
+                fail(context, "mets:file has an invalid mimetype. Should start with '" + expectedMimeType
+                    + "' but is '" + mimeType + "'");
+            }
+        }
+
+        void startFLocat(StreamContext context) {
+            if (flocatFound) {
+                return;
+            }
+            flocatFound = true;
+            String href = context.getAttribute("href", ValidatorUtil.XLINK);
+            String error = FileSectionValidator.getHrefError(href);
+            if (error != null) {
+                fail(context, context.getDepth(), error);
+            } else if (altoDirectory && !href.startsWith("alto/")) {
+                fail(context, context.getDepth() - 1, "alto file is not placed in 'alto/' directory.");
+            }
+        }
+
+        void endFile(StreamContext context) {
+            inFile = false;
+            if (failure == null && !flocatFound) {
+                fail(context, context.getDepth(), "mets:file has no mets:FLocat element.");
+            }
+        }
+
+        private void fail(StreamContext context, String message) {
+            fail(context, context.getDepth(), message);
+        }
+
+        private void fail(StreamContext context, int depth, String message) {
+            failure = message;
+            failureLine = context.getLine(depth);
+            failureLocation = context.getLocation(depth);
+        }
+
+    }
+
+}
@@ -0,0 +1,140 @@
+package org.mycore.mets.validator.stream;
+
+import java.util.BitSet;
+
+import org.mycore.mets.validator.IdTable;
+import org.mycore.mets.validator.validators.LogicalStructMapValidator;
+
+/**
+ * Streaming version of the {@link LogicalStructMapValidator}.
+ */
+public class LogicalStructMapStreamValidator extends StreamValidator {
+
+    private final IdTable ids = new IdTable();
+
+    /** Depths of the currently open divs below the root div. */
+    private final BitSet divs = new BitSet();
+
+    /** Depths of the open divs whose first mets:fptr was already read. */
+    private final BitSet fptrFound = new BitSet();
+
+    private boolean structMapFound;
+
+    private boolean inStructMap;
+
+    private boolean rootFound;
+
+    private boolean inRoot;
+
+    private int fptrDepth = -1;
+
+    private boolean seqFound;
+
+    private boolean inSeq;
+
+    private int areas;
+
+    @Override
+    public void startElement(StreamContext context) {
+        int depth = context.getDepth();
+        if (depth == 2 && !structMapFound && context.is("structMap")
+            && "LOGICAL".equals(context.getAttribute("TYPE"))) {
+            structMapFound = true;
+            inStructMap = true;
+        } else if (inStructMap && !rootFound && context.is("div", 3)) {
+            rootFound = true;
+            inRoot = true;
+            checkTypeAndLabel(context);
+        } else if (inRoot && depth > 3) {
+            startInRoot(context, depth);
+        }
+    }
+
+    private void startInRoot(StreamContext context, int depth) {
+        if (context.is("div")) {
+            divs.set(depth);
+            fptrFound.clear(depth);
+            String id = context.getAttribute("ID");
+            if (id == null) {
+                fail(context, "Missing @ID attribute.");
+            } else if (!ids.add(id)) {
+                fail(context, "Duplicate @ID " + id + ". ID's have to be unique in logical structmap.");
+            } else {
+                checkTypeAndLabel(context);
+            }
+        } else if (fptrDepth == -1 && divs.get(depth - 1) && !fptrFound.get(depth - 1) && context.is("fptr")) {
+            fptrFound.set(depth - 1);
+            fptrDepth = depth;
+            seqFound = false;
+        } else if (fptrDepth != -1 && !seqFound && context.is("seq", fptrDepth + 1)) {
+            seqFound = true;
+            inSeq = true;
+            areas = 0;
+        } else if (inSeq && context.is("area", fptrDepth + 2)) {
+            areas++;
+            checkArea(context);
+        }
+    }
+
+    private void checkTypeAndLabel(StreamContext context) {
+        if (context.getAttribute("TYPE") == null) {
+            fail(context, "Missing @TYPE attribute.");
+            return;
+        }
+        String label = context.getAttribute("LABEL");
+        if (label != null && label.isEmpty()) {
+            fail(context, "div LABEL is present but empty!");
+        }
+    }
+
+    private void checkArea(StreamContext context) {
+        if (context.getAttribute("FILEID") == null) {
+            fail(context, "Missing @FILEID attribute.");
+            return;
+        }
+        String beType = context.getAttribute("BETYPE");
+        if (beType != null) {
+            if (!beType.equals("IDREF")) {
+                fail(context, "@BETYPE should be 'IDREF' and not '" + beType + "'");
+            } else if (context.getAttribute("BEGIN") == null) {
+                fail(context, "Missing @BEGIN attribute.");
+            } else if (context.getAttribute("END") == null) {
+                fail(context, "Missing @END attribute.");
+            }
+        }
+    }
+
+    @Override
+    public void endElement(StreamContext context) {
+        int depth = context.getDepth();
+        divs.clear(depth);
+        if (inSeq && depth == fptrDepth + 1) {
+            inSeq = false;
+            if (areas == 0) {
+                fail(context, "seq should contain at least one 'area' element.");
+            }
+        } else if (depth == fptrDepth) {
+            fptrDepth = -1;
+            if (!seqFound) {
+                fail(context, "Missing 'seq' element.");
+            }
+        } else if (inRoot && depth == 3) {
+            inRoot = false;
+        } else if (inStructMap && depth == 2) {
+            inStructMap = false;
+            if (!rootFound) {
+                fail(context, "Missing 'div' element.");
+            }
+        }
+    }
+
+    @Override
+    public void endDocument(StreamContext context) {
+        if (!structMapFound) {
+            StreamIndex index = context.getIndex();
+            fail("Missing <mets:structMap[@TYPE='LOGICAL']> element.", index.getMetsLine(),
+                index.getMetsLocation());
+        }
+    }
+
+}
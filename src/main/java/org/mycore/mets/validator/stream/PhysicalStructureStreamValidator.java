@@ -0,0 +1,84 @@
+package org.mycore.mets.validator.stream;
+
+import org.mycore.mets.validator.validators.PhysicalStructureValidator;
+
+/**
+ * Streaming version of the {@link PhysicalStructureValidator}.
+ */
+public class PhysicalStructureStreamValidator extends StreamValidator {
+
+    private boolean structMapFound;
+
+    private boolean inStructMap;
+
+    private boolean physSequenceFound;
+
+    private boolean inPhysSequence;
+
+    private int pages;
+
+    private boolean inPage;
+
+    private int fptrs;
+
+    @Override
+    public void startElement(StreamContext context) {
+        int depth = context.getDepth();
+        if (depth == 2 && !structMapFound && context.is("structMap")
+            && "PHYSICAL".equals(context.getAttribute("TYPE"))) {
+            structMapFound = true;
+            inStructMap = true;
+        } else if (inStructMap && !physSequenceFound && context.is("div", 3)) {
+            physSequenceFound = true;
+            inPhysSequence = true;
+            if (!"physSequence".equals(context.getAttribute("TYPE"))) {
+                fail(context, "Missing or invalid @TYPE attribute. Should be @TYPE='physSequence'.");
+            }
+        } else if (inPhysSequence && context.is("div", 4)) {
+            pages++;
+            inPage = true;
+            fptrs = 0;
+            if (!"page".equals(context.getAttribute("TYPE"))) {
+                fail(context, "Invalid @TYPE attribute. Should be @TYPE='page'.");
+            } else if (context.getAttribute("ID") == null) {
+                fail(context, "div requires @ID attribute.");
+            }
+        } else if (inPage && context.is("fptr", 5)) {
+            fptrs++;
+            if (context.getAttribute("FILEID") == null) {
+                fail(context, "fptr requires @FILEID attribute.");
+            }
+        }
+    }
+
+    @Override
+    public void endElement(StreamContext context) {
+        int depth = context.getDepth();
+        if (inPage && depth == 4) {
+            inPage = false;
+            if (fptrs == 0) {
+                fail(context, "div should contain at least one mets:fptr @FILEID element.");
+            }
+        } else if (inPhysSequence && depth == 3) {
+            inPhysSequence = false;
+            if (pages == 0) {
+                fail(context, "mets:div TYPE='physSequence' should have at least one page.");
+            }
+        } else if (inStructMap && depth == 2) {
+            inStructMap = false;
+            if (!physSequenceFound) {
+                fail(context,
+                    "Physical struct map should contain sourrounding mets:div TYPE='physSequence' element.");
+            }
+        }
+    }
+
+    @Override
+    public void endDocument(StreamContext context) {
+        if (!structMapFound) {
+            StreamIndex index = context.getIndex();
+            fail("Missing mets:structMap TYPE='PHYSICAL' element.", index.getMetsLine(), index.getMetsLocation());
+        }
+    }
+
+}
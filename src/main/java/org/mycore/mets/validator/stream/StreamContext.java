@@ -0,0 +1,205 @@
+package org.mycore.mets.validator.stream;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamReader;
+
+import org.jdom2.Namespace;
+import org.mycore.mets.validator.ValidatorUtil;
+
+/**
+ * Current position of a {@link StreamingMETSValidator} run. Gives stream validators access
+ * to the element the reader is positioned on, its depth and its start line, and to the
+ * {@link StreamIndex} of the document read so far.
+ * <p>
+ * Only the ancestors of the current element are kept, so the memory needed does not depend
+ * on the size of the document.
+ */
+public class StreamContext {
+
+    private final XMLStreamReader reader;
+
+    private final StreamIndex index;
+
+    private final List<Frame> stack = new ArrayList<>();
+
+    private int depth;
+
+    StreamContext(XMLStreamReader reader, StreamIndex index) {
+        this.reader = reader;
+        this.index = index;
+    }
+
+    void push() {
+        Frame parent = depth > 0 ? stack.get(depth - 1) : null;
+        if (stack.size() == depth) {
+            stack.add(new Frame());
+        }
+        Frame frame = stack.get(depth++);
+        frame.namespaceURI = reader.getNamespaceURI();
+        frame.localName = reader.getLocalName();
+        frame.prefix = reader.getPrefix();
+        frame.line = reader.getLocation().getLineNumber();
+        frame.id = reader.getAttributeValue(null, "ID");
+        frame.position = parent != null ? parent.nextPosition(frame.prefix, frame.localName) : 1;
+        frame.childPositions.clear();
+    }
+
+    void pop() {
+        depth--;
+    }
+
+    /**
+     * Returns the underlying reader, positioned on the current start or end element.
+     *
+     * @return the stream reader
+     */
+    public XMLStreamReader getReader() {
+        return reader;
+    }
+
+    /**
+     * Returns the index of the document read so far.
+     *
+     * @return the stream index
+     */
+    public StreamIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the depth of the current element, the mets:mets root element has depth 1.
+     *
+     * @return depth of the current element
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Checks if the current element is the METS element with the given local name.
+     *
+     * @param localName local name of the element
+     * @return true if the current element matches
+     */
+    public boolean is(String localName) {
+        Frame frame = stack.get(depth - 1);
+        return localName.equals(frame.localName) && ValidatorUtil.METS.getURI().equals(frame.namespaceURI);
+    }
+
+    /**
+     * Checks if the current element is the METS element with the given local name at the given depth.
+     *
+     * @param localName local name of the element
+     * @param atDepth the expected depth
+     * @return true if the current element matches
+     */
+    public boolean is(String localName, int atDepth) {
+        return depth == atDepth && is(localName);
+    }
+
+    /**
+     * Returns the value of the attribute without namespace. Only valid on start elements.
+     *
+     * @param name name of the attribute
+     * @return the attribute value or null
+     */
+    public String getAttribute(String name) {
+        return reader.getAttributeValue(null, name);
+    }
+
+    /**
+     * Returns the value of the attribute in the given namespace. Only valid on start elements.
+     *
+     * @param name name of the attribute
+     * @param namespace namespace of the attribute
+     * @return the attribute value or null
+     */
+    public String getAttribute(String name, Namespace namespace) {
+        return reader.getAttributeValue(namespace.getURI(), name);
+    }
+
+    /**
+     * Returns the line of the start tag of the current element. This is also valid on the
+     * end element, where the reader itself would report the line of the end tag.
+     *
+     * @return the line number
+     */
+    public int getLine() {
+        return getLine(depth);
+    }
+
+    /**
+     * Returns the line of the start tag of the ancestor at the given depth.
+     *
+     * @param atDepth depth of the ancestor, the current element has {@link #getDepth()}
+     * @return the line number
+     */
+    public int getLine(int atDepth) {
+        return stack.get(atDepth - 1).line;
+    }
+
+    /**
+     * Returns an XPath like location of the current element. Elements with an @ID attribute
+     * are identified by their ID, all others by their position among the equally named
+     * siblings read so far. The first sibling has no position predicate.
+     *
+     * @return the location
+     */
+    public String getLocation() {
+        return getLocation(depth);
+    }
+
+    /**
+     * Returns an XPath like location of the ancestor at the given depth.
+     *
+     * @param atDepth depth of the ancestor, the current element has {@link #getDepth()}
+     * @return the location
+     */
+    public String getLocation(int atDepth) {
+        StringBuilder location = new StringBuilder();
+        for (int i = 0; i < atDepth; i++) {
+            Frame frame = stack.get(i);
+            location.append('/');
+            if (frame.prefix != null && !frame.prefix.isEmpty()) {
+                location.append(frame.prefix).append(':');
+            }
+            location.append(frame.localName);
+            if (frame.id != null) {
+                location.append("[@ID='").append(frame.id).append("']");
+            } else if (frame.position > 1) {
+                location.append('[').append(frame.position).append(']');
+            }
+        }
+        return location.toString();
+    }
+
+    /**
+     * One element of the current ancestor path.
+     */
+    private static final class Frame {
+
+        private final Map<String, Integer> childPositions = new HashMap<>();
+
+        private String namespaceURI;
+
+        private String localName;
+
+        private String prefix;
+
+        private String id;
+
+        private int line;
+
+        private int position;
+
+        int nextPosition(String childPrefix, String childName) {
+            return childPositions.merge(childPrefix + ':' + childName, 1, Integer::sum);
+        }
+
+    }
+
+}
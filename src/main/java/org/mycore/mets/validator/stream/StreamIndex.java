@@ -0,0 +1,303 @@
+package org.mycore.mets.validator.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.mycore.mets.validator.IdSet;
+import org.mycore.mets.validator.IdTable;
+import org.mycore.mets.validator.SmLinkTable;
+import org.mycore.mets.validator.ValidatorUtil;
+
+/**
+ * The streaming counterpart of the {@link org.mycore.mets.validator.validators.ValidationContext}
+ * indexes. Collects the IDs needed for cross reference checks while the document is read. Apart
+ * from these ID sets nothing of the document is kept.
+ * <p>
+ * The logical divs are stored in document order together with the index of their parent div,
+ * which is enough to answer whether a div has a linked descendant after the smLinks are read.
+ * <p>
+ * The parser creates a new string for every attribute value, so an ID which appears as page ID
+ * and in several smLinks would be kept several times. All IDs are interned into one
+ * {@link IdTable} instead and the sets and links only store ints.
+ */
+public class StreamIndex {
+
+    private static final int OTHER = 0;
+
+    private static final int PHYSICAL_DIV = 1;
+
+    private static final int LOGICAL_DIV = 2;
+
+    private static final int LOGICAL_FPTR = 3;
+
+    private static final int LOGICAL_SEQ = 4;
+
+    private static final int PHYSICAL_STRUCT_MAP = 5;
+
+    private static final int LOGICAL_STRUCT_MAP = 6;
+
+    private static final int STRUCT_LINK = 7;
+
+    private int[] kinds = new int[16];
+
+    private int[] logicalDivIndexes = new int[16];
+
+    private int metsLine = -1;
+
+    private String metsLocation;
+
+    private boolean physicalStructMapFound;
+
+    private int physicalStructMapLine = -1;
+
+    private String physicalStructMapLocation;
+
+    private boolean physSequenceFound;
+
+    private boolean logicalStructMapFound;
+
+    private final IdTable ids = new IdTable(1024);
+
+    private final IdSet physicalIds = new IdSet(ids);
+
+    private final IdSet logicalIds = new IdSet(ids);
+
+    /** The int of the ID of each logical div in document order, -1 if the div has no ID. */
+    private int[] logicalDivIds = new int[1024];
+
+    private int[] logicalParents = new int[1024];
+
+    private int logicalDivCount;
+
+    private final IdSet logicalAreaFileIds = new IdSet(ids);
+
+    private final SmLinkTable.Builder smLinkBuilder = new SmLinkTable.Builder(ids);
+
+    private SmLinkTable smLinks;
+
+    private final IdSet linkedPhysicalIds = new IdSet(ids);
+
+    void startElement(StreamContext context) {
+        int depth = context.getDepth();
+        ensureCapacity(depth);
+        int parentKind = depth > 1 ? kinds[depth - 1] : OTHER;
+        int kind = OTHER;
+        if (depth == 1) {
+            metsLine = context.getLine();
+            metsLocation = context.getLocation();
+        } else if (depth == 2) {
+            kind = startSection(context);
+        } else if (context.is("div")) {
+            if (parentKind == PHYSICAL_STRUCT_MAP && !physSequenceFound) {
+                physSequenceFound = true;
+                kind = PHYSICAL_DIV;
+            } else if (parentKind == PHYSICAL_DIV) {
+                addIfPresent(physicalIds, context.getAttribute("ID"));
+                kind = PHYSICAL_DIV;
+            } else if (parentKind == LOGICAL_STRUCT_MAP || parentKind == LOGICAL_DIV) {
+                addLogicalDiv(context.getAttribute("ID"), parentKind == LOGICAL_DIV ? logicalDivIndexes[depth - 1]
+                    : -1);
+                logicalDivIndexes[depth] = logicalDivCount - 1;
+                kind = LOGICAL_DIV;
+            }
+        } else if (parentKind == LOGICAL_DIV && context.is("fptr")) {
+            kind = LOGICAL_FPTR;
+        } else if (parentKind == LOGICAL_FPTR && context.is("seq")) {
+            kind = LOGICAL_SEQ;
+        } else if (parentKind == LOGICAL_SEQ && context.is("area")) {
+            addIfPresent(logicalAreaFileIds, context.getAttribute("FILEID"));
+        } else if (parentKind == STRUCT_LINK && context.is("smLink")) {
+            String from = context.getAttribute("from", ValidatorUtil.XLINK);
+            String to = context.getAttribute("to", ValidatorUtil.XLINK);
+            if (from != null && !from.isEmpty() && to != null && !to.isEmpty()) {
+                smLinkBuilder.add(from, to);
+                smLinks = null;
+                linkedPhysicalIds.add(to);
+            }
+        }
+        kinds[depth] = kind;
+    }
+
+    private int startSection(StreamContext context) {
+        if (context.is("structMap")) {
+            String type = context.getAttribute("TYPE");
+            if ("PHYSICAL".equals(type) && !physicalStructMapFound) {
+                physicalStructMapFound = true;
+                physicalStructMapLine = context.getLine();
+                physicalStructMapLocation = context.getLocation();
+                return PHYSICAL_STRUCT_MAP;
+            }
+            if ("LOGICAL".equals(type) && !logicalStructMapFound) {
+                logicalStructMapFound = true;
+                return LOGICAL_STRUCT_MAP;
+            }
+        } else if (context.is("structLink")) {
+            return STRUCT_LINK;
+        }
+        return OTHER;
+    }
+
+    private void addLogicalDiv(String id, int parent) {
+        int index = logicalDivCount++;
+        if (index == logicalParents.length) {
+            logicalParents = Arrays.copyOf(logicalParents, index * 2);
+            logicalDivIds = Arrays.copyOf(logicalDivIds, index * 2);
+        }
+        logicalParents[index] = parent;
+        logicalDivIds[index] = id != null && !id.isEmpty() ? ids.intern(id) : -1;
+        addIfPresent(logicalIds, id);
+    }
+
+    private void ensureCapacity(int depth) {
+        if (depth >= kinds.length) {
+            kinds = Arrays.copyOf(kinds, depth * 2);
+            logicalDivIndexes = Arrays.copyOf(logicalDivIndexes, depth * 2);
+        }
+    }
+
+    private static void addIfPresent(Set<String> set, String value) {
+        if (value != null && !value.isEmpty()) {
+            set.add(value);
+        }
+    }
+
+    /**
+     * Returns the line of the mets:mets root element.
+     *
+     * @return the line number
+     */
+    public int getMetsLine() {
+        return metsLine;
+    }
+
+    /**
+     * Returns the location of the mets:mets root element.
+     *
+     * @return the location
+     */
+    public String getMetsLocation() {
+        return metsLocation;
+    }
+
+    /**
+     * Checks if a structMap[@TYPE='PHYSICAL'] was read.
+     *
+     * @return true if there is a physical struct map
+     */
+    public boolean hasPhysicalStructMap() {
+        return physicalStructMapFound;
+    }
+
+    /**
+     * Returns the line of the first physical struct map.
+     *
+     * @return the line number or -1
+     */
+    public int getPhysicalStructMapLine() {
+        return physicalStructMapLine;
+    }
+
+    /**
+     * Returns the location of the first physical struct map.
+     *
+     * @return the location or null
+     */
+    public String getPhysicalStructMapLocation() {
+        return physicalStructMapLocation;
+    }
+
+    /**
+     * Checks if the physical struct map has a surrounding div.
+     *
+     * @return true if there is a physSequence div
+     */
+    public boolean hasPhysSequence() {
+        return physSequenceFound;
+    }
+
+    /**
+     * Returns the IDs of all divs below the physSequence div.
+     *
+     * @return set of physical IDs in document order
+     */
+    public Set<String> getPhysicalIds() {
+        return Collections.unmodifiableSet(physicalIds);
+    }
+
+    /**
+     * Returns the IDs of all divs of the logical struct map.
+     *
+     * @return set of logical IDs in document order
+     */
+    public Set<String> getLogicalIds() {
+        return Collections.unmodifiableSet(logicalIds);
+    }
+
+    /**
+     * Returns all @FILEID values of mets:area elements in the logical struct map.
+     *
+     * @return set of file IDs referenced by logical areas
+     */
+    public Set<String> getLogicalAreaFileIds() {
+        return Collections.unmodifiableSet(logicalAreaFileIds);
+    }
+
+    /**
+     * Returns the smLinks as map from logical ID (xlink:from) to the set of physical IDs (xlink:to).
+     *
+     * @return the smLink multimap
+     */
+    public Map<String, Set<String>> getSmLinks() {
+        return smLinks();
+    }
+
+    private SmLinkTable smLinks() {
+        if (smLinks == null) {
+            smLinks = smLinkBuilder.build();
+        }
+        return smLinks;
+    }
+
+    /**
+     * Returns all physical IDs referenced by an smLink (xlink:to).
+     *
+     * @return set of linked physical IDs
+     */
+    public Set<String> getLinkedPhysicalIds() {
+        return Collections.unmodifiableSet(linkedPhysicalIds);
+    }
+
+    /**
+     * Returns the IDs of all logical divs which are neither linked themselves nor have a linked
+     * descendant. Only meaningful after the whole document was read.
+     *
+     * @return the unlinked logical IDs in document order
+     */
+    public List<String> getUnlinkedLogicalIds() {
+        SmLinkTable links = smLinks();
+        int size = logicalDivCount;
+        BitSet covered = new BitSet(size);
+        // children always follow their parent in document order, so a reverse pass is a post order pass
+        for (int i = size - 1; i >= 0; i--) {
+            if ((covered.get(i) || links.hasLinks(logicalDivIds[i])) && logicalParents[i] >= 0) {
+                covered.set(logicalParents[i]);
+            }
+        }
+        List<String> unlinked = new ArrayList<>();
+        BitSet reported = new BitSet();
+        for (int i = 0; i < size; i++) {
+            int id = logicalDivIds[i];
+            if (id >= 0 && !covered.get(i) && !links.hasLinks(id) && !reported.get(id)) {
+                reported.set(id);
+                unlinked.add(ids.get(id));
+            }
+        }
+        return unlinked;
+    }
+
+}
@@ -0,0 +1,108 @@
+package org.mycore.mets.validator.stream;
+
+import java.util.Set;
+
+import org.mycore.mets.validator.validators.ValidationException;
+
+/**
+ * Base class for validators of the {@link StreamingMETSValidator}. Instead of getting the whole
+ * document, a stream validator is notified about every start and end element and about the end
+ * of the document. Like a {@link org.mycore.mets.validator.validators.Validator} it reports only
+ * the first error it finds, after that it is not notified anymore.
+ * <p>
+ * Stream validators keep state while the document is read, so a new instance is required for
+ * every document.
+ */
+public abstract class StreamValidator {
+
+    private ValidationException error;
+
+    /**
+     * Called for every start element. The reader of the context is positioned on the start element.
+     *
+     * @param context the stream context
+     */
+    public void startElement(StreamContext context) {
+    }
+
+    /**
+     * Called for every end element.
+     *
+     * @param context the stream context
+     */
+    public void endElement(StreamContext context) {
+    }
+
+    /**
+     * Called after the whole document was read. Checks which require the complete document,
+     * like cross reference checks, are done here.
+     *
+     * @param context the stream context
+     */
+    public void endDocument(StreamContext context) {
+    }
+
+    /**
+     * Returns the stream validators which have to succeed for this one to report an error, like
+     * {@link org.mycore.mets.validator.validators.Validator#getPrerequisites()}. This validator is
+     * not notified anymore once one of them failed.
+     *
+     * @return the classes of the prerequisites, none by default
+     */
+    public Set<Class<? extends StreamValidator>> getPrerequisites() {
+        return Set.of();
+    }
+
+    /**
+     * Returns the first error found by this validator.
+     *
+     * @return the error or null if the document is valid
+     */
+    public ValidationException getError() {
+        return error;
+    }
+
+    /**
+     * Checks if this validator already found an error.
+     *
+     * @return true if an error was found
+     */
+    public boolean hasFailed() {
+        return error != null;
+    }
+
+    /**
+     * Reports an error at the current element of the context.
+     *
+     * @param context the stream context
+     * @param message message of what went wrong
+     */
+    protected void fail(StreamContext context, String message) {
+        fail(message, context.getLine(), context.getLocation());
+    }
+
+    /**
+     * Reports an error at the given line and location.
+     *
+     * @param message message of what went wrong
+     * @param line the line number or -1 if unknown
+     * @param location XPath like location or null if unknown
+     */
+    protected void fail(String message, int line, String location) {
+        if (error == null) {
+            error = new ValidationException(message, line, location);
+        }
+    }
+
+    /**
+     * Reports an error without a position.
+     *
+     * @param message message of what went wrong
+     */
+    protected void fail(String message) {
+        if (error == null) {
+            error = new ValidationException(message);
+        }
+    }
+
+}
@@ -0,0 +1,219 @@
+package org.mycore.mets.validator.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.mycore.mets.validator.METSValidator;
+import org.mycore.mets.validator.MappedFileInput;
+import org.mycore.mets.validator.ValidatorGraph;
+import org.mycore.mets.validator.validators.ValidationException;
+
+/**
+ * Validates a METS document while it is read with an {@link XMLStreamReader}, without building
+ * a JDOM tree. The memory needed is bounded by the ID sets of the {@link StreamIndex}, which makes
+ * this the choice for METS files that are too large for the {@link METSValidator}.
+ * <p>
+ * The default stream validators implement the checks of the default structure validators of the
+ * {@link METSValidator} and report the same errors with the same line numbers. There is no
+ * schema validation. The {@link AltoStreamValidator} can be added like the
+ * {@link org.mycore.mets.validator.validators.AltoValidator}:
+ *
+ * <pre>
+ * StreamingMETSValidator validator = new StreamingMETSValidator(inputStream);
+ * validator.getValidators().add(new AltoStreamValidator());
+ * List&lt;ValidationException&gt; errors = validator.validate();
+ * </pre>
+ */
+public class StreamingMETSValidator {
+
+    /** StAX factories are not guaranteed to be thread safe, so there is one per thread. */
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY = ThreadLocal
+        .withInitial(() -> createInputFactory(true));
+
+    /** Factories which do not read DTDs, for {@link #setDisallowDoctype(boolean)}. */
+    private static final ThreadLocal<XMLInputFactory> NO_DTD_INPUT_FACTORY = ThreadLocal
+        .withInitial(() -> createInputFactory(false));
+
+    private final InputStream inputStream;
+
+    /** Whether the stream was opened by this validator and is closed by {@link #validate()}. */
+    private final boolean closeInput;
+
+    private final List<StreamValidator> validatorList;
+
+    private boolean disallowDoctype;
+
+    /**
+     * Creates a new streaming validator for the given input stream. The stream is read by
+     * {@link #validate()} and not closed.
+     *
+     * @param is the input stream to validate
+     */
+    public StreamingMETSValidator(InputStream is) {
+        this(is, false);
+    }
+
+    /**
+     * Creates a new streaming validator for the given file. A local file is memory mapped, an
+     * entry of an archive is streamed, see {@link MappedFileInput#newInputStream(Path)}. The file
+     * is closed by {@link #validate()}.
+     *
+     * @param path the file to validate
+     * @throws IOException if the file cannot be read
+     */
+    public StreamingMETSValidator(Path path) throws IOException {
+        this(MappedFileInput.newInputStream(path), true);
+    }
+
+    private StreamingMETSValidator(InputStream is, boolean closeInput) {
+        this.inputStream = is;
+        this.closeInput = closeInput;
+        this.validatorList = new ArrayList<>();
+        this.addDefaultValidators();
+    }
+
+    /**
+     * Adds the default set of stream validators.
+     */
+    public void addDefaultValidators() {
+        validatorList.add(new FileSectionStreamValidator());
+        validatorList.add(new PhysicalStructureStreamValidator());
+        validatorList.add(new LogicalStructMapStreamValidator());
+        validatorList.add(new StructLinkStreamValidator());
+    }
+
+    /**
+     * List of all stream validators which should be used in the validation process.
+     *
+     * @return list of stream validators
+     */
+    public List<StreamValidator> getValidators() {
+        return this.validatorList;
+    }
+
+    /**
+     * Sets whether documents with a doctype declaration are rejected. The DTD is then neither
+     * read nor processed, which protects against requests to external DTDs and entity expansion
+     * in untrusted input. By default doctypes are allowed, external entities are never resolved.
+     *
+     * @param disallow true to reject doctype declarations
+     */
+    public void setDisallowDoctype(boolean disallow) {
+        this.disallowDoctype = disallow;
+    }
+
+    /**
+     * Reads the document and does the validation. Can only be called once. If the file of a
+     * {@link #StreamingMETSValidator(Path) path} cannot be closed after it was read completely,
+     * the failure is added to the returned errors, so the result of the document is kept.
+     *
+     * @return A list of validation exceptions. This list is empty when everything is fine.
+     * @throws XMLStreamException if the document is not well-formed or cannot be read, or it has a
+     * doctype declaration which is disallowed
+     */
+    public List<ValidationException> validate() throws XMLStreamException {
+        ValidatorGraph<StreamValidator> graph = new ValidatorGraph<>(validatorList,
+            StreamValidator::getPrerequisites);
+        if (!closeInput) {
+            return validate(graph);
+        }
+        List<ValidationException> errorList = null;
+        try (this.inputStream) {
+            errorList = validate(graph);
+        } catch (IOException ioException) {
+            // only close throws an IOException, the document was validated
+            errorList.add(new ValidationException("The input could not be closed: " + ioException.getMessage(),
+                ioException));
+        }
+        return errorList;
+    }
+
+    private List<ValidationException> validate(ValidatorGraph<StreamValidator> graph) throws XMLStreamException {
+        List<StreamValidator> validators = graph.getValidators();
+        // validators which failed or whose prerequisites failed are not notified anymore
+        boolean[] failed = new boolean[validators.size()];
+        boolean[] stopped = new boolean[validators.size()];
+        XMLStreamReader reader = (disallowDoctype ? NO_DTD_INPUT_FACTORY : INPUT_FACTORY).get()
+            .createXMLStreamReader(inputStream);
+        StreamIndex index = new StreamIndex();
+        StreamContext context = new StreamContext(reader, index);
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    context.push();
+                    index.startElement(context);
+                    for (int i = 0; i < validators.size(); i++) {
+                        if (!stopped[i]) {
+                            validators.get(i).startElement(context);
+                            stop(graph, i, failed, stopped);
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    for (int i = 0; i < validators.size(); i++) {
+                        if (!stopped[i]) {
+                            validators.get(i).endElement(context);
+                            stop(graph, i, failed, stopped);
+                        }
+                    }
+                    context.pop();
+                } else if (event == XMLStreamConstants.DTD && disallowDoctype) {
+                    throw new XMLStreamException("DOCTYPE is disallowed.", reader.getLocation());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        for (int i : graph.getOrder(null)) {
+            if (graph.getFailedPrerequisite(i, failed) >= 0) {
+                failed[i] = false;
+            } else if (!stopped[i]) {
+                validators.get(i).endDocument(context);
+                failed[i] = validators.get(i).hasFailed();
+            }
+        }
+        List<ValidationException> errorList = new ArrayList<>();
+        for (int i = 0; i < validators.size(); i++) {
+            if (failed[i]) {
+                errorList.add(validators.get(i).getError());
+            }
+        }
+        return errorList;
+    }
+
+    /**
+     * Stops the validator if it failed, and its dependents. A dependent which failed before its
+     * prerequisite is dropped at the end of the document.
+     */
+    private static void stop(ValidatorGraph<StreamValidator> graph, int index, boolean[] failed,
+        boolean[] stopped) {
+        if (!graph.getValidators().get(index).hasFailed()) {
+            return;
+        }
+        failed[index] = true;
+        stopped[index] = true;
+        for (int i = 0; i < graph.size(); i++) {
+            if (!stopped[i] && graph.getFailedPrerequisite(i, failed) >= 0) {
+                stopped[i] = true;
+            }
+        }
+    }
+
+    private static XMLInputFactory createInputFactory(boolean supportDtd) {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, supportDtd);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+}
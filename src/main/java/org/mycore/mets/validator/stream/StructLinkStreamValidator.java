@@ -0,0 +1,104 @@
+package org.mycore.mets.validator.stream;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.mycore.mets.validator.ValidatorUtil;
+import org.mycore.mets.validator.validators.StructLinkValidator;
+
+/**
+ * Streaming version of the {@link StructLinkValidator}. The cross reference checks are done
+ * on the {@link StreamIndex} when the document ends.
+ */
+public class StructLinkStreamValidator extends StreamValidator {
+
+    private boolean structLinkFound;
+
+    private boolean inStructLink;
+
+    private int smLinks;
+
+    private int line;
+
+    private String location;
+
+    @Override
+    public void startElement(StreamContext context) {
+        if (!structLinkFound && context.is("structLink", 2)) {
+            structLinkFound = true;
+            inStructLink = true;
+            line = context.getLine();
+            location = context.getLocation();
+            checkPhysicalSequence(context.getIndex());
+        } else if (inStructLink && context.is("smLink", 3)) {
+            smLinks++;
+            checkAttribute(context, "from");
+            checkAttribute(context, "to");
+        }
+    }
+
+    private void checkPhysicalSequence(StreamIndex index) {
+        if (!index.hasPhysicalStructMap()) {
+            fail("Missing mets:structMap TYPE='PHYSICAL' element.", index.getMetsLine(), index.getMetsLocation());
+        } else if (!index.hasPhysSequence()) {
+            fail("Missing 'div' element.", index.getPhysicalStructMapLine(), index.getPhysicalStructMapLocation());
+        }
+    }
+
+    private void checkAttribute(StreamContext context, String name) {
+        String value = context.getAttribute(name, ValidatorUtil.XLINK);
+        if (value == null || value.isEmpty()) {
+            fail(context, "Missing or empty @" + name + " attribute.");
+        }
+    }
+
+    @Override
+    public void endElement(StreamContext context) {
+        if (inStructLink && context.getDepth() == 2) {
+            inStructLink = false;
+            if (smLinks == 0) {
+                fail(context, "structLink should contain at least one 'smLink' element.");
+            }
+        }
+    }
+
+    @Override
+    public void endDocument(StreamContext context) {
+        StreamIndex index = context.getIndex();
+        if (!structLinkFound) {
+            fail("Missing 'structLink' element.", index.getMetsLine(), index.getMetsLocation());
+            return;
+        }
+        check("Some logical elements are not linked: ", index.getUnlinkedLogicalIds());
+        check("Some physical elements are not linked: ", retainMissing(index.getPhysicalIds(),
+            index.getLinkedPhysicalIds()));
+        check("Some linked logical elements does not exist: ", retainMissing(index.getSmLinks().keySet(),
+            index.getLogicalIds()));
+        check("Some linked physical elements does not exist: ", retainMissing(index.getLinkedPhysicalIds(),
+            index.getPhysicalIds()));
+    }
+
+    private void check(String message, List<String> ids) {
+        if (!ids.isEmpty()) {
+            fail(message + ids, line, location);
+        }
+    }
+
+    private List<String> retainMissing(Collection<String> ids, Set<String> set) {
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            if (!set.contains(id)) {
+                missing.add(id);
+            }
+        }
+        return missing;
+    }
+
+    @Override
+    public Set<Class<? extends StreamValidator>> getPrerequisites() {
+        return Set.of(PhysicalStructureStreamValidator.class, LogicalStructMapStreamValidator.class);
+    }
+
+}
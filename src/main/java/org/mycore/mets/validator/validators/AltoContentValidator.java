@@ -0,0 +1,355 @@
+package org.mycore.mets.validator.validators;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.mycore.mets.validator.MappedFileInput;
+import org.mycore.mets.validator.SchemaCache;
+import org.mycore.mets.validator.ValidatorUtil;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Validates the content of the ALTO files. This validator is optional, it has to be added to the
+ * validators like the {@link AltoValidator}. Each <code>mets:FLocat/@xlink:href</code> of the
+ * ALTO file group is resolved against a local base directory and the file is checked:
+ * <ul>
+ * <li>it exists and is inside the base directory</li>
+ * <li>it is well-formed and its root element is <code>alto</code></li>
+ * <li>it is valid against the given ALTO schemas, if any, compiled once by the {@link SchemaCache}</li>
+ * <li>every <code>mets:area/@BEGIN</code> and <code>@END</code> of the logical struct map which
+ * refers to the file is the @ID of an element of the file, and BEGIN does not come after END</li>
+ * </ul>
+ * The files are parsed with SAX, without building a tree, by a fixed number of worker threads.
+ * The issues are reported in the order of the files, independent of the parallelism. Broken
+ * files are reported with the line of the mets:file and the line of the ALTO file in the message.
+ * <p>
+ * The ALTO files are not part of the METS document, so neither the incremental validation nor
+ * the {@link org.mycore.mets.validator.ValidationCache} notice when only they change.
+ *
+ * <pre>
+ * METSValidator validator = new METSValidator(Path.of("package/mets.xml"));
+ * validator.getValidators().add(new AltoContentValidator(Path.of("package"), 4, altoSchemaUrl));
+ * </pre>
+ */
+public class AltoContentValidator implements Validator {
+
+    private final Path baseDirectory;
+
+    private final int parallelism;
+
+    private final URL[] schemaLocations;
+
+    /**
+     * Creates a new AltoContentValidator which checks the files on one worker per available
+     * processor, without schema validation.
+     *
+     * @param baseDirectory the directory the hrefs are relative to
+     */
+    public AltoContentValidator(Path baseDirectory) {
+        this(baseDirectory, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new AltoContentValidator.
+     *
+     * @param baseDirectory the directory the hrefs are relative to
+     * @param parallelism the number of files parsed at the same time
+     * @param schemaLocations the ALTO schemas to validate against, none to only check well-formedness
+     */
+    public AltoContentValidator(Path baseDirectory, int parallelism, URL... schemaLocations) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism has to be at least 1: " + parallelism);
+        }
+        this.baseDirectory = baseDirectory.toAbsolutePath().normalize();
+        this.parallelism = parallelism;
+        this.schemaLocations = schemaLocations.clone();
+    }
+
+    @Override
+    public void validate(Document document) throws ValidationException {
+        validate(new ValidationContext(document));
+    }
+
+    @Override
+    public void validate(ValidationContext context) throws ValidationException {
+        ValidationIssueSink sink = new ValidationIssueSink(1);
+        validate(context, sink);
+        sink.throwFirstError();
+    }
+
+    @Override
+    public void validate(ValidationContext context, ValidationIssueSink sink) {
+        Element mets = context.getMets();
+        // a missing or empty group is reported by the AltoValidator
+        Element altoFileGroup = AltoValidator.getAltoFileGroup(mets);
+        if (altoFileGroup == null) {
+            return;
+        }
+        SAXParserFactory parserFactory;
+        try {
+            parserFactory = createParserFactory();
+        } catch (SAXException | ParserConfigurationException exc) {
+            sink.error("alto.content.schema", "Unable to create the ALTO parser: " + exc.getMessage());
+            return;
+        }
+        Map<String, List<Element>> areasByFileId = getAreasByFileId(mets);
+        List<Element> files = new ArrayList<>();
+        List<Future<AltoFile>> results = new ArrayList<>();
+        ThreadLocal<SAXParser> parsers = new ThreadLocal<>();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            for (Element file : altoFileGroup.getChildren("file", ValidatorUtil.METS)) {
+                Path path = resolve(file, sink);
+                if (path == null) {
+                    continue;
+                }
+                Set<String> ids = getAreaIds(areasByFileId.get(file.getAttributeValue("ID")));
+                files.add(file);
+                results.add(executor.submit(() -> parse(path, ids, parserFactory, parsers)));
+            }
+            for (int i = 0; i < files.size() && !sink.isFull(); i++) {
+                report(files.get(i), results.get(i).get(), areasByFileId, sink);
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            sink.error("alto.content.interrupted", "The validation of the ALTO files was interrupted.");
+        } catch (ExecutionException executionException) {
+            if (executionException.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(executionException.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SAXParserFactory createParserFactory() throws SAXException, ParserConfigurationException {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        if (schemaLocations.length > 0) {
+            factory.setSchema(SchemaCache.getSchema(schemaLocations));
+        }
+        return factory;
+    }
+
+    /**
+     * Returns the areas of the logical struct map with BEGIN and END IDREFs, by their FILEID.
+     */
+    private Map<String, List<Element>> getAreasByFileId(Element mets) {
+        Map<String, List<Element>> areasByFileId = new HashMap<>();
+        Element logicalStructMap = ValidatorUtil.getLogicalStructMap(mets);
+        if (logicalStructMap == null) {
+            return areasByFileId;
+        }
+        for (Element area : logicalStructMap.getDescendants(Filters.element("area", ValidatorUtil.METS))) {
+            String fileId = area.getAttributeValue("FILEID");
+            if (fileId != null && "IDREF".equals(area.getAttributeValue("BETYPE"))) {
+                areasByFileId.computeIfAbsent(fileId, k -> new ArrayList<>()).add(area);
+            }
+        }
+        return areasByFileId;
+    }
+
+    private static Set<String> getAreaIds(List<Element> areas) {
+        if (areas == null) {
+            return Set.of();
+        }
+        Set<String> ids = new HashSet<>();
+        for (Element area : areas) {
+            addIfPresent(ids, area.getAttributeValue("BEGIN"));
+            addIfPresent(ids, area.getAttributeValue("END"));
+        }
+        return ids;
+    }
+
+    private static void addIfPresent(Set<String> ids, String id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    /**
+     * Resolves the href of the file against the base directory. Files without a valid href
+     * are skipped, the {@link FileSectionValidator} reports them.
+     *
+     * @return the path or null
+     */
+    private Path resolve(Element file, ValidationIssueSink sink) {
+        Element flocat = file.getChild("FLocat", ValidatorUtil.METS);
+        String href = flocat != null ? flocat.getAttributeValue("href", ValidatorUtil.XLINK) : null;
+        Path path = FileSectionValidator.resolveHref(baseDirectory, href);
+        if (path == null) {
+            return null;
+        }
+        if (!path.startsWith(baseDirectory)) {
+            sink.error("alto.content.outside", file, "ALTO file '" + href + "' is outside of the base directory.");
+            return null;
+        }
+        return path;
+    }
+
+    /**
+     * Parses a single ALTO file. Called by the worker threads.
+     */
+    private AltoFile parse(Path path, Set<String> ids, SAXParserFactory parserFactory,
+        ThreadLocal<SAXParser> parsers) throws SAXException, ParserConfigurationException {
+        AltoFile altoFile = new AltoFile(ids);
+        SAXParser parser = parsers.get();
+        if (parser == null) {
+            parser = parserFactory.newSAXParser();
+            parsers.set(parser);
+        } else {
+            parser.reset();
+        }
+        try (InputStream in = MappedFileInput.newInputStream(path)) {
+            InputSource source = new InputSource(in);
+            source.setSystemId(path.toUri().toString());
+            parser.parse(source, altoFile);
+        } catch (NoSuchFileException noSuchFileException) {
+            altoFile.fail("alto.content.missing", "does not exist");
+        } catch (IOException ioException) {
+            altoFile.fail("alto.content.io", "cannot be read: " + ioException.getMessage());
+        } catch (SAXException saxException) {
+            if (altoFile.code == null) {
+                altoFile.fail("alto.content.malformed", "is not well-formed: " + saxException.getMessage());
+            }
+        }
+        return altoFile;
+    }
+
+    private void report(Element file, AltoFile altoFile, Map<String, List<Element>> areasByFileId,
+        ValidationIssueSink sink) {
+        String href = file.getChild("FLocat", ValidatorUtil.METS).getAttributeValue("href", ValidatorUtil.XLINK);
+        if (altoFile.code != null) {
+            sink.error(altoFile.code, file, "ALTO file '" + href + "' " + altoFile.message);
+            return;
+        }
+        List<Element> areas = areasByFileId.get(file.getAttributeValue("ID"));
+        if (areas == null) {
+            return;
+        }
+        for (Element area : areas) {
+            if (sink.isFull()) {
+                return;
+            }
+            String begin = area.getAttributeValue("BEGIN");
+            String end = area.getAttributeValue("END");
+            Integer beginPosition = begin != null ? altoFile.positions.get(begin) : null;
+            Integer endPosition = end != null ? altoFile.positions.get(end) : null;
+            if (begin != null && beginPosition == null) {
+                sink.error("alto.area.begin", area, "@BEGIN '" + begin + "' does not exist in ALTO file '"
+                    + href + "'.");
+            }
+            if (end != null && endPosition == null) {
+                sink.error("alto.area.end", area, "@END '" + end + "' does not exist in ALTO file '"
+                    + href + "'.");
+            }
+            if (beginPosition != null && endPosition != null && beginPosition > endPosition) {
+                sink.error("alto.area.order", area, "@BEGIN '" + begin + "' comes after @END '" + end
+                    + "' in ALTO file '" + href + "'.");
+            }
+        }
+    }
+
+    @Override
+    public int getCost() {
+        return 200;
+    }
+
+    @Override
+    public Set<Section> getSections() {
+        return EnumSet.of(Section.FILE_SEC, Section.LOGICAL_STRUCT_MAP);
+    }
+
+    @Override
+    public Set<Class<? extends Validator>> getPrerequisites() {
+        return Set.of(FileSectionValidator.class, AltoValidator.class);
+    }
+
+    @Override
+    public String getFingerprint() {
+        return getClass().getName() + baseDirectory + Arrays.toString(schemaLocations);
+    }
+
+    /**
+     * The result of a single ALTO file, also the SAX handler which collects it. Only the
+     * positions of the IDs used by areas are kept. Parsing stops at the first error.
+     */
+    private static final class AltoFile extends DefaultHandler {
+
+        private final Set<String> ids;
+
+        private final Map<String, Integer> positions = new HashMap<>();
+
+        private int elements;
+
+        private String code;
+
+        private String message;
+
+        AltoFile(Set<String> ids) {
+            this.ids = ids;
+        }
+
+        void fail(String code, String message) {
+            this.code = code;
+            this.message = message;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+            throws SAXException {
+            if (elements++ == 0 && !"alto".equals(localName)) {
+                fail("alto.content.root", "has the root element '" + qName + "' instead of 'alto'.");
+                throw new SAXException(message);
+            }
+            String id = attributes.getValue("ID");
+            if (id != null && ids.contains(id)) {
+                positions.putIfAbsent(id, elements);
+            }
+        }
+
+        @Override
+        public void error(SAXParseException exception) throws SAXException {
+            fail("alto.content.schema", "is not valid: line " + exception.getLineNumber() + ": "
+                + exception.getMessage());
+            throw exception;
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXException {
+            fail("alto.content.malformed", "is not well-formed: line " + exception.getLineNumber() + ": "
+                + exception.getMessage());
+            throw exception;
+        }
+
+    }
+
+}
@@ -1,21 +1,23 @@
 package org.mycore.mets.validator.validators;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 import org.jdom2.Document;
 import org.jdom2.Element;
-import org.jdom2.filter.Filters;
-import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.XPathFactory;
+import org.jdom2.Namespace;
 import org.mycore.mets.validator.METSValidator;
 import org.mycore.mets.validator.ValidatorUtil;
 
 /**
  * Validates the alto parts of a mets xml. This validator is optional. You can add
  * it to the validation process by calling {@link METSValidator#getValidators()}
+ * <p>
+ * The area references of the logical struct map are collected once into a hash set by the
+ * {@link ValidationContext}, every ALTO file ID is then checked against that set. All
+ * unreferenced IDs are reported together.
  * 
  * @author Matthias Eichner
  */
@@ -29,30 +31,70 @@ public class AltoValidator implements Validator {
 
     @Override
     public void validate(Document document) throws ValidationException {
-        Element mets = document.getRootElement();
-        Element altoFileGroup = ValidatorUtil.checkXPath(mets, "./mets:fileSec/mets:fileGrp[@USE='ALTO']",
-            Filters.element());
+        validate(new ValidationContext(document));
+    }
+
+    @Override
+    public void validate(ValidationContext context) throws ValidationException {
+        ValidationIssueSink sink = new ValidationIssueSink(1);
+        validate(context, sink);
+        sink.throwFirstError();
+    }
+
+    @Override
+    public void validate(ValidationContext context, ValidationIssueSink sink) {
+        Element mets = context.getMets();
+        Element altoFileGroup = getAltoFileGroup(mets);
         if (altoFileGroup == null) {
-            throw new ValidationException("mets:fileSec/mets:fileGrp[@USE='ALTO'] does not exist");
+            sink.error("alto.fileGrp.missing", mets, "mets:fileSec/mets:fileGrp[@USE='ALTO'] does not exist");
+            return;
         }
-        List<Element> files = ValidatorUtil.checkElements(altoFileGroup, "file");
-        // get all alto file id's
-        List<String> altoFileIds = new ArrayList<>();
+        List<Element> files = ValidatorUtil.checkElements(altoFileGroup, "file", "alto.fileGrp.empty", sink);
+        // check if all alto file id's are referenced in the logical structure
+        Set<String> referencedIds = context.getLogicalAreaFileIds();
+        List<String> unreferencedIds = new ArrayList<>();
         for (Element file : files) {
-            altoFileIds.add(ValidatorUtil.checkNullAndEmptyAttribute(file, "ID"));
+            String id = ValidatorUtil.checkNullAndEmptyAttribute(file, "ID", Namespace.NO_NAMESPACE,
+                "alto.file.id", sink);
+            if (id != null && !referencedIds.contains(id)) {
+                unreferencedIds.add(id);
+            }
+        }
+        if (unreferencedIds.size() == 1) {
+            sink.error("alto.file.unreferenced", altoFileGroup,
+                "Unable to find the alto id '" + unreferencedIds.get(0) + "' in the logical struct map.");
+        } else if (!unreferencedIds.isEmpty()) {
+            sink.error("alto.file.unreferenced", altoFileGroup,
+                "Unable to find the alto ids " + unreferencedIds + " in the logical struct map.");
+        }
+    }
+
+    static Element getAltoFileGroup(Element mets) {
+        Element fileSec = mets.getChild("fileSec", ValidatorUtil.METS);
+        if (fileSec == null) {
+            return null;
         }
-        // check if they are referenced in the logical structure
-        Element logicalStructMap = ValidatorUtil.getLogicalStructMap(mets);
-        Map<String, Object> variables = new HashMap<>();
-        variables.put("id", null);
-        XPathExpression<Element> idExp = XPathFactory.instance().compile(
-            "./mets:div//mets:fptr/mets:seq/mets:area[@FILEID=$id]", Filters.element(), variables, ValidatorUtil.METS);
-        for (String id : altoFileIds) {
-            idExp.setVariable("id", id);
-            if (idExp.evaluateFirst(logicalStructMap) == null) {
-                throw new ValidationException("Unable to find the alto id '" + id + "' in the logical struct map.");
+        for (Element fileGrp : fileSec.getChildren("fileGrp", ValidatorUtil.METS)) {
+            if ("ALTO".equals(fileGrp.getAttributeValue("USE"))) {
+                return fileGrp;
             }
         }
+        return null;
+    }
+
+    @Override
+    public int getCost() {
+        return 20;
+    }
+
+    @Override
+    public Set<Section> getSections() {
+        return EnumSet.of(Section.FILE_SEC, Section.LOGICAL_STRUCT_MAP);
+    }
+
+    @Override
+    public Set<Class<? extends Validator>> getPrerequisites() {
+        return Set.of(FileSectionValidator.class);
     }
 
 }
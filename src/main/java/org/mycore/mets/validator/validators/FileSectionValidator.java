@@ -2,7 +2,11 @@ package org.mycore.mets.validator.validators;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.jdom2.Document;
 import org.jdom2.Element;
@@ -23,82 +27,137 @@ public class FileSectionValidator implements Validator {
 
     @Override
     public void validate(Document document) throws ValidationException {
-        Element mets = document.getRootElement();
+        validate(new ValidationContext(document));
+    }
+
+    @Override
+    public void validate(ValidationContext context) throws ValidationException {
+        ValidationIssueSink sink = new ValidationIssueSink(1);
+        validate(context, sink);
+        sink.throwFirstError();
+    }
+
+    @Override
+    public void validate(ValidationContext context, ValidationIssueSink sink) {
+        Element mets = context.getMets();
         Element fileSec = mets.getChild("fileSec", ValidatorUtil.METS);
         if (fileSec == null) {
-            throw new ValidationException("No mets:fileSec element.");
+            sink.error("fileSec.missing", "No mets:fileSec element.");
+            return;
         }
         Element masterFileGrp = getFileGroup(fileSec, "MASTER");
         if (masterFileGrp == null && (masterFileGrp = getFileGroup(fileSec, "IVIEW")) == null) {
-            throw new ValidationException("No fileGrp with @USE='MASTER' or @USE='IVIEW'.");
+            sink.error("fileSec.master.missing", "No fileGrp with @USE='MASTER' or @USE='IVIEW'.");
+        } else {
+            validateFileGroup(masterFileGrp, "MASTER", "image/", sink);
         }
-        validateMasterFileGroup(masterFileGrp);
         Element altoFileGrp = getFileGroup(fileSec, "ALTO");
         if (altoFileGrp != null) {
-            validateAltoFileGroup(altoFileGrp);
+            validateFileGroup(altoFileGrp, "ALTO", "/xml", sink);
         }
     }
 
-    private void validateAltoFileGroup(Element altoFileGrp) throws ValidationException {
-        List<Element> files = altoFileGrp.getChildren("file", ValidatorUtil.METS);
+    private void validateFileGroup(Element fileGrp, String use, String expectedMimeType, ValidationIssueSink sink) {
+        List<Element> files = fileGrp.getChildren("file", ValidatorUtil.METS);
         if (files.isEmpty()) {
-            throw new ValidationException("FileGrp[@USE='ALTO'] does not contain any 'mets:file' elements.");
+            sink.error("fileGrp.empty", "FileGrp[@USE='" + use + "'] does not contain any 'mets:file' elements.");
+            return;
         }
+        boolean alto = "ALTO".equals(use);
         for (Element file : files) {
-            validateFileId(file);
-            validateMimeType(file, "/xml");
-            String href = validateFLocat(file);
-            if (!href.startsWith("alto/")) {
-                ValidatorUtil.throwException(file, "alto file is not placed in 'alto/' directory.");
+            if (sink.isFull()) {
+                return;
+            }
+            validateFileId(file, sink);
+            validateMimeType(file, expectedMimeType, sink);
+            String href = validateFLocat(file, sink);
+            if (alto && href != null && !href.startsWith("alto/")) {
+                sink.error("file.alto.directory", file, "alto file is not placed in 'alto/' directory.");
             }
         }
     }
 
-    private void validateMasterFileGroup(Element masterFileGrp) throws ValidationException {
-        List<Element> files = masterFileGrp.getChildren("file", ValidatorUtil.METS);
-        if (files.isEmpty()) {
-            throw new ValidationException("FileGrp[@USE='MASTER'] does not contain any 'mets:file' elements.");
+    /**
+     * Checks the mets:FLocat of the file.
+     *
+     * @return the valid href or null
+     */
+    private String validateFLocat(Element file, ValidationIssueSink sink) {
+        Element flocat = file.getChild("FLocat", ValidatorUtil.METS);
+        if (flocat == null) {
+            sink.error("file.flocat.missing", file, "mets:file has no mets:FLocat element.");
+            return null;
         }
-        for (Element file : files) {
-            validateFileId(file);
-            validateMimeType(file, "image/");
-            validateFLocat(file);
+        String href = flocat.getAttributeValue("href", ValidatorUtil.XLINK);
+        String error = getHrefError(href);
+        if (error != null) {
+            sink.error("file.flocat.href", flocat, error);
+            return null;
         }
+        return href;
     }
 
-    private String validateFLocat(Element file) throws ValidationException {
-        Element flocat = file.getChild("FLocat", ValidatorUtil.METS);
-        if (flocat == null) {
-            ValidatorUtil.throwException(file, "mets:file has no mets:FLocat element.");
+    /**
+     * Checks the @xlink:href of a mets:FLocat, it has to be a valid relative uri.
+     *
+     * @param href the value of the @xlink:href attribute, may be null
+     * @return the error message or null if the href is valid
+     */
+    public static String getHrefError(String href) {
+        if (href == null) {
+            return "invalid @xlink:href uri.";
         }
-        String href = flocat.getAttributeValue("href", ValidatorUtil.XLINK);
-        URI uri = null;
         try {
-            uri = new URI(href);
+            if (new URI(href).isAbsolute()) {
+                return "mets:FLocat should be a relative uri.";
+            }
         } catch (URISyntaxException uriSyntaxException) {
-            ValidatorUtil.throwException(flocat, "invalid @xlink:href uri.");
+            return "invalid @xlink:href uri.";
+        }
+        return null;
+    }
+
+    /**
+     * Resolves the @xlink:href of a mets:FLocat against a local directory.
+     *
+     * @param baseDirectory the absolute and normalized directory the href is relative to
+     * @param href the value of the @xlink:href attribute, may be null
+     * @return the normalized path, or null if the href is not valid; the path may be outside
+     *         the base directory
+     */
+    public static Path resolveHref(Path baseDirectory, String href) {
+        if (getHrefError(href) != null) {
+            return null;
         }
-        if (uri.isAbsolute()) {
-            ValidatorUtil.throwException(flocat, "mets:FLocat should be a relative uri.");
+        String path;
+        try {
+            path = new URI(href).getPath();
+        } catch (URISyntaxException uriSyntaxException) {
+            return null;
+        }
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        try {
+            return baseDirectory.resolve(path).normalize();
+        } catch (InvalidPathException invalidPathException) {
+            return null;
         }
-        return href;
     }
 
-    private void validateMimeType(Element file, String expectedMimeType) throws ValidationException {
+    private void validateMimeType(Element file, String expectedMimeType, ValidationIssueSink sink) {
         String mimeType = file.getAttributeValue("MIMETYPE");
         if (mimeType == null) {
-            ValidatorUtil.throwException(file, "mets:file has no @MIMETYPE.");
-        }
-        if (!mimeType.startsWith(expectedMimeType) && !mimeType.endsWith(expectedMimeType)) {
-            ValidatorUtil.throwException(file, "mets:file has an invalid mimetype. Should start with '"
+            sink.error("file.mimetype.missing", file, "mets:file has no @MIMETYPE.");
+        } else if (!mimeType.startsWith(expectedMimeType) && !mimeType.endsWith(expectedMimeType)) {
+            sink.error("file.mimetype.invalid", file, "mets:file has an invalid mimetype. Should start with '"
                 + expectedMimeType + "' but is '" + mimeType + "'");
         }
     }
 
-    private void validateFileId(Element file) throws ValidationException {
-        String id = file.getAttributeValue("ID");
-        if (id == null) {
-            ValidatorUtil.throwException(file, "mets:file has no @ID.");
+    private void validateFileId(Element file, ValidationIssueSink sink) {
+        if (file.getAttributeValue("ID") == null) {
+            sink.error("file.id.missing", file, "mets:file has no @ID.");
         }
     }
 
@@ -111,4 +170,14 @@ public class FileSectionValidator implements Validator {
         return null;
     }
 
+    @Override
+    public int getCost() {
+        return 10;
+    }
+
+    @Override
+    public Set<Section> getSections() {
+        return EnumSet.of(Section.FILE_SEC);
+    }
+
 }
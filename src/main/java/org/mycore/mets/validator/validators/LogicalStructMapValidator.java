@@ -1,12 +1,14 @@
 package org.mycore.mets.validator.validators;
 
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.filter.ElementFilter;
 import org.jdom2.util.IteratorIterable;
+import org.mycore.mets.validator.IdTable;
 import org.mycore.mets.validator.ValidatorUtil;
 
 /**
@@ -24,48 +26,82 @@ public class LogicalStructMapValidator implements Validator {
 
     @Override
     public void validate(Document document) throws ValidationException {
-        Element mets = document.getRootElement();
+        validate(new ValidationContext(document));
+    }
+
+    @Override
+    public void validate(ValidationContext context) throws ValidationException {
+        ValidationIssueSink sink = new ValidationIssueSink(1);
+        validate(context, sink);
+        sink.throwFirstError();
+    }
+
+    @Override
+    public void validate(ValidationContext context, ValidationIssueSink sink) {
+        Element mets = context.getMets();
         Element logicalStructMap = ValidatorUtil.getLogicalStructMap(mets);
         if (logicalStructMap == null) {
-            ValidatorUtil.throwException(mets, "Missing <mets:structMap[@TYPE='LOGICAL']> element.");
+            sink.error("logical.structMap.missing", mets, "Missing <mets:structMap[@TYPE='LOGICAL']> element.");
+            return;
         }
 
         // check surrounding div
-        Element rootDiv = ValidatorUtil.checkElement(logicalStructMap, "div");
-        ValidatorUtil.checkNullAttribute(rootDiv, "TYPE");
-        ValidatorUtil.checkEmptyAttribute(rootDiv, "LABEL");
+        Element rootDiv = ValidatorUtil.checkElement(logicalStructMap, "div", "logical.div.missing", sink);
+        if (rootDiv == null) {
+            return;
+        }
+        ValidatorUtil.checkNullAttribute(rootDiv, "TYPE", "logical.div.type", sink);
+        ValidatorUtil.checkEmptyAttribute(rootDiv, "LABEL", "logical.div.label", sink);
 
         // check unique id's
-        HashSet<String> ids = new HashSet<>();
+        IdTable ids = new IdTable();
 
         // check all div
         IteratorIterable<Element> divsIterator = rootDiv.getDescendants(new ElementFilter("div",
             ValidatorUtil.METS));
-        while (divsIterator.hasNext()) {
+        while (divsIterator.hasNext() && !sink.isFull()) {
             Element div = divsIterator.next();
-            String id = ValidatorUtil.checkNullAttribute(div, "ID");
-            if(!ids.add(id)) {
-                ValidatorUtil.throwException(div, "Duplicate @ID " + id + ". ID's have to be unique in logical structmap.");
+            String id = ValidatorUtil.checkNullAttribute(div, "ID", "logical.div.id", sink);
+            if (id != null && !ids.add(id)) {
+                sink.error("logical.div.id.duplicate", div,
+                    "Duplicate @ID " + id + ". ID's have to be unique in logical structmap.");
             }
-            ValidatorUtil.checkNullAttribute(div, "TYPE");
-            ValidatorUtil.checkEmptyAttribute(div, "LABEL");
+            ValidatorUtil.checkNullAttribute(div, "TYPE", "logical.div.type", sink);
+            ValidatorUtil.checkEmptyAttribute(div, "LABEL", "logical.div.label", sink);
             Element fptr = div.getChild("fptr", ValidatorUtil.METS);
             if (fptr != null) {
-                Element seq = ValidatorUtil.checkElement(fptr, "seq");
-                List<Element> areas = ValidatorUtil.checkElements(seq, "area");
-                for (Element area : areas) {
-                    ValidatorUtil.checkNullAttribute(area, "FILEID");
-                    String beType = area.getAttributeValue("BETYPE");
-                    if(beType != null) {
-                        if (!beType.equals("IDREF")) {
-                            ValidatorUtil.throwException(area, "@BETYPE should be 'IDREF' and not '" + beType + "'");
-                        }
-                        ValidatorUtil.checkNullAttribute(area, "BEGIN");
-                        ValidatorUtil.checkNullAttribute(area, "END");
-                    }
+                validateFptr(fptr, sink);
+            }
+        }
+    }
+
+    private void validateFptr(Element fptr, ValidationIssueSink sink) {
+        Element seq = ValidatorUtil.checkElement(fptr, "seq", "logical.fptr.seq", sink);
+        if (seq == null) {
+            return;
+        }
+        List<Element> areas = ValidatorUtil.checkElements(seq, "area", "logical.seq.area", sink);
+        for (Element area : areas) {
+            ValidatorUtil.checkNullAttribute(area, "FILEID", "logical.area.fileId", sink);
+            String beType = area.getAttributeValue("BETYPE");
+            if (beType != null) {
+                if (!beType.equals("IDREF")) {
+                    sink.error("logical.area.betype", area, "@BETYPE should be 'IDREF' and not '" + beType + "'");
                 }
+                ValidatorUtil.checkNullAttribute(area, "BEGIN", "logical.area.begin", sink);
+                ValidatorUtil.checkNullAttribute(area, "END", "logical.area.end", sink);
             }
         }
     }
 
+    @Override
+    public int getCost() {
+        return 20;
+    }
+
+    @Override
+    public Set<Section> getSections() {
+        return EnumSet.of(Section.LOGICAL_STRUCT_MAP);
+    }
+
 }
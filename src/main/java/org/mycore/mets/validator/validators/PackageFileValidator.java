@@ -0,0 +1,354 @@
+package org.mycore.mets.validator.validators;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.mycore.mets.validator.MappedFileInput;
+import org.mycore.mets.validator.ValidatorUtil;
+
+/**
+ * Verifies the files of a local package against the file section. This validator is optional,
+ * it has to be added to the validators. Each <code>mets:FLocat/@xlink:href</code> of every
+ * file group is resolved against the base directory of the package and the file is checked:
+ * <ul>
+ * <li>it exists and is inside the base directory</li>
+ * <li>its size matches <code>mets:file/@SIZE</code>, if present</li>
+ * <li>its checksum matches <code>mets:file/@CHECKSUM</code> with the algorithm of
+ * <code>@CHECKSUMTYPE</code>, if present. MD5, the SHA variants, CRC32 and Adler-32 are supported,
+ * the other types of the METS schema are reported as warning.</li>
+ * </ul>
+ * The sizes are read first and the files are hashed largest first by a fixed number of worker
+ * threads, which is also the maximum number of files read at the same time. A file referenced by
+ * several mets:file elements is read once. Large files are memory mapped and passed to the digests
+ * without copying, see {@link MappedFileInput}. The entries of an archive, e.g. a base directory of a
+ * {@link org.mycore.mets.validator.METSPackage}, cannot be mapped and are streamed instead. A file
+ * whose size does not match is not hashed.
+ * <p>
+ * The issues of a file are reported as soon as the file is done, so the order depends on the time
+ * each file takes. Use {@link ValidationIssueSink#observe} to process them while the validation
+ * runs. The files are not part of the METS document, so neither the incremental validation nor the
+ * {@link org.mycore.mets.validator.ValidationCache} notice when only they change.
+ *
+ * <pre>
+ * METSValidator validator = new METSValidator(Path.of("package/mets.xml"));
+ * validator.getValidators().add(new PackageFileValidator(Path.of("package"), 4));
+ * </pre>
+ */
+public class PackageFileValidator implements Validator {
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private final Path baseDirectory;
+
+    private final int parallelism;
+
+    /**
+     * Creates a new PackageFileValidator which reads as many files at the same time as
+     * there are available processors.
+     *
+     * @param baseDirectory the directory the hrefs are relative to
+     */
+    public PackageFileValidator(Path baseDirectory) {
+        this(baseDirectory, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new PackageFileValidator.
+     *
+     * @param baseDirectory the directory the hrefs are relative to
+     * @param parallelism the maximum number of files read at the same time
+     */
+    public PackageFileValidator(Path baseDirectory, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism has to be at least 1: " + parallelism);
+        }
+        this.baseDirectory = baseDirectory.toAbsolutePath().normalize();
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void validate(Document document) throws ValidationException {
+        validate(new ValidationContext(document));
+    }
+
+    @Override
+    public void validate(ValidationContext context) throws ValidationException {
+        ValidationIssueSink sink = new ValidationIssueSink(1);
+        validate(context, sink);
+        sink.throwFirstError();
+    }
+
+    @Override
+    public void validate(ValidationContext context, ValidationIssueSink sink) {
+        // a missing fileSec is reported by the FileSectionValidator
+        Element fileSec = context.getMets().getChild("fileSec", ValidatorUtil.METS);
+        if (fileSec == null) {
+            return;
+        }
+        List<LocalFile> localFiles = getLocalFiles(fileSec, sink);
+        List<LocalFile> hashed = new ArrayList<>();
+        for (LocalFile localFile : localFiles) {
+            if (sink.isFull()) {
+                return;
+            }
+            if (localFile.stat(sink)) {
+                hashed.add(localFile);
+            }
+        }
+        hashed.sort(Comparator.comparingLong((LocalFile localFile) -> localFile.size).reversed());
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            CompletionService<LocalFile> completionService = new ExecutorCompletionService<>(executor);
+            for (LocalFile localFile : hashed) {
+                completionService.submit(localFile::hash);
+            }
+            for (int i = 0; i < hashed.size() && !sink.isFull(); i++) {
+                completionService.take().get().report(sink);
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            sink.error("file.local.interrupted", "The verification of the package files was interrupted.");
+        } catch (ExecutionException executionException) {
+            if (executionException.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(executionException.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Resolves the files of all file groups. Files without a valid href are skipped, the
+     * {@link FileSectionValidator} reports them.
+     */
+    private List<LocalFile> getLocalFiles(Element fileSec, ValidationIssueSink sink) {
+        Map<Path, LocalFile> localFiles = new LinkedHashMap<>();
+        for (Element fileGrp : fileSec.getChildren("fileGrp", ValidatorUtil.METS)) {
+            for (Element file : fileGrp.getChildren("file", ValidatorUtil.METS)) {
+                Element flocat = file.getChild("FLocat", ValidatorUtil.METS);
+                String href = flocat != null ? flocat.getAttributeValue("href", ValidatorUtil.XLINK) : null;
+                Path path = FileSectionValidator.resolveHref(baseDirectory, href);
+                if (path == null) {
+                    continue;
+                }
+                if (!path.startsWith(baseDirectory)) {
+                    sink.error("file.local.outside", file, "File '" + href + "' is outside of the base directory.");
+                    continue;
+                }
+                localFiles.computeIfAbsent(path, p -> new LocalFile(p, href)).files.add(file);
+            }
+        }
+        return new ArrayList<>(localFiles.values());
+    }
+
+    @Override
+    public int getCost() {
+        return 500;
+    }
+
+    @Override
+    public Set<Section> getSections() {
+        return EnumSet.of(Section.FILE_SEC);
+    }
+
+    @Override
+    public Set<Class<? extends Validator>> getPrerequisites() {
+        return Set.of(FileSectionValidator.class);
+    }
+
+    @Override
+    public String getFingerprint() {
+        return getClass().getName() + baseDirectory;
+    }
+
+    /**
+     * Creates a new instance of the checksum algorithm of the METS @CHECKSUMTYPE.
+     *
+     * @return a MessageDigest or Checksum, or null if the type is not supported
+     */
+    private static Object newAlgorithm(String checksumType) {
+        switch (checksumType) {
+            case "CRC32":
+                return new CRC32();
+            case "Adler-32":
+                return new Adler32();
+            default:
+                try {
+                    return MessageDigest.getInstance(checksumType);
+                } catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+                    return null;
+                }
+        }
+    }
+
+    /**
+     * A local file and the mets:file elements which refer to it. The size is read and checked on
+     * the calling thread, the checksums are computed by a worker and reported by the calling thread.
+     */
+    private static final class LocalFile {
+
+        private final Path path;
+
+        private final String href;
+
+        private final List<Element> files = new ArrayList<>(1);
+
+        /** The expected checksum of each mets:file, null if it has none or it is not supported. */
+        private final List<String> expectedChecksums = new ArrayList<>(1);
+
+        /** The computed checksum by @CHECKSUMTYPE. */
+        private final Map<String, String> checksums = new LinkedHashMap<>();
+
+        private long size;
+
+        private String ioError;
+
+        LocalFile(Path path, String href) {
+            this.path = path;
+            this.href = href;
+        }
+
+        /**
+         * Reads the size of the file and checks it and the checksum types.
+         *
+         * @return true if the file has to be hashed
+         */
+        boolean stat(ValidationIssueSink sink) {
+            try {
+                size = Files.size(path);
+            } catch (NoSuchFileException noSuchFileException) {
+                files.forEach(file -> sink.error("file.local.missing", file, "File '" + href + "' does not exist."));
+                return false;
+            } catch (IOException ioException) {
+                files.forEach(file -> sink.error("file.local.io", file, "File '" + href + "' cannot be read: "
+                    + ioException.getMessage()));
+                return false;
+            }
+            boolean sizeMatches = true;
+            for (Element file : files) {
+                String expectedSize = file.getAttributeValue("SIZE");
+                if (expectedSize != null && !String.valueOf(size).equals(expectedSize.trim())) {
+                    sink.error("file.local.size", file, "File '" + href + "' has " + size + " bytes but @SIZE is '"
+                        + expectedSize + "'.");
+                    sizeMatches = false;
+                }
+            }
+            for (Element file : files) {
+                String checksum = file.getAttributeValue("CHECKSUM");
+                String checksumType = file.getAttributeValue("CHECKSUMTYPE");
+                if (checksum != null && checksumType == null) {
+                    sink.error("file.local.checksumtype", file, "mets:file has a @CHECKSUM but no @CHECKSUMTYPE.");
+                    checksum = null;
+                } else if (checksum != null && newAlgorithm(checksumType) == null) {
+                    sink.warning("file.local.checksumtype", file, "@CHECKSUMTYPE '" + checksumType
+                        + "' is not supported, the checksum of '" + href + "' is not verified.");
+                    checksum = null;
+                }
+                expectedChecksums.add(checksum);
+                if (checksum != null) {
+                    checksums.put(checksumType, null);
+                }
+            }
+            return sizeMatches && !checksums.isEmpty();
+        }
+
+        /**
+         * Reads the file once and computes all checksums. Called by the worker threads.
+         */
+        LocalFile hash() {
+            List<Object> algorithms = new ArrayList<>();
+            checksums.keySet().forEach(type -> algorithms.add(newAlgorithm(type)));
+            try {
+                if (path.getFileSystem() != FileSystems.getDefault()) {
+                    stream(algorithms);
+                } else {
+                    MappedFileInput input = MappedFileInput.open(path);
+                    for (Object algorithm : algorithms) {
+                        if (algorithm instanceof MessageDigest digest) {
+                            input.update(digest);
+                        } else {
+                            input.update((Checksum) algorithm);
+                        }
+                    }
+                }
+            } catch (IOException ioException) {
+                ioError = ioException.getMessage();
+                return this;
+            }
+            int i = 0;
+            for (String type : checksums.keySet()) {
+                Object algorithm = algorithms.get(i++);
+                checksums.put(type, algorithm instanceof MessageDigest digest
+                    ? HexFormat.of().formatHex(digest.digest())
+                    : String.format(Locale.ROOT, "%08x", ((Checksum) algorithm).getValue()));
+            }
+            return this;
+        }
+
+        /**
+         * Streams an archive entry through the algorithms, so a large entry is not held in memory.
+         */
+        private void stream(List<Object> algorithms) throws IOException {
+            byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            try (InputStream in = Files.newInputStream(path)) {
+                for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                    for (Object algorithm : algorithms) {
+                        if (algorithm instanceof MessageDigest digest) {
+                            digest.update(buffer, 0, read);
+                        } else {
+                            ((Checksum) algorithm).update(buffer, 0, read);
+                        }
+                    }
+                }
+            }
+        }
+
+        void report(ValidationIssueSink sink) {
+            for (int i = 0; i < files.size(); i++) {
+                Element file = files.get(i);
+                String expected = expectedChecksums.get(i);
+                if (expected == null) {
+                    continue;
+                }
+                if (ioError != null) {
+                    sink.error("file.local.io", file, "File '" + href + "' cannot be read: " + ioError);
+                    continue;
+                }
+                String actual = checksums.get(file.getAttributeValue("CHECKSUMTYPE"));
+                if (!actual.equalsIgnoreCase(expected.trim())) {
+                    sink.error("file.local.checksum", file, "File '" + href + "' has the "
+                        + file.getAttributeValue("CHECKSUMTYPE") + " checksum '" + actual + "' but @CHECKSUM is '"
+                        + expected + "'.");
+                }
+            }
+        }
+
+    }
+
+}
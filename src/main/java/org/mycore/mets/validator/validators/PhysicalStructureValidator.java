@@ -1,6 +1,8 @@
 package org.mycore.mets.validator.validators;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.jdom2.Document;
 import org.jdom2.Element;
@@ -21,42 +23,71 @@ public class PhysicalStructureValidator implements Validator {
 
     @Override
     public void validate(Document document) throws ValidationException {
-        Element mets = document.getRootElement();
+        validate(new ValidationContext(document));
+    }
+
+    @Override
+    public void validate(ValidationContext context) throws ValidationException {
+        ValidationIssueSink sink = new ValidationIssueSink(1);
+        validate(context, sink);
+        sink.throwFirstError();
+    }
+
+    @Override
+    public void validate(ValidationContext context, ValidationIssueSink sink) {
+        Element mets = context.getMets();
         Element physicalStructMap = ValidatorUtil.getPhysicalStructMap(mets);
         if (physicalStructMap == null) {
-            ValidatorUtil.throwException(mets, "Missing mets:structMap TYPE='PHYSICAL' element.");
+            sink.error("physical.structMap.missing", mets, "Missing mets:structMap TYPE='PHYSICAL' element.");
+            return;
         }
         Element mainDiv = physicalStructMap.getChild("div", ValidatorUtil.METS);
         if (mainDiv == null) {
-            ValidatorUtil.throwException(physicalStructMap,
+            sink.error("physical.sequence.missing", physicalStructMap,
                 "Physical struct map should contain sourrounding mets:div TYPE='physSequence' element.");
+            return;
         }
         if (!"physSequence".equals(mainDiv.getAttributeValue("TYPE"))) {
-            ValidatorUtil
-                .throwException(mainDiv, "Missing or invalid @TYPE attribute. Should be @TYPE='physSequence'.");
+            sink.error("physical.sequence.type", mainDiv,
+                "Missing or invalid @TYPE attribute. Should be @TYPE='physSequence'.");
         }
 
         List<Element> children = mainDiv.getChildren("div", ValidatorUtil.METS);
         if (children.isEmpty()) {
-            ValidatorUtil.throwException(mainDiv, "mets:div TYPE='physSequence' should have at least one page.");
+            sink.error("physical.sequence.empty", mainDiv,
+                "mets:div TYPE='physSequence' should have at least one page.");
+            return;
         }
         for (Element div : children) {
+            if (sink.isFull()) {
+                return;
+            }
             if (!"page".equals(div.getAttributeValue("TYPE"))) {
-                ValidatorUtil.throwException(div, "Invalid @TYPE attribute. Should be @TYPE='page'.");
+                sink.error("physical.page.type", div, "Invalid @TYPE attribute. Should be @TYPE='page'.");
             }
             if (div.getAttributeValue("ID") == null) {
-                ValidatorUtil.throwException(div, "div requires @ID attribute.");
+                sink.error("physical.page.id", div, "div requires @ID attribute.");
             }
             List<Element> fptrs = div.getChildren("fptr", ValidatorUtil.METS);
             if (fptrs.isEmpty()) {
-                ValidatorUtil.throwException(div, "div should contain at least one mets:fptr @FILEID element.");
+                sink.error("physical.page.fptr", div, "div should contain at least one mets:fptr @FILEID element.");
             }
             for (Element fptr : fptrs) {
                 if (fptr.getAttributeValue("FILEID") == null) {
-                    ValidatorUtil.throwException(fptr, "fptr requires @FILEID attribute.");
+                    sink.error("physical.fptr.fileId", fptr, "fptr requires @FILEID attribute.");
                 }
             }
         }
     }
 
+    @Override
+    public int getCost() {
+        return 10;
+    }
+
+    @Override
+    public Set<Section> getSections() {
+        return EnumSet.of(Section.PHYSICAL_STRUCT_MAP);
+    }
+
 }
@@ -1,68 +1,214 @@
 package org.mycore.mets.validator.validators;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
 import java.net.URL;
+import java.util.Arrays;
 
-import javax.xml.transform.Result;
-import javax.xml.transform.Source;
-import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.TransformerFactoryConfigurationError;
-import javax.xml.transform.stream.StreamResult;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
 
+import org.jdom2.Content;
 import org.jdom2.Document;
-import org.jdom2.input.SAXBuilder;
-import org.jdom2.input.sax.XMLReaderJDOMFactory;
-import org.jdom2.input.sax.XMLReaderXSDFactory;
-import org.jdom2.transform.JDOMSource;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.output.JDOMLocator;
+import org.jdom2.output.SAXOutputter;
+import org.mycore.mets.validator.SchemaCache;
+import org.mycore.mets.validator.ValidatorUtil;
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.XMLFilterImpl;
 
 /**
- * Validates against the mets schema.
- * 
+ * Validates against the mets schema. The schema is compiled once per process and shared
+ * between all instances, see {@link SchemaCache}.
+ * <p>
+ * The JDOM tree is streamed as SAX events directly into a schema {@link ValidatorHandler}.
+ * The document is neither serialized nor parsed a second time. If the document was built
+ * with line number information, the line of the offending element is reported.
+ *
  * @author Matthias Eichner
  */
 public class SchemaValidator implements Validator {
 
+    private final URL[] schemaLocations;
+
     /**
-     * Creates a new SchemaValidator.
+     * Creates a new SchemaValidator which validates against the bundled METS schema.
      */
     public SchemaValidator() {
+        this.schemaLocations = null;
+    }
+
+    /**
+     * Creates a new SchemaValidator which validates against the given schemas instead of
+     * the bundled METS schema. Use this to add extension schemas or a different METS version.
+     *
+     * @param schemaLocations one or more schema locations
+     */
+    public SchemaValidator(URL... schemaLocations) {
+        if (schemaLocations.length == 0) {
+            throw new IllegalArgumentException("At least one schema location is required.");
+        }
+        this.schemaLocations = schemaLocations.clone();
     }
 
     @Override
     public void validate(Document document) throws ValidationException {
+        validate(new ValidationContext(document));
+    }
+
+    @Override
+    public void validate(ValidationContext context) throws ValidationException {
+        ValidatorHandler validatorHandler;
         try {
-            URL xsd = getClass().getResource("/mets_1.12.1.xsd");
-            if (xsd == null) {
-                throw new RuntimeException("Unable to read mets.xsd!");
-            }
-            XMLReaderJDOMFactory readerFactory = new XMLReaderXSDFactory(xsd);
-            SAXBuilder builder = new SAXBuilder(readerFactory);
-            builder.build(toInputStream(document));
+            validatorHandler = getSchema().newValidatorHandler();
         } catch (Exception exc) {
             throw new ValidationException(exc);
         }
+        LocatingFilter filter = new LocatingFilter(validatorHandler);
+        try {
+            new SAXOutputter(filter).output(context.getDocument());
+        } catch (JDOMException exc) {
+            Throwable cause = exc.getCause() instanceof SAXParseException ? exc.getCause() : exc;
+            throw new ValidationException(cause.getMessage(), filter.getLineNumber(), cause);
+        }
     }
 
     /**
-     * Converts a JDOM document to an input stream for schema validation.
+     * Reports all schema errors of the document, not only the first one. Validation stops when
+     * the sink is full or the schema validator cannot go on.
+     */
+    @Override
+    public void validate(ValidationContext context, ValidationIssueSink sink) {
+        ValidatorHandler validatorHandler;
+        try {
+            validatorHandler = getSchema().newValidatorHandler();
+        } catch (Exception exc) {
+            sink.error("schema.unavailable", exc.toString());
+            return;
+        }
+        LocatingFilter filter = new LocatingFilter(validatorHandler, sink);
+        try {
+            new SAXOutputter(filter).output(context.getDocument());
+        } catch (JDOMException exc) {
+            if (!filter.stopped) {
+                sink.report(filter.toIssue(exc.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Returns the compiled schema used by this validator.
      *
-     * @param doc the document to convert
-     * @return an input stream containing the serialized XML
-     * @throws TransformerConfigurationException if the transformer cannot be configured
-     * @throws TransformerException if serialization fails
-     * @throws TransformerFactoryConfigurationError if the transformer factory cannot be instantiated
+     * @return the cached schema
+     * @throws SAXException if the schema could not be compiled
+     */
+    public Schema getSchema() throws SAXException {
+        return schemaLocations == null ? SchemaCache.getMETSSchema() : SchemaCache.getSchema(schemaLocations);
+    }
+
+    @Override
+    public int getCost() {
+        return 100;
+    }
+
+    /**
+     * Returns the class name and the schema locations. The bundled schema is identified by its
+     * file name, which contains the METS version.
      */
-    protected InputStream toInputStream(Document doc) throws TransformerConfigurationException, TransformerException,
-        TransformerFactoryConfigurationError {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        Source xmlSource = new JDOMSource(doc);
-        Result outputTarget = new StreamResult(outputStream);
-        TransformerFactory.newInstance().newTransformer().transform(xmlSource, outputTarget);
-        return new ByteArrayInputStream(outputStream.toByteArray());
+    @Override
+    public String getFingerprint() {
+        String schemas = schemaLocations == null ? SchemaCache.METS_SCHEMA : Arrays.toString(schemaLocations);
+        return getClass().getName() + " " + schemas;
     }
 
+    /**
+     * Passes the SAX events to the schema validator and remembers the JDOM node which was
+     * processed when a schema error occurred. Without a sink it fails on the first schema
+     * error, with a sink it reports the errors and only fails when the sink is full. A sink
+     * which is filled by another validator cancels the validation at the next element.
+     */
+    private static final class LocatingFilter extends XMLFilterImpl {
+
+        private JDOMLocator locator;
+
+        private Object node;
+
+        private final ValidationIssueSink sink;
+
+        private boolean stopped;
+
+        LocatingFilter(ValidatorHandler validatorHandler) {
+            this(validatorHandler, null);
+        }
+
+        LocatingFilter(ValidatorHandler validatorHandler, ValidationIssueSink sink) {
+            this.sink = sink;
+            setContentHandler(validatorHandler);
+            validatorHandler.setErrorHandler(this);
+        }
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator instanceof JDOMLocator jdomLocator ? jdomLocator : null;
+            super.setDocumentLocator(locator);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+            if (sink != null && sink.isFull()) {
+                stopped = true;
+                throw new SAXException("Validation cancelled.");
+            }
+            super.startElement(uri, localName, qName, atts);
+        }
+
+        @Override
+        public void warning(SAXParseException exception) {
+            // warnings are not validation errors
+        }
+
+        @Override
+        public void error(SAXParseException exception) throws SAXException {
+            this.node = locator != null ? locator.getNode() : null;
+            if (sink == null) {
+                throw exception;
+            }
+            sink.report(toIssue(exception.getMessage()));
+            if (sink.isFull()) {
+                stopped = true;
+                throw exception;
+            }
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXException {
+            error(exception);
+            stopped = true;
+            throw exception;
+        }
+
+        int getLineNumber() {
+            Element element = getElement();
+            return element != null ? ValidatorUtil.getLine(element) : -1;
+        }
+
+        ValidationIssue toIssue(String message) {
+            Element element = getElement();
+            if (element == null) {
+                return new ValidationIssue(Severity.ERROR, "schema", message, -1, null, null);
+            }
+            return ValidationIssue.of(Severity.ERROR, "schema", element, message);
+        }
+
+        private Element getElement() {
+            if (node instanceof Element element) {
+                return element;
+            }
+            return node instanceof Content content ? content.getParentElement() : null;
+        }
+
+    }
 }
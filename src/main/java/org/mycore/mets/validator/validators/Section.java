@@ -0,0 +1,26 @@
+package org.mycore.mets.validator.validators;
+
+/**
+ * The parts of a METS document a validator reads, see {@link Validator#getSections()}.
+ */
+public enum Section {
+
+    /** The mets:fileSec. */
+    FILE_SEC,
+
+    /** The mets:structMap with TYPE PHYSICAL. */
+    PHYSICAL_STRUCT_MAP,
+
+    /** The mets:structMap with TYPE LOGICAL. */
+    LOGICAL_STRUCT_MAP,
+
+    /** The mets:structLink. */
+    STRUCT_LINK,
+
+    /**
+     * Everything else: the attributes of mets:mets, the header, the metadata sections, further
+     * struct maps and the order of all sections.
+     */
+    OTHER
+
+}
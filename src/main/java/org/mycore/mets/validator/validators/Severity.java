@@ -0,0 +1,17 @@
+package org.mycore.mets.validator.validators;
+
+/**
+ * Severity of a {@link ValidationIssue}.
+ */
+public enum Severity {
+
+    /** The document is invalid. */
+    ERROR,
+
+    /** The document is valid, but something looks wrong. */
+    WARNING,
+
+    /** Information only, e.g. statistics about the document. */
+    INFO
+
+}
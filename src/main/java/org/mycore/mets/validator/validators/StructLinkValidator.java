@@ -1,6 +1,7 @@
 package org.mycore.mets.validator.validators;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -8,12 +9,12 @@ import java.util.Set;
 
 import org.jdom2.Document;
 import org.jdom2.Element;
-import org.jdom2.filter.ElementFilter;
-import org.jdom2.util.IteratorIterable;
 import org.mycore.mets.validator.ValidatorUtil;
 
 /**
- * Validates the struct link section of a METS document.
+ * Validates the struct link section of a METS document. All checks are hash lookups on the
+ * indexes of the {@link ValidationContext} plus one post order traversal of the logical
+ * struct map, so the runtime is linear in the number of pages, divs and links.
  *
  * @author Matthias Eichner
  */
@@ -27,87 +28,134 @@ public class StructLinkValidator implements Validator {
 
     @Override
     public void validate(Document document) throws ValidationException {
-        Element mets = document.getRootElement();
-        Element structLink = ValidatorUtil.checkElement(mets, "structLink");
-
-        List<String> physicalIds = getPhysicalIds(mets);
-        List<String> logicalIds = getLogicalIds(mets);
+        validate(new ValidationContext(document));
+    }
 
-        Map<String, Set<String>> smLinks = ValidatorUtil.getSmLinks(structLink);
+    @Override
+    public void validate(ValidationContext context) throws ValidationException {
+        ValidationIssueSink sink = new ValidationIssueSink(1);
+        validate(context, sink);
+        sink.throwFirstError();
+    }
 
-        // flatten "to" side (all linked physical IDs)
-        Set<String> linkedPhysicalIds = new HashSet<>();
-        for (Set<String> tos : smLinks.values()) {
-            linkedPhysicalIds.addAll(tos);
+    @Override
+    public void validate(ValidationContext context, ValidationIssueSink sink) {
+        Element mets = context.getMets();
+        Element structLink = ValidatorUtil.checkElement(mets, "structLink", "structLink.missing", sink);
+        if (structLink == null || !checkPhysicalSequence(mets, sink) || !checkSmLinks(structLink, sink)) {
+            return;
         }
 
-        // check missing
-        ArrayList<String> missingLogicalDivs = new ArrayList<>(logicalIds);
-        missingLogicalDivs.removeAll(smLinks.keySet());
+        Set<String> physicalIds = context.getPhysicalIds();
+        Set<String> logicalIds = context.getLogicalIds();
+        Map<String, Set<String>> smLinks = context.getSmLinks();
+        Set<String> linkedPhysicalIds = context.getLinkedPhysicalIds();
 
-        ArrayList<String> missingPhysicalDivs = new ArrayList<>(physicalIds);
-        missingPhysicalDivs.removeAll(linkedPhysicalIds);
-
-        // check if children are linked
-        List<String> foundLogicalDivs = new ArrayList<>();
-        for (String missingLogicalDiv : missingLogicalDivs) {
-            if (ValidatorUtil.hasLinkedChildren(mets, missingLogicalDiv)) {
-                foundLogicalDivs.add(missingLogicalDiv);
-            }
+        // check missing, logical divs are fine if one of their descendants is linked
+        Set<String> unlinkedLogicalIds = new HashSet<>();
+        Element logicalStructMap = ValidatorUtil.getLogicalStructMap(mets);
+        if (logicalStructMap != null) {
+            collectUnlinked(logicalStructMap.getChildren("div", ValidatorUtil.METS), smLinks, unlinkedLogicalIds);
         }
-        missingLogicalDivs.removeAll(foundLogicalDivs);
-
+        List<String> missingLogicalDivs = retain(logicalIds, unlinkedLogicalIds, true);
         if (!missingLogicalDivs.isEmpty()) {
-            ValidatorUtil.throwException(structLink,
+            sink.error("structLink.logical.unlinked", structLink,
                 "Some logical elements are not linked: " + missingLogicalDivs);
         }
+        List<String> missingPhysicalDivs = retain(physicalIds, linkedPhysicalIds, false);
         if (!missingPhysicalDivs.isEmpty()) {
-            ValidatorUtil.throwException(structLink,
+            sink.error("structLink.physical.unlinked", structLink,
                 "Some physical elements are not linked: " + missingPhysicalDivs);
         }
 
         // check not existing
-        ArrayList<String> notExistingLogicalDivs = new ArrayList<>(smLinks.keySet());
-        notExistingLogicalDivs.removeAll(logicalIds);
+        List<String> notExistingLogicalDivs = retain(smLinks.keySet(), logicalIds, false);
         if (!notExistingLogicalDivs.isEmpty()) {
-            ValidatorUtil.throwException(structLink,
+            sink.error("structLink.logical.unknown", structLink,
                 "Some linked logical elements does not exist: " + notExistingLogicalDivs);
         }
-
-        ArrayList<String> notExistingPhysicalDivs = new ArrayList<>(linkedPhysicalIds);
-        notExistingPhysicalDivs.removeAll(physicalIds);
+        List<String> notExistingPhysicalDivs = retain(linkedPhysicalIds, physicalIds, false);
         if (!notExistingPhysicalDivs.isEmpty()) {
-            ValidatorUtil.throwException(structLink,
+            sink.error("structLink.physical.unknown", structLink,
                 "Some linked physical elements does not exist: " + notExistingPhysicalDivs);
         }
     }
 
-    private List<String> getLogicalIds(Element mets) {
-        Element logicalStructMap = ValidatorUtil.getLogicalStructMap(mets);
-        return fillIds(logicalStructMap);
+    /**
+     * Post order traversal of the logical divs. Collects the IDs of all divs which are neither
+     * linked themselves nor have a linked descendant.
+     *
+     * @return true if any of the given divs or their descendants is linked
+     */
+    private boolean collectUnlinked(List<Element> divs, Map<String, Set<String>> smLinks, Set<String> unlinked) {
+        boolean anyLinked = false;
+        for (Element div : divs) {
+            boolean descendantLinked = collectUnlinked(div.getChildren("div", ValidatorUtil.METS), smLinks,
+                unlinked);
+            String id = div.getAttributeValue("ID");
+            boolean linked = id != null && smLinks.containsKey(id);
+            if (!linked && !descendantLinked && id != null) {
+                unlinked.add(id);
+            }
+            anyLinked |= linked || descendantLinked;
+        }
+        return anyLinked;
+    }
+
+    /**
+     * Returns the ids in their original order which are (contained == true) or are not
+     * (contained == false) in the given set.
+     */
+    private List<String> retain(Set<String> ids, Set<String> set, boolean contained) {
+        List<String> result = new ArrayList<>();
+        for (String id : ids) {
+            if (set.contains(id) == contained) {
+                result.add(id);
+            }
+        }
+        return result;
     }
 
-    private List<String> getPhysicalIds(Element mets) throws ValidationException {
+    private boolean checkPhysicalSequence(Element mets, ValidationIssueSink sink) {
         Element physicalStructMap = ValidatorUtil.getPhysicalStructMap(mets);
-        Element physSequence = ValidatorUtil.checkElement(physicalStructMap, "div");
-        if (physSequence != null) {
-            return fillIds(physSequence);
+        if (physicalStructMap == null) {
+            sink.error("physical.structMap.missing", mets, "Missing mets:structMap TYPE='PHYSICAL' element.");
+            return false;
         }
-        return new ArrayList<>();
+        return ValidatorUtil.checkElement(physicalStructMap, "div", "physical.sequence.missing", sink) != null;
     }
 
-    private List<String> fillIds(Element logicalStructMap) {
-        List<String> ids = new ArrayList<>();
-        IteratorIterable<Element> divsIterator = logicalStructMap.getDescendants(
-            new ElementFilter("div", ValidatorUtil.METS));
-        while (divsIterator.hasNext()) {
-            Element div = divsIterator.next();
-            String id = div.getAttributeValue("ID");
-            if (id != null && !id.isEmpty()) {
-                ids.add(id);
+    /**
+     * Checks that there are smLinks and all of them have @xlink:from and @xlink:to.
+     *
+     * @return false if there are no smLinks or the sink is full
+     */
+    private boolean checkSmLinks(Element structLink, ValidationIssueSink sink) {
+        List<Element> smLinks = ValidatorUtil.checkElements(structLink, "smLink", "structLink.smLink.missing", sink);
+        for (Element smLink : smLinks) {
+            if (sink.isFull()) {
+                return false;
             }
+            ValidatorUtil.checkNullAndEmptyAttribute(smLink, "from", ValidatorUtil.XLINK, "structLink.smLink.from",
+                sink);
+            ValidatorUtil.checkNullAndEmptyAttribute(smLink, "to", ValidatorUtil.XLINK, "structLink.smLink.to", sink);
         }
-        return ids;
+        return !smLinks.isEmpty() && !sink.isFull();
+    }
+
+    @Override
+    public int getCost() {
+        return 30;
+    }
+
+    @Override
+    public Set<Section> getSections() {
+        return EnumSet.of(Section.STRUCT_LINK, Section.PHYSICAL_STRUCT_MAP, Section.LOGICAL_STRUCT_MAP);
+    }
+
+    @Override
+    public Set<Class<? extends Validator>> getPrerequisites() {
+        return Set.of(PhysicalStructureValidator.class, LogicalStructMapValidator.class);
     }
 
 }
@@ -0,0 +1,274 @@
+package org.mycore.mets.validator.validators;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.mycore.mets.validator.IdSet;
+import org.mycore.mets.validator.IdTable;
+import org.mycore.mets.validator.SmLinkTable;
+import org.mycore.mets.validator.ValidatorUtil;
+
+/**
+ * Per document state shared by all validators of one validation run. Besides the document
+ * itself the context holds hash indexes of the facts several validators need, like the
+ * IDs of the physical and logical divs or the smLinks. The indexes are built lazily in
+ * one traversal of the document the first time one of them is requested, so additional
+ * validators do not cost another full walk of the tree.
+ * <p>
+ * All IDs are interned into one {@link IdTable}, the ID sets are {@link IdSet}s over that table
+ * and the smLinks a {@link SmLinkTable}, so the indexes of a document with a million pages
+ * stay in the range of tens of megabytes.
+ * <p>
+ * The indexes are tolerant: elements with missing attributes are skipped. Reporting them
+ * is up to the validators. All returned collections are unmodifiable and keep document order.
+ * A context is safe to be used by multiple threads as long as the document is not modified.
+ */
+public class ValidationContext {
+
+    private final Document document;
+
+    private volatile Index index;
+
+    /**
+     * Creates a new context for the given document.
+     *
+     * @param document the document to validate
+     */
+    public ValidationContext(Document document) {
+        this.document = document;
+    }
+
+    /**
+     * Returns the document to validate.
+     *
+     * @return the document
+     */
+    public Document getDocument() {
+        return document;
+    }
+
+    /**
+     * Returns the mets:mets root element.
+     *
+     * @return the root element
+     */
+    public Element getMets() {
+        return document.getRootElement();
+    }
+
+    /**
+     * Returns the IDs of all mets:file elements, grouped by the @USE of their mets:fileGrp.
+     *
+     * @return map of USE to file IDs
+     */
+    public Map<String, Set<String>> getFileIdsByUse() {
+        return index().readOnlyFileIdsByUse;
+    }
+
+    /**
+     * Returns the IDs of all mets:file elements of the mets:fileGrp with the given @USE.
+     *
+     * @param use the USE of the file group, e.g. MASTER or ALTO
+     * @return set of file IDs, empty if there is no such group
+     */
+    public Set<String> getFileIds(String use) {
+        return index().readOnlyFileIdsByUse.getOrDefault(use, Collections.emptySet());
+    }
+
+    /**
+     * Returns the IDs of all divs below the physSequence div of the physical struct map.
+     *
+     * @return set of physical IDs
+     */
+    public Set<String> getPhysicalIds() {
+        return Collections.unmodifiableSet(index().physicalIds);
+    }
+
+    /**
+     * Returns the IDs of all divs of the logical struct map.
+     *
+     * @return set of logical IDs
+     */
+    public Set<String> getLogicalIds() {
+        return Collections.unmodifiableSet(index().logicalIds);
+    }
+
+    /**
+     * Returns the smLinks as map from logical ID (xlink:from) to the set of physical IDs (xlink:to).
+     *
+     * @return the smLink multimap
+     */
+    public Map<String, Set<String>> getSmLinks() {
+        return index().readOnlySmLinks;
+    }
+
+    /**
+     * Returns all physical IDs referenced by an smLink (xlink:to).
+     *
+     * @return set of linked physical IDs
+     */
+    public Set<String> getLinkedPhysicalIds() {
+        return Collections.unmodifiableSet(index().linkedPhysicalIds);
+    }
+
+    /**
+     * Returns all @FILEID values referenced by a mets:fptr or mets:area of any struct map.
+     *
+     * @return set of referenced file IDs
+     */
+    public Set<String> getFileIdReferences() {
+        return Collections.unmodifiableSet(index().fileIdReferences);
+    }
+
+    /**
+     * Returns all @FILEID values of mets:area elements in the logical struct map.
+     *
+     * @return set of file IDs referenced by logical areas
+     */
+    public Set<String> getLogicalAreaFileIds() {
+        return Collections.unmodifiableSet(index().logicalAreaFileIds);
+    }
+
+    private Index index() {
+        Index result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    result = new Index(getMets());
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The lazily built indexes.
+     */
+    private static final class Index {
+
+        private final IdTable idTable = new IdTable();
+
+        private final Map<String, Set<String>> fileIdsByUse = new LinkedHashMap<>();
+
+        private final Set<String> physicalIds = new IdSet(idTable);
+
+        private final Set<String> logicalIds = new IdSet(idTable);
+
+        private final SmLinkTable.Builder smLinkBuilder = new SmLinkTable.Builder(idTable);
+
+        private final Set<String> linkedPhysicalIds = new IdSet(idTable);
+
+        private final Set<String> fileIdReferences = new IdSet(idTable);
+
+        private final Set<String> logicalAreaFileIds = new IdSet(idTable);
+
+        private final Map<String, Set<String>> readOnlyFileIdsByUse;
+
+        private final Map<String, Set<String>> readOnlySmLinks;
+
+        Index(Element mets) {
+            Element physicalStructMap = ValidatorUtil.getPhysicalStructMap(mets);
+            Element logicalStructMap = ValidatorUtil.getLogicalStructMap(mets);
+            for (Element section : mets.getChildren()) {
+                if (!ValidatorUtil.METS.equals(section.getNamespace())) {
+                    continue;
+                }
+                switch (section.getName()) {
+                    case "fileSec" -> indexFileSec(section);
+                    case "structMap" -> {
+                        if (section == physicalStructMap) {
+                            Element physSequence = section.getChild("div", ValidatorUtil.METS);
+                            if (physSequence != null) {
+                                indexFileIdReferences(physSequence);
+                                indexDivs(physSequence.getChildren("div", ValidatorUtil.METS), physicalIds, null);
+                            }
+                        } else if (section == logicalStructMap) {
+                            indexDivs(section.getChildren("div", ValidatorUtil.METS), logicalIds,
+                                logicalAreaFileIds);
+                        } else {
+                            indexDivs(section.getChildren("div", ValidatorUtil.METS), null, null);
+                        }
+                    }
+                    case "structLink" -> indexStructLink(section);
+                    default -> {
+                    }
+                }
+            }
+            this.readOnlyFileIdsByUse = readOnly(fileIdsByUse);
+            this.readOnlySmLinks = smLinkBuilder.build();
+        }
+
+        private void indexFileSec(Element fileSec) {
+            for (Element fileGrp : fileSec.getChildren("fileGrp", ValidatorUtil.METS)) {
+                String use = fileGrp.getAttributeValue("USE");
+                if (use == null) {
+                    continue;
+                }
+                Set<String> ids = fileIdsByUse.computeIfAbsent(use, k -> new IdSet(idTable));
+                for (Element file : fileGrp.getChildren("file", ValidatorUtil.METS)) {
+                    addIfPresent(ids, file.getAttributeValue("ID"));
+                }
+            }
+        }
+
+        private void indexDivs(List<Element> divs, Set<String> ids, Set<String> areaFileIds) {
+            for (Element div : divs) {
+                if (ids != null) {
+                    addIfPresent(ids, div.getAttributeValue("ID"));
+                }
+                for (Element fptr : div.getChildren("fptr", ValidatorUtil.METS)) {
+                    addIfPresent(fileIdReferences, fptr.getAttributeValue("FILEID"));
+                    for (Element seq : fptr.getChildren("seq", ValidatorUtil.METS)) {
+                        for (Element area : seq.getChildren("area", ValidatorUtil.METS)) {
+                            String fileId = area.getAttributeValue("FILEID");
+                            addIfPresent(fileIdReferences, fileId);
+                            if (areaFileIds != null) {
+                                addIfPresent(areaFileIds, fileId);
+                            }
+                        }
+                    }
+                }
+                indexDivs(div.getChildren("div", ValidatorUtil.METS), ids, areaFileIds);
+            }
+        }
+
+        private void indexFileIdReferences(Element physSequence) {
+            for (Element fptr : physSequence.getChildren("fptr", ValidatorUtil.METS)) {
+                addIfPresent(fileIdReferences, fptr.getAttributeValue("FILEID"));
+            }
+        }
+
+        private void indexStructLink(Element structLink) {
+            for (Element smLink : structLink.getChildren("smLink", ValidatorUtil.METS)) {
+                String from = smLink.getAttributeValue("from", ValidatorUtil.XLINK);
+                String to = smLink.getAttributeValue("to", ValidatorUtil.XLINK);
+                if (from == null || from.isEmpty() || to == null || to.isEmpty()) {
+                    continue;
+                }
+                smLinkBuilder.add(from, to);
+                linkedPhysicalIds.add(to);
+            }
+        }
+
+        private static void addIfPresent(Set<String> set, String value) {
+            if (value != null && !value.isEmpty()) {
+                set.add(value);
+            }
+        }
+
+        private static Map<String, Set<String>> readOnly(Map<String, Set<String>> map) {
+            Map<String, Set<String>> readOnly = new LinkedHashMap<>();
+            map.forEach((key, value) -> readOnly.put(key, Collections.unmodifiableSet(value)));
+            return Collections.unmodifiableMap(readOnly);
+        }
+
+    }
+
+}
@@ -3,7 +3,10 @@ package org.mycore.mets.validator.validators;
 import java.io.Serial;
 
 /**
- * Exception thrown when a METS document fails validation.
+ * Exception thrown when a METS document fails validation. Validation errors are expected results,
+ * not programming errors, so no stack trace is captured. Validators which report to a
+ * {@link ValidationIssueSink} create {@link ValidationIssue}s instead, this exception is kept for
+ * the {@link Validator#validate(ValidationContext)} contract.
  */
 public class ValidationException extends Exception {
 
@@ -13,6 +16,9 @@ public class ValidationException extends Exception {
     /** The line number where the validation error occurred, or -1 if unknown. */
     private int lineNumber = -1;
 
+    /** XPath like location of the element where the validation error occurred, or null if unknown. */
+    private String location;
+
     /**
      * Creates a new ValidationException with the given message.
      *
@@ -28,7 +34,7 @@ public class ValidationException extends Exception {
      * @param cause the underlying cause of this exception
      */
     public ValidationException(Throwable cause) {
-        super(cause);
+        super(cause == null ? null : cause.toString(), cause, true, false);
     }
 
     /**
@@ -38,10 +44,23 @@ public class ValidationException extends Exception {
      * @param lineNumber the line number in the document where the error occurred
      */
     public ValidationException(String message, int lineNumber) {
-        super(message);
+        super(message, null, true, false);
         this.lineNumber = lineNumber;
     }
 
+    /**
+     * Creates a new ValidationException with the given message, line number and location.
+     *
+     * @param message description of the validation error
+     * @param lineNumber the line number in the document where the error occurred, or -1 if unknown
+     * @param location XPath like location of the element where the error occurred
+     */
+    public ValidationException(String message, int lineNumber, String location) {
+        super(message, null, true, false);
+        this.lineNumber = lineNumber;
+        this.location = location;
+    }
+
     /**
      * Creates a new ValidationException with the given message and cause.
      *
@@ -49,7 +68,19 @@ public class ValidationException extends Exception {
      * @param cause the underlying cause of this exception
      */
     public ValidationException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, true, false);
+    }
+
+    /**
+     * Creates a new ValidationException with the given message, line number and cause.
+     *
+     * @param message description of the validation error
+     * @param lineNumber the line number in the document where the error occurred
+     * @param cause the underlying cause of this exception
+     */
+    public ValidationException(String message, int lineNumber, Throwable cause) {
+        super(message, cause, true, false);
+        this.lineNumber = lineNumber;
     }
 
     /**
@@ -61,4 +92,14 @@ public class ValidationException extends Exception {
         return lineNumber;
     }
 
+    /**
+     * Returns an XPath like location of the element where the validation error occurred,
+     * e.g. <code>/mets:mets/mets:structMap[2]/mets:div[@ID='log_1']</code>.
+     *
+     * @return the location, or null if unknown
+     */
+    public String getLocation() {
+        return location;
+    }
+
 }
@@ -0,0 +1,151 @@
+package org.mycore.mets.validator.validators;
+
+import org.jdom2.Element;
+import org.mycore.mets.validator.ValidatorUtil;
+
+/**
+ * A single problem found by a validator. Unlike a {@link ValidationException} an issue is a plain
+ * value object, creating one does not capture a stack trace.
+ * <p>
+ * The code identifies the rule which was violated. Codes of the built-in validators are of the
+ * form <code>section.rule</code>, e.g. <code>physical.page.type</code>, and are stable, so they can
+ * be used to filter or count issues. The message is meant for humans and may change.
+ */
+public final class ValidationIssue {
+
+    private final Severity severity;
+
+    private final String code;
+
+    private final String message;
+
+    private final int lineNumber;
+
+    private final String location;
+
+    private final String id;
+
+    /**
+     * Creates a new issue.
+     *
+     * @param severity the severity
+     * @param code the code of the violated rule
+     * @param message description of the problem
+     * @param lineNumber the line number in the document, or -1 if unknown
+     * @param location XPath like location of the element, or null if unknown
+     * @param id the @ID of the element, or null
+     */
+    public ValidationIssue(Severity severity, String code, String message, int lineNumber, String location,
+        String id) {
+        this.severity = severity;
+        this.code = code;
+        this.message = message;
+        this.lineNumber = lineNumber;
+        this.location = location;
+        this.id = id;
+    }
+
+    /**
+     * Creates a new issue for the given element. Line number, location and ID are taken from the element.
+     *
+     * @param severity the severity
+     * @param code the code of the violated rule
+     * @param element the element where the problem appeared
+     * @param message description of the problem
+     * @return the new issue
+     */
+    public static ValidationIssue of(Severity severity, String code, Element element, String message) {
+        return new ValidationIssue(severity, code, message, ValidatorUtil.getLine(element),
+            ValidatorUtil.getLocation(element),
+            element.getAttributeValue("ID"));
+    }
+
+    /**
+     * Creates a new error from a validation exception, used for validators which only throw exceptions.
+     *
+     * @param code the code of the violated rule
+     * @param exception the exception
+     * @return the new issue
+     */
+    public static ValidationIssue of(String code, ValidationException exception) {
+        return new ValidationIssue(Severity.ERROR, code, exception.getMessage(), exception.getLineNumber(),
+            exception.getLocation(), null);
+    }
+
+    /**
+     * Returns the severity.
+     *
+     * @return the severity
+     */
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    /**
+     * Returns the code of the violated rule.
+     *
+     * @return the rule code
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the description of the problem.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the line number where the problem occurred.
+     *
+     * @return the line number, or -1 if unknown
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Returns an XPath like location of the element where the problem occurred.
+     *
+     * @return the location, or null if unknown
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Returns the @ID of the element where the problem occurred.
+     *
+     * @return the ID, or null if the element has none
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Converts this issue to a {@link ValidationException}.
+     *
+     * @return a new exception with the message, line number and location of this issue
+     */
+    public ValidationException toException() {
+        return new ValidationException(message, lineNumber, location);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append(severity).append(" [").append(code).append("] ")
+            .append(message);
+        if (lineNumber != -1) {
+            builder.append(" (line ").append(lineNumber).append(')');
+        }
+        if (location != null) {
+            builder.append(" at ").append(location);
+        }
+        return builder.toString();
+    }
+
+}
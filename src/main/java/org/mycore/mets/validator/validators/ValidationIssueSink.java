@@ -0,0 +1,265 @@
+package org.mycore.mets.validator.validators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.jdom2.Element;
+
+/**
+ * Collects the {@link ValidationIssue}s of a validation run. Validators report every problem they
+ * find and go on, so a single run shows all problems of a document.
+ * <p>
+ * The number of errors kept is capped. Once the sink is full, further issues are only counted,
+ * not created, and validators should stop as soon as {@link #isFull()} returns true. Warnings and
+ * infos are kept while there are fewer issues than the cap, but they never fill the sink, so a
+ * warning cannot stop a validation before an error is found. A sink with a cap of one gives the
+ * behavior of the exception based {@link Validator#validate(ValidationContext)}.
+ * <p>
+ * A sink can be shared by multiple threads.
+ */
+public class ValidationIssueSink {
+
+    /** The cap used by {@link #ValidationIssueSink()}. */
+    public static final int DEFAULT_MAX_ISSUES = 1000;
+
+    private final int maxIssues;
+
+    private final List<ValidationIssue> issues = new ArrayList<>();
+
+    private int errors;
+
+    private long droppedIssues;
+
+    private volatile boolean full;
+
+    /**
+     * Creates a new sink which keeps up to {@link #DEFAULT_MAX_ISSUES} issues.
+     */
+    public ValidationIssueSink() {
+        this(DEFAULT_MAX_ISSUES);
+    }
+
+    /**
+     * Creates a new sink.
+     *
+     * @param maxIssues the maximum number of errors to keep
+     */
+    public ValidationIssueSink(int maxIssues) {
+        if (maxIssues < 1) {
+            throw new IllegalArgumentException("maxIssues has to be at least 1: " + maxIssues);
+        }
+        this.maxIssues = maxIssues;
+    }
+
+    /**
+     * Records the given issue.
+     *
+     * @param issue the issue to record
+     * @return false if the sink is full and the issue was dropped
+     */
+    public synchronized boolean report(ValidationIssue issue) {
+        boolean error = issue.getSeverity() == Severity.ERROR;
+        if (error ? errors >= maxIssues : issues.size() >= maxIssues) {
+            droppedIssues++;
+            return false;
+        }
+        issues.add(issue);
+        if (error) {
+            full = ++errors >= maxIssues;
+        }
+        return true;
+    }
+
+    /**
+     * Records an error at the given element.
+     *
+     * @param code the code of the violated rule
+     * @param element the element where the error appeared
+     * @param message description of the error
+     * @return false if the sink is full and the error was dropped
+     */
+    public boolean error(String code, Element element, String message) {
+        return report(Severity.ERROR, code, element, message);
+    }
+
+    /**
+     * Records an error which does not belong to a single element.
+     *
+     * @param code the code of the violated rule
+     * @param message description of the error
+     * @return false if the sink is full and the error was dropped
+     */
+    public boolean error(String code, String message) {
+        if (isFull()) {
+            return drop();
+        }
+        return report(new ValidationIssue(Severity.ERROR, code, message, -1, null, null));
+    }
+
+    /**
+     * Records a warning at the given element.
+     *
+     * @param code the code of the violated rule
+     * @param element the element where the problem appeared
+     * @param message description of the problem
+     * @return false if the sink is full and the warning was dropped
+     */
+    public boolean warning(String code, Element element, String message) {
+        return report(Severity.WARNING, code, element, message);
+    }
+
+    private boolean report(Severity severity, String code, Element element, String message) {
+        if (isFull()) {
+            return drop();
+        }
+        return report(ValidationIssue.of(severity, code, element, message));
+    }
+
+    private synchronized boolean drop() {
+        droppedIssues++;
+        return false;
+    }
+
+    /**
+     * Checks if the cap of errors is reached. Validators should stop when this returns true. This is a
+     * single volatile read, so it can be called for every element.
+     *
+     * @return true if no more issues are kept
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Checks if no issue was reported.
+     *
+     * @return true if there are no issues
+     */
+    public synchronized boolean isEmpty() {
+        return issues.isEmpty();
+    }
+
+    /**
+     * Returns the recorded issues in the order they were reported.
+     *
+     * @return a copy of the issues
+     */
+    public synchronized List<ValidationIssue> getIssues() {
+        return new ArrayList<>(issues);
+    }
+
+    /**
+     * Returns the number of issues which were reported after the sink was full. Validators stop
+     * when the sink is full, so this is a lower bound.
+     *
+     * @return the number of dropped issues
+     */
+    public synchronized long getDroppedIssues() {
+        return droppedIssues;
+    }
+
+    /**
+     * Returns the maximum number of errors this sink keeps.
+     *
+     * @return the cap
+     */
+    public int getMaxIssues() {
+        return maxIssues;
+    }
+
+    /**
+     * Throws the first recorded error as a {@link ValidationException}. Does nothing if there is no error.
+     *
+     * @throws ValidationException the first error
+     */
+    public synchronized void throwFirstError() throws ValidationException {
+        for (ValidationIssue issue : issues) {
+            if (issue.getSeverity() == Severity.ERROR) {
+                throw issue.toException();
+            }
+        }
+    }
+
+    /**
+     * Returns a view of this sink which records into this sink and additionally passes every
+     * recorded issue to the observer. Dropped issues are not passed. Used to find out which
+     * validator reported an issue to a shared sink.
+     *
+     * @param observer receives each recorded issue, called by the reporting thread
+     * @return the observing view
+     */
+    public ValidationIssueSink observe(Consumer<ValidationIssue> observer) {
+        return new ObservingSink(this, observer);
+    }
+
+    /**
+     * Forwards everything to the target sink.
+     */
+    private static final class ObservingSink extends ValidationIssueSink {
+
+        private final ValidationIssueSink target;
+
+        private final Consumer<ValidationIssue> observer;
+
+        ObservingSink(ValidationIssueSink target, Consumer<ValidationIssue> observer) {
+            super(target.getMaxIssues());
+            this.target = target;
+            this.observer = observer;
+        }
+
+        @Override
+        public boolean report(ValidationIssue issue) {
+            if (!target.report(issue)) {
+                return false;
+            }
+            observer.accept(issue);
+            return true;
+        }
+
+        @Override
+        public boolean error(String code, Element element, String message) {
+            return target.isFull() ? target.drop()
+                : report(ValidationIssue.of(Severity.ERROR, code, element, message));
+        }
+
+        @Override
+        public boolean error(String code, String message) {
+            return target.isFull() ? target.drop()
+                : report(new ValidationIssue(Severity.ERROR, code, message, -1, null, null));
+        }
+
+        @Override
+        public boolean warning(String code, Element element, String message) {
+            return target.isFull() ? target.drop()
+                : report(ValidationIssue.of(Severity.WARNING, code, element, message));
+        }
+
+        @Override
+        public boolean isFull() {
+            return target.isFull();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return target.isEmpty();
+        }
+
+        @Override
+        public List<ValidationIssue> getIssues() {
+            return target.getIssues();
+        }
+
+        @Override
+        public long getDroppedIssues() {
+            return target.getDroppedIssues();
+        }
+
+        @Override
+        public void throwFirstError() throws ValidationException {
+            target.throwFirstError();
+        }
+
+    }
+
+}
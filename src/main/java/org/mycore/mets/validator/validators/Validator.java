@@ -1,5 +1,8 @@
 package org.mycore.mets.validator.validators;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import org.jdom2.Document;
 
 /**
@@ -18,4 +21,88 @@ public interface Validator {
      */
     void validate(Document document) throws ValidationException;
 
+    /**
+     * Validates the document of the given context. The context is shared by all validators
+     * of one validation run and provides indexes of the document, so implementations should
+     * prefer it over walking the tree again.
+     * <p>
+     * The default implementation delegates to {@link #validate(Document)}, so validators
+     * which only implement that method keep working.
+     *
+     * @param context the per document validation context
+     * @throws ValidationException is thrown when the document is invalid
+     */
+    default void validate(ValidationContext context) throws ValidationException {
+        validate(context.getDocument());
+    }
+
+    /**
+     * Validates the document of the given context and reports all problems to the sink instead
+     * of stopping at the first one. Implementations should stop when {@link ValidationIssueSink#isFull()}
+     * returns true.
+     * <p>
+     * The default implementation delegates to {@link #validate(ValidationContext)} and reports
+     * the thrown exception, if any, with the simple class name of the validator as code. So
+     * validators which do not implement this method report at most one issue.
+     *
+     * @param context the per document validation context
+     * @param sink the sink to report issues to
+     */
+    default void validate(ValidationContext context, ValidationIssueSink sink) {
+        try {
+            validate(context);
+        } catch (ValidationException validationException) {
+            sink.report(ValidationIssue.of(getClass().getSimpleName(), validationException));
+        }
+    }
+
+    /**
+     * Returns the relative cost of this validator. The fail-fast mode of the
+     * {@link org.mycore.mets.validator.METSValidator} runs cheap validators first. The built-in
+     * validators range from 10 for the section checks up to 100 for the schema validation.
+     *
+     * @return the relative cost, 50 by default
+     */
+    default int getCost() {
+        return 50;
+    }
+
+    /**
+     * Returns the sections of the document this validator reads. The incremental mode of the
+     * {@link org.mycore.mets.validator.METSValidator} runs a validator again only if one of them
+     * has changed since the last run. Validators which check references between sections have to
+     * return all of them.
+     *
+     * @return the sections read, all sections by default
+     */
+    default Set<Section> getSections() {
+        return EnumSet.allOf(Section.class);
+    }
+
+    /**
+     * Returns the validators which have to succeed before this one runs. If one of them reports
+     * an error, the {@link org.mycore.mets.validator.METSValidator} skips this validator instead
+     * of reporting the consequences of that error again, e.g. the smLinks of a broken struct map.
+     * Independent validators run concurrently in the parallel mode. Every validator of the
+     * validation run which is an instance of a returned class is a prerequisite, classes without
+     * an instance are ignored. The prerequisites must not be cyclic.
+     *
+     * @return the classes of the prerequisites, none by default
+     */
+    default Set<Class<? extends Validator>> getPrerequisites() {
+        return Set.of();
+    }
+
+    /**
+     * Returns a string which identifies this validator and its configuration. Caches of
+     * validation reports include it in their key, see {@link org.mycore.mets.validator.ValidationCache}.
+     * Validators which can be configured have to include their configuration, and should include
+     * a version which is increased when their rules change.
+     *
+     * @return the fingerprint, the class name by default
+     */
+    default String getFingerprint() {
+        return getClass().getName();
+    }
+
 }
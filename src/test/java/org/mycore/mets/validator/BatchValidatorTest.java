@@ -0,0 +1,109 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.mets.validator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mycore.mets.validator.validators.SchemaValidator;
+
+public class BatchValidatorTest {
+
+    @Test
+    public void testDirectory(@TempDir Path directory) throws IOException, InterruptedException {
+        String mets;
+        try (InputStream is = BatchValidatorTest.class.getResourceAsStream("/jvb_mets.xml")) {
+            mets = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Path subDirectory = Files.createDirectory(directory.resolve("sub"));
+        for (int i = 0; i < 10; i++) {
+            Files.writeString((i % 2 == 0 ? directory : subDirectory).resolve(i + ".xml"), mets);
+        }
+        Files.writeString(directory.resolve("invalid.xml"), mets.replace("TYPE=\"physSequence\"", "TYPE=\"seq\""));
+        Files.writeString(directory.resolve("broken.xml"), mets.substring(0, 1000));
+        Files.writeString(directory.resolve("ignored.txt"), "not a mets file");
+
+        BatchValidator batchValidator = new BatchValidator(3);
+        batchValidator.getValidators().removeIf(SchemaValidator.class::isInstance);
+        List<BatchValidator.Result> results = new ArrayList<>();
+        BatchValidator.Statistics statistics = batchValidator.validate(directory, results::add);
+
+        Assertions.assertEquals(12, results.size());
+        Assertions.assertEquals(12, statistics.getFiles());
+        Assertions.assertEquals(2, statistics.getInvalidFiles());
+        Assertions.assertEquals(results.stream().mapToLong(BatchValidator.Result::getSize).sum(),
+            statistics.getBytes());
+        for (BatchValidator.Result result : results) {
+            Assertions.assertEquals(Files.size(result.getPath()), result.getSize());
+            String fileName = result.getPath().getFileName().toString();
+            switch (fileName) {
+                case "invalid.xml" -> Assertions.assertEquals(1, result.getErrors().size());
+                case "broken.xml" -> Assertions.assertNotNull(result.getException());
+                default -> Assertions.assertTrue(result.isValid(), fileName + ": " + result.getErrors());
+            }
+        }
+        Assertions.assertEquals(12, statistics.getLatency().getCount());
+        Assertions.assertTrue(statistics.getLatency().getPercentile(50) <= statistics.getLatency().getPercentile(99));
+        Assertions.assertTrue(statistics.getFilesPerSecond() > 0);
+    }
+
+    @Test
+    public void testConsumerException(@TempDir Path directory) throws IOException {
+        String mets;
+        try (InputStream is = BatchValidatorTest.class.getResourceAsStream("/jvb_mets.xml")) {
+            mets = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        for (int i = 0; i < 20; i++) {
+            Files.writeString(directory.resolve(i + ".xml"), mets);
+        }
+        BatchValidator batchValidator = new BatchValidator(2);
+        batchValidator.getValidators().removeIf(SchemaValidator.class::isInstance);
+        AtomicInteger calls = new AtomicInteger();
+        IllegalStateException exception = Assertions.assertThrows(IllegalStateException.class,
+            () -> batchValidator.validate(directory, result -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException("consumer failed");
+            }));
+        Assertions.assertEquals("consumer failed", exception.getMessage());
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        Assertions.assertEquals(1000, histogram.getCount());
+        Assertions.assertEquals(500_500, histogram.getMean());
+        Assertions.assertEquals(500_000, histogram.getPercentile(50), 500_000 / 16d);
+        Assertions.assertEquals(990_000, histogram.getPercentile(99), 990_000 / 16d);
+        Assertions.assertEquals(1000, histogram.getPercentile(0), 1000 / 16d);
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.mets.validator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IdTableTest {
+
+    @Test
+    public void testIdTable() {
+        IdTable table = new IdTable();
+        for (int i = 0; i < 10000; i++) {
+            Assertions.assertEquals(i, table.intern("phys_" + i));
+        }
+        Assertions.assertEquals(10000, table.size());
+        Assertions.assertEquals(1234, table.intern("phys_1234"));
+        Assertions.assertEquals(9999, table.indexOf("phys_9999"));
+        Assertions.assertEquals(-1, table.indexOf("log_1"));
+        Assertions.assertEquals("phys_42", table.get(42));
+        Assertions.assertFalse(table.add("phys_42"));
+        Assertions.assertTrue(table.add("log_1"));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> table.get(10001));
+    }
+
+    @Test
+    public void testIdSet() {
+        IdTable table = new IdTable();
+        IdSet physicalIds = new IdSet(table);
+        IdSet linkedIds = new IdSet(table);
+        physicalIds.addAll(List.of("phys_3", "phys_1", "phys_2", "phys_1"));
+        linkedIds.add("phys_2");
+        Assertions.assertEquals(List.of("phys_3", "phys_1", "phys_2"), List.copyOf(physicalIds));
+        Assertions.assertEquals(Set.of("phys_1", "phys_2", "phys_3"), physicalIds);
+        Assertions.assertTrue(linkedIds.contains("phys_2"));
+        Assertions.assertFalse(linkedIds.contains("phys_1"));
+        Assertions.assertFalse(linkedIds.contains("phys_4"));
+        Assertions.assertEquals(3, table.size());
+    }
+
+    @Test
+    public void testSmLinkTable() {
+        IdTable table = new IdTable();
+        table.intern("phys_1");
+        SmLinkTable smLinks = new SmLinkTable.Builder(table)
+            .add("log_2", "phys_2")
+            .add("log_1", "phys_1")
+            .add("log_2", "phys_3")
+            .add("log_2", "phys_2")
+            .build();
+        Assertions.assertEquals(Map.of("log_1", Set.of("phys_1"), "log_2", Set.of("phys_2", "phys_3")), smLinks);
+        Assertions.assertEquals(List.of("log_2", "log_1"), List.copyOf(smLinks.keySet()));
+        Assertions.assertEquals(List.of("phys_2", "phys_3"), List.copyOf(smLinks.get("log_2")));
+        Assertions.assertEquals(3, smLinks.getLinkCount());
+        Assertions.assertTrue(smLinks.containsKey("log_1"));
+        Assertions.assertFalse(smLinks.containsKey("phys_1"));
+        Assertions.assertNull(smLinks.get("log_3"));
+        Assertions.assertTrue(smLinks.hasLinks(table.indexOf("log_2")));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> smLinks.put("log_3", Set.of()));
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mycore.mets.validator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.filter.Filters;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.XMLOutputter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mycore.mets.validator.stream.StreamingMETSValidator;
+import org.mycore.mets.validator.validators.FileSectionValidator;
+import org.mycore.mets.validator.validators.LogicalStructMapValidator;
+import org.mycore.mets.validator.validators.PackageFileValidator;
+import org.mycore.mets.validator.validators.PhysicalStructureValidator;
+import org.mycore.mets.validator.validators.StructLinkValidator;
+import org.mycore.mets.validator.validators.ValidationException;
+
+public class METSPackageTest {
+
+    @Test
+    public void testZipPackage(@TempDir Path directory) throws IOException, JDOMException,
+        NoSuchAlgorithmException, XMLStreamException {
+        Map<String, byte[]> entries = buildPackage("sip/");
+        Path zip = writeZip(directory.resolve("sip.zip"), entries);
+        try (METSPackage metsPackage = METSPackage.open(zip)) {
+            Assertions.assertTrue(metsPackage.isArchive());
+            Assertions.assertEquals("/sip/mets.xml", metsPackage.getMetsFile().toString());
+            Assertions.assertEquals(List.of(), validate(metsPackage));
+            Assertions.assertEquals(List.of(), new StreamingMETSValidator(metsPackage.getMetsFile()).validate());
+            // the entry is streamed, not copied into buffers
+            try (InputStream in = MappedFileInput.newInputStream(metsPackage.getMetsFile())) {
+                Assertions.assertFalse(in.getClass().getName().startsWith(MappedFileInput.class.getName()));
+            }
+        }
+
+        entries.remove("sip/JVB_18920529_125_167758667_B1_002.tif");
+        writeZip(zip, entries);
+        try (METSPackage metsPackage = METSPackage.open(zip)) {
+            List<ValidationException> errors = validate(metsPackage);
+            Assertions.assertEquals(1, errors.size());
+            Assertions.assertTrue(errors.get(0).getMessage().contains("does not exist"), errors.get(0).getMessage());
+        }
+    }
+
+    @Test
+    public void testBagItPackage(@TempDir Path directory) throws IOException, JDOMException,
+        NoSuchAlgorithmException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("bagit.txt", "BagIt-Version: 1.0\n".getBytes(StandardCharsets.UTF_8));
+        entries.put("other_mets.xml", new byte[0]);
+        entries.putAll(buildPackage("data/"));
+        try (METSPackage metsPackage = METSPackage.open(writeZip(directory.resolve("bag.zip"), entries))) {
+            Assertions.assertEquals("/data/mets.xml", metsPackage.getMetsFile().toString());
+            Assertions.assertEquals(List.of(), validate(metsPackage));
+        }
+
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            Path path = directory.resolve("bag").resolve(entry.getKey());
+            Files.createDirectories(path.getParent());
+            Files.write(path, entry.getValue());
+        }
+        try (METSPackage metsPackage = METSPackage.open(directory.resolve("bag"))) {
+            Assertions.assertFalse(metsPackage.isArchive());
+            Assertions.assertEquals(directory.resolve("bag/data").toAbsolutePath(), metsPackage.getBaseDirectory());
+            Assertions.assertEquals(List.of(), validate(metsPackage));
+        }
+    }
+
+    @Test
+    public void testNoMets(@TempDir Path directory) throws IOException {
+        Path zip = writeZip(directory.resolve("empty.zip"), Map.of("alto/page.xml", new byte[0]));
+        Assertions.assertThrows(NoSuchFileException.class, () -> METSPackage.open(zip));
+        Assertions.assertThrows(NoSuchFileException.class, () -> METSPackage.open(directory.resolve("missing.zip")));
+        Path text = Files.writeString(directory.resolve("mets.txt"), "no archive");
+        IOException exception = Assertions.assertThrows(IOException.class, () -> METSPackage.open(text));
+        Assertions.assertFalse(exception instanceof NoSuchFileException);
+    }
+
+    private List<ValidationException> validate(METSPackage metsPackage) throws IOException, JDOMException {
+        return new METSValidationEngine.Builder()
+            .addValidators(List.of(new FileSectionValidator(), new PhysicalStructureValidator(),
+                new LogicalStructMapValidator(), new StructLinkValidator()))
+            .addValidator(new PackageFileValidator(metsPackage.getBaseDirectory(), 2))
+            .build()
+            .validate(metsPackage.getMetsFile());
+    }
+
+    /**
+     * Returns the entries of a package with the jvb mets, which has the size and checksum of each
+     * file, and the files. The first file is larger than the read buffers.
+     */
+    private Map<String, byte[]> buildPackage(String prefix) throws IOException, JDOMException,
+        NoSuchAlgorithmException {
+        Document document;
+        try (InputStream is = METSPackageTest.class.getResourceAsStream("/jvb_mets.xml")) {
+            document = new SAXBuilder().build(is);
+        }
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (Element file : document.getDescendants(Filters.element("file", ValidatorUtil.METS))) {
+            String href = file.getChild("FLocat", ValidatorUtil.METS).getAttributeValue("href", ValidatorUtil.XLINK);
+            byte[] content = ("content of " + href).repeat(entries.isEmpty() ? 10_000 : 1)
+                .getBytes(StandardCharsets.UTF_8);
+            entries.put(prefix + href, content);
+            file.setAttribute("SIZE", String.valueOf(content.length));
+            file.setAttribute("CHECKSUMTYPE", "SHA-256");
+            file.setAttribute("CHECKSUM", HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)));
+        }
+        entries.put(prefix + "mets.xml", new XMLOutputter().outputString(document).getBytes(StandardCharsets.UTF_8));
+        return entries;
+    }
+
+    private Path writeZip(Path zip, Map<String, byte[]> entries) throws IOException {
+        try (OutputStream out = Files.newOutputStream(zip); ZipOutputStream zipOut = new ZipOutputStream(out)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zipOut.putNextEntry(new ZipEntry(entry.getKey()));
+                zipOut.write(entry.getValue());
+                zipOut.closeEntry();
+            }
+        }
+        return zip;
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mycore.mets.validator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jdom2.JDOMException;
+import org.jdom2.located.LocatedElement;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mycore.mets.validator.validators.FileSectionValidator;
+import org.mycore.mets.validator.validators.LogicalStructMapValidator;
+import org.mycore.mets.validator.validators.PhysicalStructureValidator;
+import org.mycore.mets.validator.validators.StructLinkValidator;
+import org.mycore.mets.validator.validators.ValidationException;
+
+public class METSValidationEngineTest {
+
+    @Test
+    public void testConcurrentDocuments() throws Exception {
+        byte[] valid;
+        try (InputStream is = METSValidationEngineTest.class.getResourceAsStream("/jvb_mets.xml")) {
+            valid = is.readAllBytes();
+        }
+        byte[] invalid = new String(valid, StandardCharsets.UTF_8)
+            .replace("TYPE=\"physSequence\"", "TYPE=\"seq\"").getBytes(StandardCharsets.UTF_8);
+        ValidationStatistics statistics = new ValidationStatistics();
+        METSValidationEngine engine = new METSValidationEngine.Builder()
+            .addValidators(List.of(new FileSectionValidator(), new PhysicalStructureValidator(),
+                new LogicalStructMapValidator(), new StructLinkValidator()))
+            .addListener(statistics)
+            .build();
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> engine.getValidators().clear());
+
+        List<Future<List<ValidationException>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 40; i++) {
+                byte[] mets = i % 2 == 0 ? valid : invalid;
+                results.add(executor.submit(() -> engine.validate(new ByteArrayInputStream(mets))));
+            }
+        }
+        for (int i = 0; i < results.size(); i++) {
+            List<ValidationException> errors = results.get(i).get();
+            if (i % 2 == 0) {
+                Assertions.assertEquals(List.of(), errors);
+            } else {
+                Assertions.assertEquals(1, errors.size());
+                Assertions.assertEquals(37, errors.get(0).getLineNumber());
+            }
+        }
+        Assertions.assertEquals(40, statistics.getParseLatency().getCount());
+        Assertions.assertEquals(20L * (valid.length + invalid.length), statistics.getParsedBytes());
+        // skipped for the invalid documents, their physical struct map is broken
+        Assertions.assertEquals(20, statistics.getValidatorStatistics(StructLinkValidator.class).getLatency()
+            .getCount());
+        Assertions.assertEquals(20, statistics.getValidatorStatistics(StructLinkValidator.class).getSkipped());
+    }
+
+    @Test
+    public void testLineNumbers() throws IOException, JDOMException {
+        METSValidationEngine located = new METSValidationEngine.Builder().build();
+        METSValidationEngine lazy = new METSValidationEngine.Builder().lazyLineNumbers(true).build();
+        Assertions.assertEquals(List.of(), located.getValidators());
+        try (InputStream is = METSValidationEngineTest.class.getResourceAsStream("/jvb_mets.xml")) {
+            Assertions.assertNotNull(LineNumberTable.of(lazy.parse(is)));
+        }
+        try (InputStream is = METSValidationEngineTest.class.getResourceAsStream("/jvb_mets.xml")) {
+            Assertions.assertTrue(located.parse(is).getRootElement() instanceof LocatedElement);
+        }
+        METSValidationEngine secure = new METSValidationEngine.Builder().disallowDoctype(true).build();
+        byte[] doctype = "<!DOCTYPE mets [<!ENTITY a 'a'>]><mets/>".getBytes(StandardCharsets.UTF_8);
+        Assertions.assertThrows(JDOMException.class, () -> secure.parse(new ByteArrayInputStream(doctype)));
+        Assertions.assertNotNull(lazy.parse(new ByteArrayInputStream(doctype)));
+    }
+
+}
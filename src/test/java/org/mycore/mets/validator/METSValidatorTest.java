@@ -18,14 +18,51 @@
 
 package org.mycore.mets.validator;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
 
+import org.jdom2.Document;
+import org.jdom2.Element;
 import org.jdom2.JDOMException;
+import org.jdom2.filter.Filters;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.located.LocatedElement;
+import org.jdom2.located.LocatedJDOMFactory;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mycore.mets.validator.validators.AltoContentValidator;
+import org.mycore.mets.validator.validators.AltoValidator;
+import org.mycore.mets.validator.validators.FileSectionValidator;
+import org.mycore.mets.validator.validators.LogicalStructMapValidator;
+import org.mycore.mets.validator.validators.PackageFileValidator;
+import org.mycore.mets.validator.validators.PhysicalStructureValidator;
+import org.mycore.mets.validator.validators.SchemaValidator;
+import org.mycore.mets.validator.validators.Section;
+import org.mycore.mets.validator.validators.Severity;
+import org.mycore.mets.validator.validators.StructLinkValidator;
+import org.mycore.mets.validator.validators.ValidationContext;
 import org.mycore.mets.validator.validators.ValidationException;
+import org.mycore.mets.validator.validators.ValidationIssue;
+import org.mycore.mets.validator.validators.ValidationIssueSink;
+import org.mycore.mets.validator.validators.Validator;
 
 public class METSValidatorTest {
 
@@ -43,4 +80,536 @@ public class METSValidatorTest {
         }
     }
 
+    @Test
+    public void testDocumentLocation() throws IOException, JDOMException {
+        Document document = new SAXBuilder().build(METSValidatorTest.class.getResourceAsStream("/jvb_mets.xml"));
+        Element mets = document.getRootElement();
+        Element page = ValidatorUtil.getPhysicalStructMap(mets).getChild("div", ValidatorUtil.METS)
+            .getChildren("div", ValidatorUtil.METS).get(1);
+        page.getChild("fptr", ValidatorUtil.METS).removeAttribute("FILEID");
+
+        METSValidator validator = new METSValidator(document);
+        validator.getValidators().removeIf(v -> !(v instanceof PhysicalStructureValidator));
+        List<ValidationException> errors = validator.validate();
+        Assertions.assertEquals(1, errors.size());
+        Assertions.assertEquals(-1, errors.get(0).getLineNumber());
+        Assertions.assertEquals("/mets:mets/mets:structMap[1]/mets:div[@ID='" + page.getParentElement()
+            .getAttributeValue("ID") + "']/mets:div[@ID='" + page.getAttributeValue("ID") + "']/mets:fptr[1]",
+            errors.get(0).getLocation());
+    }
+
+    @Test
+    public void testStructLinkChildren() throws IOException, JDOMException {
+        Document document = new SAXBuilder().build(METSValidatorTest.class.getResourceAsStream("/jvb_mets.xml"));
+        Element structLink = document.getRootElement().getChild("structLink", ValidatorUtil.METS);
+        // parents without own links are valid as long as one of their descendants is linked
+        structLink.getChildren().removeIf(smLink -> smLink.getAttributeValue("from", ValidatorUtil.XLINK)
+            .startsWith("jportal_jpvolume_"));
+        Assertions.assertDoesNotThrow(() -> new StructLinkValidator().validate(new ValidationContext(document)));
+
+        structLink.getChildren().removeIf(smLink -> smLink.getAttributeValue("from", ValidatorUtil.XLINK)
+            .equals("jportal_jparticle_01515003"));
+        ValidationException error = Assertions.assertThrows(ValidationException.class,
+            () -> new StructLinkValidator().validate(new ValidationContext(document)));
+        Assertions.assertEquals("Some logical elements are not linked: [jportal_jparticle_01515003]",
+            error.getMessage());
+    }
+
+    @Test
+    public void testAltoReferences() throws IOException, JDOMException {
+        Document document = new SAXBuilder().build(METSValidatorTest.class.getResourceAsStream("/jvb_mets.xml"));
+        Assertions.assertDoesNotThrow(() -> new AltoValidator().validate(document));
+
+        Element logicalStructMap = ValidatorUtil.getLogicalStructMap(document.getRootElement());
+        List<Element> areas = new ArrayList<>();
+        logicalStructMap.getDescendants(Filters.element("area", ValidatorUtil.METS)).forEach(areas::add);
+        areas.stream()
+            .filter(area -> area.getAttributeValue("FILEID").matches(".*_00[34]"))
+            .forEach(Element::detach);
+        ValidationException error = Assertions.assertThrows(ValidationException.class,
+            () -> new AltoValidator().validate(document));
+        Assertions.assertEquals("Unable to find the alto ids [ALTO_JVB_18920529_125_167758667_B1_003, "
+            + "ALTO_JVB_18920529_125_167758667_B1_004] in the logical struct map.", error.getMessage());
+    }
+
+    @Test
+    public void testParallel() throws IOException, JDOMException {
+        Document document = new SAXBuilder().build(METSValidatorTest.class.getResourceAsStream("/jvb_mets.xml"));
+        Element mets = document.getRootElement();
+        mets.getDescendants(Filters.element("file", ValidatorUtil.METS)).iterator().next()
+            .removeAttribute("MIMETYPE");
+        mets.getDescendants(Filters.element("fptr", ValidatorUtil.METS)).iterator().next()
+            .removeAttribute("FILEID");
+        mets.getChild("structLink", ValidatorUtil.METS).getChildren()
+            .removeIf(smLink -> smLink.getAttributeValue("to", ValidatorUtil.XLINK).endsWith("_004"));
+        mets.getDescendants(Filters.element("area", ValidatorUtil.METS)).iterator().next().detach();
+        METSValidator validator = new METSValidator(document);
+        validator.getValidators().removeIf(SchemaValidator.class::isInstance);
+        validator.getValidators().add(new AltoValidator());
+
+        // the StructLinkValidator is skipped because the PhysicalStructureValidator fails
+        List<String> expected = validator.validate().stream().map(ValidationException::getMessage).toList();
+        Assertions.assertEquals(3, expected.size(), expected.toString());
+        Assertions.assertEquals(expected,
+            validator.validateParallel().stream().map(ValidationException::getMessage).toList());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 20; i++) {
+                Assertions.assertEquals(expected,
+                    validator.validateParallel(executor).stream().map(ValidationException::getMessage).toList());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDocumentHook() throws IOException, JDOMException {
+        Document document = new SAXBuilder().build(METSValidatorTest.class.getResourceAsStream("/jvb_mets.xml"));
+        document.getRootElement().getDescendants(Filters.element("file", ValidatorUtil.METS)).iterator().next()
+            .removeAttribute("MIMETYPE");
+        List<String> called = new ArrayList<>();
+        METSValidator validator = new METSValidator(document) {
+            @Override
+            protected void validate(Validator validator, Document document, List<ValidationException> errorList) {
+                called.add(validator.getClass().getSimpleName());
+                if (!(validator instanceof FileSectionValidator)) {
+                    super.validate(validator, document, errorList);
+                }
+            }
+        };
+        validator.getValidators().removeIf(SchemaValidator.class::isInstance);
+        Assertions.assertEquals(List.of(), validator.validate());
+        Assertions.assertEquals(List.of("FileSectionValidator", "PhysicalStructureValidator",
+            "LogicalStructMapValidator", "StructLinkValidator"), called);
+        Assertions.assertEquals(List.of(), validator.validateParallel());
+    }
+
+    @Test
+    public void testIssueSink() throws IOException, JDOMException {
+        Document document = new SAXBuilder().build(METSValidatorTest.class.getResourceAsStream("/jvb_mets.xml"));
+        Element mets = document.getRootElement();
+        List<Element> files = new ArrayList<>();
+        mets.getDescendants(Filters.element("file", ValidatorUtil.METS)).forEach(files::add);
+        files.forEach(file -> file.removeAttribute("MIMETYPE"));
+        List<Element> fptrs = new ArrayList<>();
+        ValidatorUtil.getPhysicalStructMap(mets).getDescendants(Filters.element("fptr", ValidatorUtil.METS))
+            .forEach(fptrs::add);
+        fptrs.subList(0, 2).forEach(fptr -> fptr.removeAttribute("FILEID"));
+        METSValidator validator = new METSValidator(document);
+        validator.getValidators().removeIf(SchemaValidator.class::isInstance);
+
+        ValidationIssueSink sink = new ValidationIssueSink();
+        validator.validate(sink);
+        List<ValidationIssue> issues = sink.getIssues();
+        Assertions.assertEquals(files.size() + 2, issues.size(), issues.toString());
+        Assertions.assertEquals(files.size(),
+            issues.stream().filter(issue -> issue.getCode().equals("file.mimetype.missing")).count());
+        Assertions.assertEquals(List.of("physical.fptr.fileId", "physical.fptr.fileId"),
+            issues.subList(files.size(), files.size() + 2).stream().map(ValidationIssue::getCode).toList());
+        Assertions.assertEquals(Severity.ERROR, issues.get(0).getSeverity());
+        Assertions.assertNotNull(issues.get(0).getId());
+        Assertions.assertEquals(validator.validate().get(0).getMessage(), issues.get(0).getMessage());
+
+        sink = new ValidationIssueSink(3);
+        validator.validate(sink);
+        Assertions.assertEquals(3, sink.getIssues().size());
+        Assertions.assertTrue(sink.isFull());
+    }
+
+    @Test
+    public void testFailFast() throws IOException, JDOMException {
+        Document document = new SAXBuilder().build(METSValidatorTest.class.getResourceAsStream("/jvb_mets.xml"));
+        Element mets = document.getRootElement();
+        mets.getDescendants(Filters.element("file", ValidatorUtil.METS)).iterator().next()
+            .removeAttribute("MIMETYPE");
+        AtomicInteger expensiveRuns = new AtomicInteger();
+        METSValidator validator = new METSValidator(document);
+        validator.getValidators().removeIf(SchemaValidator.class::isInstance);
+        validator.getValidators().add(0, new Validator() {
+            @Override
+            public void validate(Document document) {
+                expensiveRuns.incrementAndGet();
+            }
+
+            @Override
+            public void validate(ValidationContext context, ValidationIssueSink sink) {
+                expensiveRuns.incrementAndGet();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (!sink.isFull() && System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+            }
+
+            @Override
+            public int getCost() {
+                return 1000;
+            }
+        });
+
+        List<ValidationException> errors = validator.validateFailFast();
+        Assertions.assertEquals(1, errors.size());
+        Assertions.assertEquals("mets:file has no @MIMETYPE.", errors.get(0).getMessage());
+        Assertions.assertEquals(0, expensiveRuns.get());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            long start = System.nanoTime();
+            errors = validator.validateFailFast(executor);
+            Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            Assertions.assertEquals(1, errors.size());
+            Assertions.assertEquals("mets:file has no @MIMETYPE.", errors.get(0).getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testListener() throws IOException, JDOMException {
+        byte[] mets;
+        try (InputStream is = METSValidatorTest.class.getResourceAsStream("/jvb_mets.xml")) {
+            mets = is.readAllBytes();
+        }
+        ValidationStatistics statistics = new ValidationStatistics();
+        METSValidator validator = new METSValidator(new ByteArrayInputStream(mets), statistics);
+        validator.getValidators().removeIf(SchemaValidator.class::isInstance);
+        Assertions.assertEquals(1, statistics.getParseLatency().getCount());
+        Assertions.assertEquals(mets.length, statistics.getParsedBytes());
+        Assertions.assertTrue(statistics.getParsedElements() > 100);
+        Assertions.assertEquals(List.of(), validator.validate());
+
+        // the same statistics for a broken document, which is validated twice
+        byte[] brokenMets = new String(mets, StandardCharsets.UTF_8)
+            .replace("<mets:fptr FILEID=\"MASTER_JVB_18920529_125_167758667_B1_001\" />", "<mets:fptr />")
+            .getBytes(StandardCharsets.UTF_8);
+        List<String> codes = new ArrayList<>();
+        validator = new METSValidator(new ByteArrayInputStream(brokenMets), statistics);
+        validator.getValidators().removeIf(SchemaValidator.class::isInstance);
+        validator.getListeners().add(new ValidationListener() {
+            @Override
+            public synchronized void issueFound(Validator validator, ValidationIssue issue) {
+                codes.add(issue.getCode());
+            }
+        });
+        Assertions.assertEquals(1, validator.validateParallel().size());
+        ValidationIssueSink sink = new ValidationIssueSink();
+        validator.validate(sink);
+
+        Assertions.assertEquals(2, statistics.getParseLatency().getCount());
+        Assertions.assertEquals(4, statistics.getValidatorStatistics().size());
+        for (ValidationStatistics.ValidatorStatistics validatorStatistics : statistics.getValidatorStatistics()) {
+            Assertions.assertEquals(3, validatorStatistics.getLatency().getCount() + validatorStatistics.getSkipped());
+        }
+        Assertions.assertEquals(1 + sink.getIssues().size(),
+            statistics.getValidatorStatistics(PhysicalStructureValidator.class).getIssues());
+        // skipped for the broken document, its prerequisite PhysicalStructureValidator failed
+        Assertions.assertEquals(2, statistics.getValidatorStatistics(StructLinkValidator.class).getSkipped());
+        Assertions.assertEquals(0, statistics.getValidatorStatistics(StructLinkValidator.class).getIssues());
+        Assertions.assertEquals(List.of("PhysicalStructureValidator", "physical.fptr.fileId"), codes);
+    }
+
+
+    @Test
+    public void testIncremental() throws IOException, JDOMException {
+        Document document = new SAXBuilder().build(METSValidatorTest.class.getResourceAsStream("/jvb_mets.xml"));
+        Element mets = document.getRootElement();
+        METSValidator validator = new METSValidator(document);
+        validator.getValidators().removeIf(SchemaValidator.class::isInstance);
+        ValidationResult result = validator.validateIncremental();
+        Assertions.assertTrue(result.isValid());
+        Assertions.assertEquals(EnumSet.allOf(Section.class), result.getChangedSections());
+        Assertions.assertEquals(4, result.getExecutedValidators().size());
+
+        result = validator.validateIncremental(result);
+        Assertions.assertEquals(Set.of(), result.getChangedSections());
+        Assertions.assertEquals(List.of(), result.getExecutedValidators());
+
+        Element logicalDiv = ValidatorUtil.getLogicalStructMap(mets)
+            .getDescendants(Filters.element("div", ValidatorUtil.METS)).next();
+        logicalDiv.getChildren("div", ValidatorUtil.METS).get(0).removeAttribute("TYPE");
+        result = validator.validateIncremental(result);
+        Assertions.assertEquals(Set.of(Section.LOGICAL_STRUCT_MAP), result.getChangedSections());
+        Assertions.assertEquals(List.of(LogicalStructMapValidator.class, StructLinkValidator.class),
+            result.getExecutedValidators().stream().map(Object::getClass).toList());
+        Assertions.assertEquals(List.of("logical.div.type"),
+            result.getIssues().stream().map(ValidationIssue::getCode).toList());
+
+        mets.getDescendants(Filters.element("file", ValidatorUtil.METS)).next().removeAttribute("MIMETYPE");
+        result = validator.validateIncremental(result);
+        Assertions.assertEquals(Set.of(Section.FILE_SEC), result.getChangedSections());
+        Assertions.assertEquals(List.of(FileSectionValidator.class),
+            result.getExecutedValidators().stream().map(Object::getClass).toList());
+        Assertions.assertEquals(List.of("file.mimetype.missing", "logical.div.type"),
+            result.getIssues().stream().map(ValidationIssue::getCode).toList());
+        Assertions.assertEquals(2, result.getErrors().size());
+        Assertions.assertEquals(2, validator.validateParallel().size());
+
+        // a changed configuration runs the validator again
+        validator.getValidators().add(new PackageFileValidator(Path.of("first")));
+        result = validator.validateIncremental(result);
+        List<Validator> validators = validator.getValidators();
+        validators.set(validators.size() - 1, new PackageFileValidator(Path.of("second")));
+        result = validator.validateIncremental(result);
+        Assertions.assertEquals(Set.of(), result.getChangedSections());
+        Assertions.assertEquals(List.of(PackageFileValidator.class),
+            result.getExecutedValidators().stream().map(Object::getClass).toList());
+    }
+
+
+    @Test
+    public void testPrerequisites() throws IOException, JDOMException {
+        Document document = new SAXBuilder().build(METSValidatorTest.class.getResourceAsStream("/jvb_mets.xml"));
+        Element mets = document.getRootElement();
+        // the prerequisites come after their dependent in the list
+        List<Validator> validators = List.of(new StructLinkValidator(), new AltoValidator(),
+            new LogicalStructMapValidator(), new PhysicalStructureValidator(), new FileSectionValidator());
+        METSValidator validator = new METSValidator(document, validators);
+        List<Validator> started = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        validator.getListeners().add(new ValidationListener() {
+            @Override
+            public synchronized void validatorStarted(Validator validator) {
+                started.add(validator);
+            }
+
+            @Override
+            public synchronized void validatorSkipped(Validator validator, Validator prerequisite) {
+                skipped.add(validator.getClass().getSimpleName() + " " + prerequisite.getClass().getSimpleName());
+            }
+        });
+        Assertions.assertEquals(List.of(), validator.validate());
+        Assertions.assertEquals(List.of(validators.get(2), validators.get(3), validators.get(0), validators.get(4),
+            validators.get(1)), started);
+
+        mets.getDescendants(Filters.element("file", ValidatorUtil.METS)).next().removeAttribute("MIMETYPE");
+        mets.getDescendants(Filters.element("fptr", ValidatorUtil.METS)).next().removeAttribute("FILEID");
+        started.clear();
+        List<String> expected = List.of("physical.fptr.fileId", "file.mimetype.missing");
+        ValidationIssueSink sink = new ValidationIssueSink();
+        validator.validate(sink);
+        Assertions.assertEquals(expected, sink.getIssues().stream().map(ValidationIssue::getCode).toList());
+        Assertions.assertEquals(List.of(validators.get(2), validators.get(3), validators.get(4)), started);
+        Assertions.assertEquals(List.of("StructLinkValidator PhysicalStructureValidator",
+            "AltoValidator FileSectionValidator"), skipped);
+        Assertions.assertEquals(2, validator.validate().size());
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            Assertions.assertEquals(2, validator.validateParallel(executor).size());
+        }
+
+        // the StructLinkValidator is evaluated again when the PhysicalStructureValidator succeeds
+        ValidationResult result = validator.validateIncremental();
+        mets.getDescendants(Filters.element("fptr", ValidatorUtil.METS)).next().setAttribute("FILEID",
+            "MASTER_JVB_18920529_125_167758667_B1_001");
+        result = validator.validateIncremental(result);
+        Assertions.assertEquals(List.of(StructLinkValidator.class, PhysicalStructureValidator.class),
+            result.getExecutedValidators().stream().map(Object::getClass).toList());
+
+        METSValidator cyclic = new METSValidator(document, List.of(new StructLinkValidator(),
+            new PhysicalStructureValidator() {
+                @Override
+                public Set<Class<? extends Validator>> getPrerequisites() {
+                    return Set.of(StructLinkValidator.class);
+                }
+            }));
+        Assertions.assertThrows(IllegalStateException.class, cyclic::validate);
+    }
+
+    @Test
+    public void testPath(@TempDir Path directory) throws IOException, JDOMException, NoSuchAlgorithmException {
+        byte[] mets;
+        try (InputStream is = METSValidatorTest.class.getResourceAsStream("/jvb_mets.xml")) {
+            mets = is.readAllBytes();
+        }
+        String invalid = new String(mets, StandardCharsets.UTF_8).replace("TYPE=\"physSequence\"", "TYPE=\"seq\"");
+        Path small = Files.writeString(directory.resolve("small.xml"), invalid);
+        // large enough to be memory mapped
+        Path large = Files.writeString(directory.resolve("large.xml"),
+            invalid + "<!--" + "x".repeat(MappedFileInput.MAP_THRESHOLD) + "-->");
+        for (Path path : List.of(small, large)) {
+            byte[] bytes = Files.readAllBytes(path);
+            MappedFileInput input = MappedFileInput.open(path);
+            Assertions.assertEquals(bytes.length, input.size());
+            Assertions.assertArrayEquals(bytes, input.newInputStream().readAllBytes());
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            input.update(digest);
+            Assertions.assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(bytes), digest.digest());
+
+            METSValidator validator = new METSValidator(path);
+            validator.getValidators().removeIf(SchemaValidator.class::isInstance);
+            List<ValidationException> errors = validator.validate();
+            Assertions.assertEquals(1, errors.size());
+            Assertions.assertEquals(37, errors.get(0).getLineNumber());
+        }
+    }
+
+
+    @Test
+    public void testLazyLineNumbers() throws IOException, JDOMException {
+        String mets;
+        try (InputStream is = METSValidatorTest.class.getResourceAsStream("/jvb_mets.xml")) {
+            mets = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        // a gap of more than 255 lines between two elements
+        byte[] invalid = mets.replaceAll(" MIMETYPE=\"[^\"]*\"", "")
+            .replace("TYPE=\"physSequence\"", "TYPE=\"seq\"")
+            .replace("<mets:structLink>", "<!--" + "\n".repeat(300) + "-->\n<mets:structLink>")
+            .getBytes(StandardCharsets.UTF_8);
+
+        SAXBuilder builder = new SAXBuilder();
+        builder.setJDOMFactory(new LocatedJDOMFactory());
+        List<Element> located = new ArrayList<>();
+        builder.build(new ByteArrayInputStream(invalid)).getDescendants(Filters.element()).forEach(located::add);
+        builder.setJDOMFactory(LineNumberTable.newJDOMFactory());
+        Document document = builder.build(new ByteArrayInputStream(invalid));
+        List<Element> lazy = new ArrayList<>();
+        document.getDescendants(Filters.element()).forEach(lazy::add);
+        Assertions.assertEquals(located.size(), LineNumberTable.of(document).size());
+        Assertions.assertFalse(lazy.get(0) instanceof LocatedElement);
+        Assertions.assertEquals(-1, ValidatorUtil.getLine(new Element("mets", ValidatorUtil.METS)));
+        // backwards and forwards, the order of the lookups does not matter
+        for (int i = lazy.size() - 1; i >= 0; i--) {
+            Assertions.assertEquals(ValidatorUtil.getLine(located.get(i)), ValidatorUtil.getLine(lazy.get(i)));
+        }
+        for (int i = 0; i < lazy.size(); i++) {
+            Assertions.assertEquals(ValidatorUtil.getLine(located.get(i)), ValidatorUtil.getLine(lazy.get(i)));
+        }
+
+        ValidationIssueSink locatedSink = new ValidationIssueSink();
+        METSValidator locatedValidator = new METSValidator(new ByteArrayInputStream(invalid));
+        locatedValidator.getValidators().removeIf(SchemaValidator.class::isInstance);
+        locatedValidator.validate(locatedSink);
+        ValidationIssueSink lazySink = new ValidationIssueSink();
+        METSValidator lazyValidator = new METSValidator(new ByteArrayInputStream(invalid), true);
+        lazyValidator.getValidators().removeIf(SchemaValidator.class::isInstance);
+        lazyValidator.validate(lazySink);
+        Assertions.assertEquals(locatedSink.getIssues().toString(), lazySink.getIssues().toString());
+        Assertions.assertEquals(37, lazyValidator.validateParallel().get(1).getLineNumber());
+    }
+
+    @Test
+    public void testAltoContent(@TempDir Path directory) throws IOException, JDOMException {
+        Path altoDirectory = Files.createDirectories(directory.resolve("alto"));
+        StringBuilder paragraphs = new StringBuilder();
+        for (int i = 1; i <= 310; i++) {
+            paragraphs.append("<TextBlock ID=\"Paragraph_").append(i).append("\"/>\n");
+        }
+        String alto = "<alto>\n<Layout>\n<Illustration ID=\"Illustration_1\"/>\n<Illustration ID=\"Illustration_2\"/>\n"
+            + paragraphs + "</Layout>\n</alto>\n";
+        List<Path> altoFiles = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            altoFiles.add(Files.writeString(altoDirectory.resolve("JVB_18920529_125_167758667_B1_00" + i + ".xml"),
+                alto));
+        }
+        Path schema = Files.writeString(directory.resolve("alto.xsd"),
+            "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"><xs:element name=\"alto\"><xs:complexType>"
+                + "<xs:sequence><xs:any processContents=\"skip\" maxOccurs=\"unbounded\"/></xs:sequence>"
+                + "</xs:complexType></xs:element></xs:schema>");
+        AltoContentValidator altoContentValidator = new AltoContentValidator(directory, 2, schema.toUri().toURL());
+        Assertions.assertTrue(validateAltoContent(altoContentValidator).isEmpty());
+
+        Files.writeString(altoFiles.get(0), alto.replace("\"Paragraph_35\"", "\"Paragraph_x\""));
+        Files.writeString(altoFiles.get(1), alto.replace("Paragraph_1\"", "Paragraph_0\"")
+            .replace("Paragraph_17\"", "Paragraph_1\"").replace("Paragraph_0\"", "Paragraph_17\""));
+        Files.writeString(altoFiles.get(2), alto.substring(0, alto.length() / 2));
+        Files.delete(altoFiles.get(3));
+        List<ValidationIssue> issues = validateAltoContent(altoContentValidator);
+        Assertions.assertEquals(List.of("alto.area.begin", "alto.area.order", "alto.content.malformed",
+            "alto.content.missing"), issues.stream().map(ValidationIssue::getCode).toList());
+        Assertions.assertEquals(28, issues.get(2).getLineNumber());
+
+        Files.writeString(altoFiles.get(0), alto.replace("<alto>", "<alto version=\"1\">"));
+        Files.writeString(altoFiles.get(1), alto.replace("alto>", "mets>"));
+        issues = validateAltoContent(new AltoContentValidator(directory, 1, schema.toUri().toURL()));
+        Assertions.assertEquals(List.of("alto.content.schema", "alto.content.schema", "alto.content.malformed",
+            "alto.content.missing"), issues.stream().map(ValidationIssue::getCode).toList());
+        // without a schema only well-formedness and the IDs are checked
+        Assertions.assertEquals(List.of("alto.content.root", "alto.content.malformed", "alto.content.missing"),
+            validateAltoContent(new AltoContentValidator(directory)).stream().map(ValidationIssue::getCode).toList());
+    }
+
+    @Test
+    public void testPackageFiles(@TempDir Path directory) throws IOException, JDOMException,
+        NoSuchAlgorithmException {
+        Document document = buildJVBMets();
+        List<Element> files = new ArrayList<>();
+        document.getDescendants(Filters.element("file", ValidatorUtil.METS)).forEach(files::add);
+        Files.createDirectories(directory.resolve("alto"));
+        for (Element file : files) {
+            String href = file.getChild("FLocat", ValidatorUtil.METS).getAttributeValue("href", ValidatorUtil.XLINK);
+            byte[] content = ("content of " + href).getBytes(StandardCharsets.UTF_8);
+            Files.write(directory.resolve(href), content);
+            file.setAttribute("SIZE", String.valueOf(content.length));
+            file.setAttribute("CHECKSUMTYPE", "SHA-256");
+            file.setAttribute("CHECKSUM", HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)));
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(Files.readAllBytes(directory.resolve("JVB_18920529_125_167758667_B1_002.tif")));
+        files.get(1).setAttribute("CHECKSUMTYPE", "CRC32");
+        files.get(1).setAttribute("CHECKSUM", Long.toHexString(crc32.getValue()).toUpperCase(Locale.ROOT));
+        PackageFileValidator packageFileValidator = new PackageFileValidator(directory, 2);
+        Assertions.assertTrue(validatePackageFiles(document, packageFileValidator).isEmpty());
+
+        files.get(0).setAttribute("CHECKSUM", "0".repeat(64));
+        files.get(1).setAttribute("SIZE", "1");
+        Files.delete(directory.resolve("JVB_18920529_125_167758667_B1_003.tif"));
+        files.get(3).setAttribute("CHECKSUMTYPE", "HAVAL");
+        files.get(4).getChild("FLocat", ValidatorUtil.METS).setAttribute("href", "../mets.xml", ValidatorUtil.XLINK);
+        List<ValidationIssue> issues = validatePackageFiles(document, packageFileValidator);
+        Assertions.assertEquals(List.of("file.local.checksum", "file.local.checksumtype", "file.local.missing",
+            "file.local.outside", "file.local.size"), issues.stream().map(ValidationIssue::getCode).sorted().toList());
+        Assertions.assertEquals(Severity.WARNING, issues.stream()
+            .filter(issue -> issue.getCode().equals("file.local.checksumtype")).findFirst().get().getSeverity());
+    }
+
+    @Test
+    public void testPackageFilesWarningBeforeError(@TempDir Path directory) throws IOException, JDOMException {
+        Document document = buildJVBMets();
+        List<Element> files = new ArrayList<>();
+        document.getDescendants(Filters.element("file", ValidatorUtil.METS)).forEach(files::add);
+        Files.createDirectories(directory.resolve("alto"));
+        for (Element file : files) {
+            String href = file.getChild("FLocat", ValidatorUtil.METS).getAttributeValue("href", ValidatorUtil.XLINK);
+            Files.write(directory.resolve(href), new byte[0]);
+        }
+        files.get(0).setAttribute("CHECKSUMTYPE", "HAVAL");
+        files.get(0).setAttribute("CHECKSUM", "0".repeat(32));
+        Files.delete(directory.resolve("JVB_18920529_125_167758667_B1_003.tif"));
+        METSValidator validator = new METSValidator(document,
+            List.of(new FileSectionValidator(), new PackageFileValidator(directory, 2)));
+
+        List<ValidationException> errors = validator.validate();
+        Assertions.assertEquals(1, errors.size());
+        Assertions.assertTrue(errors.get(0).getMessage().contains("does not exist"), errors.get(0).getMessage());
+        errors = validator.validateFailFast();
+        Assertions.assertEquals(1, errors.size());
+        Assertions.assertTrue(errors.get(0).getMessage().contains("does not exist"), errors.get(0).getMessage());
+
+        ValidationIssueSink sink = new ValidationIssueSink(1);
+        validator.validate(sink);
+        Assertions.assertEquals(List.of("file.local.checksumtype", "file.local.missing"),
+            sink.getIssues().stream().map(ValidationIssue::getCode).toList());
+    }
+
+    private List<ValidationIssue> validatePackageFiles(Document document, PackageFileValidator packageFileValidator) {
+        ValidationIssueSink sink = new ValidationIssueSink();
+        packageFileValidator.validate(new ValidationContext(document), sink);
+        return sink.getIssues();
+    }
+
+    private List<ValidationIssue> validateAltoContent(AltoContentValidator altoContentValidator)
+        throws IOException, JDOMException {
+        ValidationIssueSink sink = new ValidationIssueSink();
+        altoContentValidator.validate(new ValidationContext(buildJVBMets()), sink);
+        return sink.getIssues();
+    }
+
+    private Document buildJVBMets() throws IOException, JDOMException {
+        try (InputStream is = METSValidatorTest.class.getResourceAsStream("/jvb_mets.xml")) {
+            SAXBuilder builder = new SAXBuilder();
+            builder.setJDOMFactory(new LocatedJDOMFactory());
+            return builder.build(is);
+        }
+    }
+
 }
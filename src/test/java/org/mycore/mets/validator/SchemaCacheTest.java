@@ -0,0 +1,62 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mycore.mets.validator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.xml.validation.Schema;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mycore.mets.validator.validators.SchemaValidator;
+import org.xml.sax.SAXException;
+
+public class SchemaCacheTest {
+
+    private static final String XSD = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">"
+        + "<xs:element name=\"root\"/></xs:schema>";
+
+    @Test
+    public void testSameSchema(@TempDir Path directory) throws IOException, SAXException {
+        URL location = Files.writeString(directory.resolve("test.xsd"), XSD).toUri().toURL();
+        Schema schema = SchemaCache.getSchema(location);
+        Assertions.assertSame(schema, SchemaCache.getSchema(location));
+        Assertions.assertSame(schema, SchemaCache.getSchema(URI.create(location.toExternalForm()).toURL()));
+        Assertions.assertSame(schema, new SchemaValidator(location).getSchema());
+        Assertions.assertSame(schema, new SchemaValidator(location).getSchema());
+    }
+
+    @Test
+    public void testBrokenSchemaNotCached(@TempDir Path directory) throws IOException, SAXException {
+        Path xsd = Files.writeString(directory.resolve("broken.xsd"), "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">");
+        URL location = xsd.toUri().toURL();
+        Assertions.assertThrows(SAXException.class, () -> SchemaCache.getSchema(location));
+        Assertions.assertThrows(SAXException.class, () -> new SchemaValidator(location).getSchema());
+
+        Files.writeString(xsd, XSD);
+        Schema schema = SchemaCache.getSchema(location);
+        Assertions.assertNotNull(schema);
+        Assertions.assertSame(schema, SchemaCache.getSchema(location));
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.mets.validator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.jdom2.JDOMException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mycore.mets.validator.validators.FileSectionValidator;
+import org.mycore.mets.validator.validators.SchemaValidator;
+import org.mycore.mets.validator.validators.ValidationException;
+
+public class ValidationCacheTest {
+
+    @Test
+    public void testCache(@TempDir Path directory) throws IOException, JDOMException {
+        String mets;
+        try (InputStream is = ValidationCacheTest.class.getResourceAsStream("/jvb_mets.xml")) {
+            mets = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        byte[] invalid = mets.replace("TYPE=\"physSequence\"", "TYPE=\"seq\"").getBytes(StandardCharsets.UTF_8);
+        Path invalidPath = Files.write(directory.resolve("invalid.xml"), invalid);
+        Path cacheDirectory = directory.resolve("cache");
+
+        ValidationCache cache = new ValidationCache(1024 * 1024, cacheDirectory);
+        cache.getValidators().removeIf(SchemaValidator.class::isInstance);
+        List<ValidationException> errors = cache.validate(invalidPath);
+        Assertions.assertEquals(1, errors.size());
+        Assertions.assertEquals(0, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+
+        // same bytes from a stream
+        List<ValidationException> cachedErrors = cache.validate(new ByteArrayInputStream(invalid));
+        Assertions.assertEquals(1, cache.getHits());
+        assertSameErrors(errors, cachedErrors);
+
+        // a new cache reads the report from disk
+        ValidationCache restartedCache = new ValidationCache(0, cacheDirectory);
+        restartedCache.getValidators().removeIf(SchemaValidator.class::isInstance);
+        assertSameErrors(errors, restartedCache.validate(invalidPath));
+        assertSameErrors(errors, restartedCache.validate(invalidPath));
+        Assertions.assertEquals(2, restartedCache.getHits());
+        Assertions.assertEquals(0, restartedCache.getMisses());
+
+        // other validators, other configuration
+        String fingerprint = restartedCache.getConfigurationFingerprint();
+        restartedCache.getValidators().removeIf(FileSectionValidator.class::isInstance);
+        Assertions.assertNotEquals(fingerprint, restartedCache.getConfigurationFingerprint());
+        restartedCache.validate(invalidPath);
+        Assertions.assertEquals(1, restartedCache.getMisses());
+
+        // a broken report file counts as miss
+        try (Stream<Path> reports = Files.walk(cacheDirectory.resolve(fingerprint))) {
+            for (Path report : reports.filter(Files::isRegularFile).toList()) {
+                Files.write(report, new byte[] { 0, 0, 0, 1, 127 });
+            }
+        }
+        ValidationCache brokenCache = new ValidationCache(0, cacheDirectory);
+        brokenCache.getValidators().removeIf(SchemaValidator.class::isInstance);
+        assertSameErrors(errors, brokenCache.validate(invalidPath));
+        Assertions.assertEquals(1, brokenCache.getMisses());
+        assertSameErrors(errors, brokenCache.validate(invalidPath));
+        Assertions.assertEquals(1, brokenCache.getHits());
+    }
+
+    @Test
+    public void testMemoryLimit() throws IOException, JDOMException {
+        String mets;
+        try (InputStream is = ValidationCacheTest.class.getResourceAsStream("/jvb_mets.xml")) {
+            mets = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        // a valid report takes about 128 bytes, so two fit
+        ValidationCache cache = new ValidationCache(300);
+        cache.getValidators().removeIf(SchemaValidator.class::isInstance);
+        for (int i = 0; i < 3; i++) {
+            cache.validate(new ByteArrayInputStream((mets + "<!-- " + i + " -->").getBytes(StandardCharsets.UTF_8)));
+        }
+        Assertions.assertEquals(3, cache.getMisses());
+        cache.validate(new ByteArrayInputStream((mets + "<!-- 2 -->").getBytes(StandardCharsets.UTF_8)));
+        cache.validate(new ByteArrayInputStream((mets + "<!-- 1 -->").getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(2, cache.getHits());
+        cache.validate(new ByteArrayInputStream((mets + "<!-- 0 -->").getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(4, cache.getMisses());
+    }
+
+    private static void assertSameErrors(List<ValidationException> expected, List<ValidationException> actual) {
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.get(i).getMessage(), actual.get(i).getMessage());
+            Assertions.assertEquals(expected.get(i).getLineNumber(), actual.get(i).getLineNumber());
+            Assertions.assertEquals(expected.get(i).getLocation(), actual.get(i).getLocation());
+        }
+    }
+
+}
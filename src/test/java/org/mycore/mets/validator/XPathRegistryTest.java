@@ -0,0 +1,61 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.mycore.mets.validator;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.jdom2.xpath.XPathExpression;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class XPathRegistryTest {
+
+    private static final String EXPRESSION = "mets:fileSec/mets:fileGrp[@USE=$registryTestUse]";
+
+    @Test
+    public void testThreadCopies() throws Exception {
+        long misses = XPathRegistry.getMisses();
+        XPathExpression<Element> expression = XPathRegistry.get(EXPRESSION, Filters.element(), "registryTestUse");
+        Assertions.assertEquals(misses + 1, XPathRegistry.getMisses());
+        Assertions.assertSame(expression, XPathRegistry.get(EXPRESSION, Filters.element(), "registryTestUse"));
+
+        XPathExpression<Element> otherThread;
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            otherThread = executor.submit(() -> XPathRegistry.get(EXPRESSION, Filters.element(), "registryTestUse"))
+                .get();
+        }
+        Assertions.assertNotSame(expression, otherThread);
+        Assertions.assertEquals(EXPRESSION, otherThread.getExpression());
+        // variables are per thread
+        expression.setVariable("registryTestUse", "MASTER");
+        Assertions.assertNull(otherThread.getVariable("registryTestUse"));
+
+        long hits = XPathRegistry.getHits();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 100; i++) {
+                executor.execute(() -> XPathRegistry.get(EXPRESSION, Filters.element(), "registryTestUse"));
+            }
+        }
+        Assertions.assertEquals(misses + 1, XPathRegistry.getMisses());
+        Assertions.assertEquals(hits + 100, XPathRegistry.getHits());
+    }
+
+}
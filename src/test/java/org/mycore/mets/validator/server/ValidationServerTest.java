@@ -0,0 +1,113 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.mets.validator.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mycore.mets.validator.validators.SchemaValidator;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class ValidationServerTest {
+
+    @Test
+    public void testValidate() throws IOException, InterruptedException {
+        String mets;
+        try (InputStream is = ValidationServerTest.class.getResourceAsStream("/jvb_mets.xml")) {
+            mets = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        ValidationServer server = new ValidationServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        server.getValidators().removeIf(SchemaValidator.class::isInstance);
+        server.start();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            URI base = URI.create("http://localhost:" + server.getAddress().getPort());
+
+            HttpResponse<String> response = post(client, base.resolve("/validate"), mets);
+            Assertions.assertEquals(200, response.statusCode());
+            Assertions.assertEquals("{\"valid\":true,\"errors\":[]}", response.body());
+
+            String invalid = mets.replace("TYPE=\"physSequence\"", "TYPE=\"seq\"");
+            String expected = "{\"valid\":false,\"errors\":[{\"message\":\"Missing or invalid @TYPE attribute. "
+                + "Should be @TYPE='physSequence'.\",\"line\":37,\"location\":";
+            Assertions.assertEquals(expected, post(client, base.resolve("/validate"), invalid).body().substring(0, expected.length()));
+            Assertions.assertTrue(post(client, base.resolve("/validate?mode=streaming"), invalid).body()
+                .startsWith(expected));
+
+            response = post(client, base.resolve("/validate"), mets.substring(0, 1000));
+            Assertions.assertEquals(400, response.statusCode());
+            Assertions.assertTrue(response.body().startsWith("{\"error\":\"Unable to parse METS document: "));
+
+            response = client.send(HttpRequest.newBuilder(base.resolve("/validate")).build(),
+                HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(405, response.statusCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testDoctypeRejected() throws IOException, InterruptedException {
+        AtomicInteger dtdRequests = new AtomicInteger();
+        HttpServer dtdServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        dtdServer.createContext("/mets.dtd", exchange -> {
+            dtdRequests.incrementAndGet();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        dtdServer.start();
+        ValidationServer server = new ValidationServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        server.getValidators().removeIf(SchemaValidator.class::isInstance);
+        server.start();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            URI base = URI.create("http://localhost:" + server.getAddress().getPort());
+            String mets = "<?xml version=\"1.0\"?><!DOCTYPE mets SYSTEM \"http://localhost:"
+                + dtdServer.getAddress().getPort() + "/mets.dtd\"><mets xmlns=\"http://www.loc.gov/METS/\"/>";
+            for (String uri : List.of("/validate", "/validate?mode=streaming")) {
+                HttpResponse<String> response = post(client, base.resolve(uri), mets);
+                Assertions.assertEquals(400, response.statusCode(), uri);
+                Assertions.assertTrue(response.body().contains("DOCTYPE"), response.body());
+            }
+            Assertions.assertEquals(0, dtdRequests.get());
+        } finally {
+            server.stop(0);
+            dtdServer.stop(0);
+        }
+    }
+
+    private static HttpResponse<String> post(HttpClient client, URI uri, String body)
+        throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.mets.validator.stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jdom2.JDOMException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mycore.mets.validator.METSValidator;
+import org.mycore.mets.validator.validators.AltoValidator;
+import org.mycore.mets.validator.validators.SchemaValidator;
+import org.mycore.mets.validator.validators.ValidationException;
+
+public class StreamingMETSValidatorTest {
+
+    @Test
+    public void testSameErrorsAsDOM() throws IOException, JDOMException, XMLStreamException {
+        String mets;
+        try (InputStream is = StreamingMETSValidatorTest.class.getResourceAsStream("/jvb_mets.xml")) {
+            mets = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Map<String, String> variants = new LinkedHashMap<>();
+        variants.put("valid", mets);
+        variants.put("mimetype", mets.replaceFirst("MIMETYPE=\"image/tiff\"", "MIMETYPE=\"text/plain\""));
+        variants.put("no flocat", mets.replaceFirst("<mets:FLocat [^>]*>", ""));
+        variants.put("alto dir", mets.replaceFirst("xlink:href=\"alto/", "xlink:href=\"ocr/"));
+        variants.put("absolute href", mets.replaceFirst("xlink:href=\"alto/", "xlink:href=\"file:/alto/"));
+        variants.put("no file id", mets.replaceFirst("<mets:file ID=\"[^\"]*\"", "<mets:file"));
+        variants.put("no alto group", mets.replace("USE=\"ALTO\"", "USE=\"FULLTEXT\""));
+        variants.put("no fileSec", mets.replaceFirst("(?s)<mets:fileSec>.*</mets:fileSec>", ""));
+        variants.put("page type", mets.replaceFirst("TYPE=\"page\"", "TYPE=\"pages\""));
+        variants.put("no fptr fileid", mets.replaceFirst("<mets:fptr FILEID=\"MASTER[^\"]*_002\" />",
+            "<mets:fptr />"));
+        variants.put("physSequence", mets.replace("TYPE=\"physSequence\"", "TYPE=\"sequence\""));
+        variants.put("no physical", mets.replace("TYPE=\"PHYSICAL\"", "TYPE=\"OTHER\""));
+        variants.put("no logical", mets.replace("TYPE=\"LOGICAL\"", "TYPE=\"OTHER\""));
+        variants.put("duplicate id", mets.replace("<mets:div ID=\"jportal_jparticle_01515004\"",
+            "<mets:div ID=\"jportal_jparticle_01515003\""));
+        variants.put("empty label", mets.replace("LABEL=\"Ausland\"", "LABEL=\"\""));
+        variants.put("betype", mets.replaceFirst("BETYPE=\"IDREF\"", "BETYPE=\"XPATH\""));
+        variants.put("no seq", mets.replaceFirst("(?s)<mets:seq>(\\s*<mets:area [^>]*>)\\s*</mets:seq>", "$1"));
+        variants.put("unreferenced alto", mets.replace("FILEID=\"ALTO_JVB_18920529_125_167758667_B1_003\"",
+            "FILEID=\"ALTO_JVB_18920529_125_167758667_B1_002\""));
+        variants.put("unlinked article", mets.replaceFirst(
+            "<mets:smLink [^>]*xlink:from=\"jportal_jparticle_01515003\"[^>]*>", ""));
+        variants.put("unknown page", mets.replace("xlink:to=\"phys_JVB_18920529_125_167758667_B1_004\"",
+            "xlink:to=\"phys_unknown\""));
+        variants.put("empty from", mets.replaceFirst("xlink:from=\"[^\"]*\"", "xlink:from=\"\""));
+        variants.put("no structLink", mets.replaceFirst("(?s)<mets:structLink>.*</mets:structLink>", ""));
+
+        for (Map.Entry<String, String> variant : variants.entrySet()) {
+            byte[] bytes = variant.getValue().getBytes(StandardCharsets.UTF_8);
+            METSValidator domValidator = new METSValidator(new ByteArrayInputStream(bytes));
+            domValidator.getValidators().removeIf(SchemaValidator.class::isInstance);
+            domValidator.getValidators().add(new AltoValidator());
+            StreamingMETSValidator streamingValidator = new StreamingMETSValidator(new ByteArrayInputStream(bytes));
+            streamingValidator.getValidators().add(new AltoStreamValidator());
+
+            List<String> expected = describe(domValidator.validate());
+            List<String> actual = describe(streamingValidator.validate());
+            Assertions.assertEquals(expected, actual, variant.getKey());
+            Assertions.assertEquals(variant.getKey().equals("valid"), expected.isEmpty(), variant.getKey());
+        }
+    }
+
+    private static List<String> describe(List<ValidationException> errors) {
+        return errors.stream().map(e -> e.getLineNumber() + ": " + e.getMessage()).toList();
+    }
+
+}